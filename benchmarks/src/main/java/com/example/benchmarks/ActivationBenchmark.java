@@ -0,0 +1,93 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.activations.IActivation;
+import com.example.activations.Linear;
+import com.example.activations.ReLU;
+import com.example.activations.Sigmoid;
+import com.example.activations.Tanh;
+import com.example.compute.ComputeBackends;
+import com.example.tensor.Tensor;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class ActivationBenchmark {
+
+    @Param({"relu", "sigmoid", "tanh", "linear"})
+    public String activation;
+
+    // batch rows x units
+    @Param({"32x128", "256x1024"})
+    public String shape;
+
+    @Param({"auto"})
+    public String backend;
+
+    private IActivation function;
+    private Tensor z;
+    private double[] bias;
+    private Tensor output;
+    private Tensor outputGradient;
+    private Tensor inputGradient;
+
+    @Setup
+    public void setup() {
+        ComputeBackends.set(ComputeBackends.select(backend));
+        String[] dims = shape.split("x");
+        int rows = Integer.parseInt(dims[0]);
+        int cols = Integer.parseInt(dims[1]);
+
+        function = create(activation);
+        z = SyntheticData.features(rows, cols, 1);
+        bias = SyntheticData.features(1, cols, 2).getData();
+        output = new Tensor(rows, cols);
+        outputGradient = SyntheticData.features(rows, cols, 3);
+        inputGradient = new Tensor(rows, cols);
+        function.forwardInto(z, bias, output);
+    }
+
+    static IActivation create(String name) {
+        switch (name) {
+            case "relu":
+                return new ReLU();
+            case "sigmoid":
+                return new Sigmoid();
+            case "tanh":
+                return new Tanh();
+            case "linear":
+                return new Linear();
+            default:
+                throw new IllegalArgumentException("Unknown activation '" + name + "'");
+        }
+    }
+
+    // Bias add fused with the activation, as DenseLayer runs it
+    @Benchmark
+    public Tensor forward() {
+        function.forwardInto(z, bias, output);
+        return output;
+    }
+
+    @Benchmark
+    public Tensor backward() {
+        function.backwordInto(output, outputGradient, inputGradient);
+        return inputGradient;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.data.ColumnarTable;
+import com.example.tensor.Tensor;
+import com.example.utils.CSVDataReader;
+
+// Whole-file loads, so every invocation is timed on its own.
+// The default sizes fit a 4 GB heap; add -p rows=10000000 (and a larger -Xmx) for the 10M-row file
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CsvLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"10"})
+    public int featureCols;
+
+    private Path file;
+    private Path columnar;
+
+    @Setup
+    public void setup() throws IOException {
+        file = SyntheticData.csv(rows, featureCols, 42);
+        columnar = file.resolveSibling(file.getFileName() + ".tnnc");
+        ColumnarTable.load(file.toString(), columnar);
+    }
+
+    @Benchmark
+    public CSVDataReader loadData() throws IOException {
+        CSVDataReader reader = new CSVDataReader(file.toString());
+        reader.loadData();
+        return reader;
+    }
+
+    @Benchmark
+    public double[][] loadDataAsDoubleArray() throws IOException {
+        CSVDataReader reader = new CSVDataReader(file.toString());
+        reader.loadData();
+        return reader.getDataAsDoubleArray();
+    }
+
+    @Benchmark
+    public Tensor loadTensor() throws IOException {
+        return new CSVDataReader(file.toString()).loadTensor();
+    }
+
+    // Reopening the columnar cache converted in setup, then copying it into a Tensor
+    @Benchmark
+    public Tensor loadColumnarCache() throws IOException {
+        return ColumnarTable.load(file.toString(), columnar).toTensor();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.utils.DataSplitter;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class DataSplitterBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"10"})
+    public int featureCols;
+
+    @Param({"32"})
+    public int batchSize;
+
+    private double[][] features;
+    private double[][] labels;
+    private DataSplitter splitter;
+
+    @Setup
+    public void setup() {
+        features = SyntheticData.features2d(rows, featureCols, 1);
+        labels = SyntheticData.labels2d(features);
+        splitter = new DataSplitter(42);
+    }
+
+    @Benchmark
+    public double[][][] trainTestSplit() {
+        return splitter.trainTestSplit(features, labels, 0.2);
+    }
+
+    @Benchmark
+    public double[][][][] createBatches() {
+        return splitter.createBatches(features, labels, batchSize);
+    }
+}
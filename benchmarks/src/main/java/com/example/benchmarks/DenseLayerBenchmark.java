@@ -0,0 +1,82 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.activations.ReLU;
+import com.example.compute.ComputeBackends;
+import com.example.init.He;
+import com.example.layers.DenseLayer;
+import com.example.layers.Precision;
+import com.example.tensor.Tensor;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class DenseLayerBenchmark {
+
+    // inputSize x outputSize
+    @Param({"64x64", "256x256", "1024x1024"})
+    public String shape;
+
+    @Param({"1", "32", "256"})
+    public int batchSize;
+
+    @Param({"FLOAT64", "FLOAT32"})
+    public Precision precision;
+
+    // auto, scalar or vector
+    @Param({"auto"})
+    public String backend;
+
+    private DenseLayer layer;
+    private Tensor input;
+    private Tensor outputGradient;
+
+    @Setup
+    public void setup() {
+        ComputeBackends.set(ComputeBackends.select(backend));
+        String[] dims = shape.split("x");
+        int inputSize = Integer.parseInt(dims[0]);
+        int outputSize = Integer.parseInt(dims[1]);
+
+        layer = new DenseLayer(inputSize, outputSize, new He(42), new ReLU(), precision);
+        input = SyntheticData.features(batchSize, inputSize, 1);
+        outputGradient = SyntheticData.features(batchSize, outputSize, 2);
+        layer.reserveWorkspace(batchSize);
+
+        // Backward reads the cached forward state and allocates the gradients on first use
+        layer.forward(input);
+        layer.backward(outputGradient);
+    }
+
+    @Benchmark
+    public Tensor forward() {
+        return layer.forward(input);
+    }
+
+    @Benchmark
+    public Tensor backward() {
+        return layer.backward(outputGradient);
+    }
+
+    @Benchmark
+    public void updateParameters() {
+        // Tiny step so the weights stay in range over millions of invocations
+        layer.updateParameters(1e-9);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.compute.ComputeBackends;
+import com.example.loss.CrossEntropy;
+import com.example.loss.ILossFunction;
+import com.example.loss.MeanAbsoluteError;
+import com.example.loss.MeanSquaredError;
+import com.example.tensor.Tensor;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class LossBenchmark {
+
+    @Param({"mse", "mae", "cross_entropy"})
+    public String loss;
+
+    @Param({"32", "1024"})
+    public int batchSize;
+
+    @Param({"10"})
+    public int outputs;
+
+    @Param({"auto"})
+    public String backend;
+
+    private ILossFunction function;
+    private CrossEntropy crossEntropy;
+    private Tensor logits;
+    private Tensor predictions;
+    private Tensor targets;
+    private Tensor gradient;
+
+    @Setup
+    public void setup() {
+        ComputeBackends.set(ComputeBackends.select(backend));
+        function = create(loss);
+        crossEntropy = new CrossEntropy();
+
+        // Probabilities strictly inside (0, 1) so cross-entropy stays finite, 0/1 targets
+        Random random = new Random(42);
+        logits = SyntheticData.features(batchSize, outputs, 1);
+        predictions = new Tensor(batchSize, outputs);
+        targets = new Tensor(batchSize, outputs);
+        for (int i = 0; i < batchSize; i++) {
+            for (int j = 0; j < outputs; j++) {
+                predictions.set(i, j, 1.0 / (1.0 + Math.exp(-logits.get(i, j))));
+                targets.set(i, j, random.nextBoolean() ? 1.0 : 0.0);
+            }
+        }
+        gradient = new Tensor(batchSize, outputs);
+    }
+
+    static ILossFunction create(String name) {
+        switch (name) {
+            case "mse":
+                return new MeanSquaredError();
+            case "mae":
+                return new MeanAbsoluteError();
+            case "cross_entropy":
+                return new CrossEntropy();
+            default:
+                throw new IllegalArgumentException("Unknown loss '" + name + "'");
+        }
+    }
+
+    @Benchmark
+    public double computeLoss() {
+        return function.computeLoss(predictions, targets);
+    }
+
+    @Benchmark
+    public Tensor computeGradient() {
+        function.computeGradientInto(predictions, targets, gradient);
+        return gradient;
+    }
+
+    // Sigmoid + cross-entropy straight from the logits, independent of the loss parameter
+    @Benchmark
+    public double fusedSigmoidCrossEntropy() {
+        return crossEntropy.computeLossAndGradientFromLogits(logits, targets, gradient);
+    }
+}
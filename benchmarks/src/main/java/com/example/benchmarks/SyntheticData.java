@@ -0,0 +1,103 @@
+package com.example.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+import com.example.tensor.Tensor;
+
+// Seeded synthetic datasets: a two-class problem over standard normal features where the
+// label depends on the first two features, so networks actually have something to learn
+public final class SyntheticData {
+
+    // Generated CSV files are kept here and reused across benchmark forks
+    public static final String DATA_DIR_PROPERTY = "tinynn.bench.dir";
+
+    private SyntheticData() {
+    }
+
+    public static Tensor features(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        Tensor result = new Tensor(rows, cols);
+        double[] data = result.getData();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextGaussian();
+        }
+        return result;
+    }
+
+    // One-hot [rows x 2] labels for the given features
+    public static Tensor labels(Tensor features) {
+        Tensor result = new Tensor(features.getRows(), 2);
+        for (int i = 0; i < features.getRows(); i++) {
+            int label = label(features.get(i, 0), features.getCols() > 1 ? features.get(i, 1) : 0.0);
+            result.set(i, label, 1.0);
+        }
+        return result;
+    }
+
+    public static double[][] features2d(int rows, int cols, long seed) {
+        return features(rows, cols, seed).toArray();
+    }
+
+    public static double[][] labels2d(double[][] features) {
+        return labels(Tensor.fromArray(features)).toArray();
+    }
+
+    private static int label(double x0, double x1) {
+        return x0 * x1 > 0 ? 1 : 0;
+    }
+
+    // CSV with a header, featureCols feature columns and a trailing 0/1 label column
+    public static void writeCsv(Path file, int rows, int featureCols, long seed) throws IOException {
+        Random random = new Random(seed);
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (int j = 0; j < featureCols; j++) {
+                writer.write("f" + j);
+                writer.write(',');
+            }
+            writer.write("label");
+            writer.newLine();
+
+            double[] row = new double[featureCols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < featureCols; j++) {
+                    row[j] = random.nextGaussian();
+                    writer.write(Double.toString(row[j]));
+                    writer.write(',');
+                }
+                writer.write(Integer.toString(label(row[0], featureCols > 1 ? row[1] : 0.0)));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns the cached CSV for these dimensions, generating it on first use
+    public static Path csv(int rows, int featureCols, long seed) throws IOException {
+        Path dir = Paths.get(System.getProperty(DATA_DIR_PROPERTY, System.getProperty("java.io.tmpdir")), "tinynn-bench");
+        Path file = dir.resolve("synthetic-" + rows + "x" + featureCols + "-" + seed + ".csv");
+        if (!Files.exists(file)) {
+            writeCsv(file, rows, featureCols, seed);
+        }
+        return file;
+    }
+
+    // java -cp target/benchmarks.jar com.example.benchmarks.SyntheticData <file> <rows> <featureCols> [seed]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SyntheticData <file> <rows> <featureCols> [seed]");
+            System.exit(2);
+        }
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        writeCsv(Paths.get(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]), seed);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.activations.ReLU;
+import com.example.activations.Sigmoid;
+import com.example.compute.ComputeBackends;
+import com.example.core.NetworkTrainer;
+import com.example.core.NeuralNetworkEngine;
+import com.example.init.He;
+import com.example.layers.DenseLayer;
+import com.example.loss.CrossEntropy;
+import com.example.tensor.Tensor;
+
+// One full NetworkTrainer epoch (shuffle, batching, forward, loss, backward, update) per invocation
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class TrainingEpochBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"32"})
+    public int featureCols;
+
+    @Param({"32", "256"})
+    public int batchSize;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"false"})
+    public boolean asynchronous;
+
+    @Param({"auto"})
+    public String backend;
+
+    private NeuralNetworkEngine engine;
+    private NetworkTrainer trainer;
+    private Tensor features;
+    private Tensor labels;
+
+    @Setup
+    public void setup() {
+        ComputeBackends.set(ComputeBackends.select(backend));
+        features = SyntheticData.features(rows, featureCols, 1);
+        labels = SyntheticData.labels(features);
+
+        engine = new NeuralNetworkEngine();
+        engine.addLayer(new DenseLayer(featureCols, 128, new He(1), new ReLU()));
+        engine.addLayer(new DenseLayer(128, 64, new He(2), new ReLU()));
+        engine.addLayer(new DenseLayer(64, 2, new He(3), new Sigmoid()));
+
+        trainer = new NetworkTrainer(engine, 42);
+        trainer.setLossFunction(new CrossEntropy());
+        trainer.setLearningRate(0.01);
+        trainer.setEpochs(1);
+        trainer.setBatchSize(batchSize);
+        trainer.setThreads(threads);
+        trainer.setAsynchronous(asynchronous);
+        trainer.setVerbose(false);
+    }
+
+    @Benchmark
+    public double epoch() {
+        trainer.train(features, labels);
+        return trainer.getTrainingLossHistory().get(0);
+    }
+}
@@ -1,15 +1,78 @@
 package com.example.activations;
 
+import com.example.tensor.Tensor;
+
 public interface IActivation {
     
-    // double because of the batches row ---> batch size, col ---> number of neurons
+    // Tensor because of the batches row ---> batch size, col ---> number of neurons
     
     // Input: z = (w * x) + b -> (pre-activation value) [Weighted sum]
     // Output: transformation
-    double[][] forward(double[][] z);
+    Tensor forward(Tensor z);
 
     // Input: da/de output gradient
     // Output: gradient with respect to the weighted sum
-    double[][] backword(double[][] da);
+    Tensor backword(Tensor da);
+
+    // Workspace variants used by the layers: write into caller-owned dst, which may alias z.
+    // The defaults run forward/backword on the whole batch and copy the result, so an activation
+    // that only implements those two keeps working (including state kept from forward for
+    // backword, which also makes it unsafe to share between threads). The built-in activations
+    // extend RowActivation, which runs the row kernels below instead and keeps no state
+
+    default void forwardInto(Tensor z, Tensor dst) {
+        forwardInto(z, null, dst);
+    }
+
+    // dst = f(z + bias); bias may be null
+    default void forwardInto(Tensor z, double[] bias, Tensor dst) {
+        Tensor input = z;
+        if (bias != null) {
+            input = z.copy();
+            for (int i = 0; i < input.getRows(); i++) {
+                int row = input.index(i, 0);
+                for (int j = 0; j < input.getCols(); j++) {
+                    input.getData()[row + j] += bias[j];
+                }
+            }
+        }
+        copyRows(forward(input), dst);
+    }
+
+    // output is the tensor written by forwardInto for the same batch
+    default void backwordInto(Tensor output, Tensor da, Tensor dst) {
+        copyRows(backword(da), dst);
+    }
+
+    // Row kernels over n contiguous values; dst may alias the source row (in-place activation).
+    // The defaults wrap the row in a one-row tensor for forward/backword, so backwordRow relies on
+    // the state of the last forward call like backword does
+
+    // dst = f(z + bias), fusing the bias add into the activation pass; bias may be null
+    default void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n) {
+        Tensor row = new Tensor(z, zOff, 1, n, n);
+        forwardInto(row, bias, new Tensor(dst, dstOff, 1, n, n));
+    }
+
+    // dst = da * f'(z), with the derivative taken from the activation output a = f(z)
+    default void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        backwordInto(new Tensor(output, outputOff, 1, n, n), new Tensor(da, daOff, 1, n, n),
+            new Tensor(dst, dstOff, 1, n, n));
+    }
+
+    private static void copyRows(Tensor src, Tensor dst) {
+        for (int i = 0; i < src.getRows(); i++) {
+            System.arraycopy(src.getData(), src.index(i, 0), dst.getData(), dst.index(i, 0), src.getCols());
+        }
+    }
+
+    // Adapters for the jagged double[][] layout (copy in, copy out)
+    default double[][] forward(double[][] z) {
+        return forward(Tensor.fromArray(z)).toArray();
+    }
+
+    default double[][] backword(double[][] da) {
+        return backword(Tensor.fromArray(da)).toArray();
+    }
 
 }
@@ -1,36 +1,35 @@
 package com.example.activations;
 
-public class Linear implements IActivation {
+import com.example.compute.ComputeBackends;
+import com.example.tensor.Tensor;
 
-    private double input[][];
+public class Linear extends RowActivation {
 
     @Override
-    public double[][] forward(double[][] z) {
-        this.input = z; // store for backpropagation
-        int batches = z.length;
-        int neurons = z[0].length;
-        double[][] output = new double[batches][neurons];
-
-        for(int i=0;i<batches;i++){
-            for(int j=0;j<neurons;j++){
-                output[i][j] = z[i][j];
-            }
+    public Tensor forward(Tensor z) {
+        return z.copy();
+    }
+
+    @Override
+    public Tensor backword(Tensor da) {
+        return da.copy();
+    }
+
+    @Override
+    public void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n) {
+        if (dst != z || dstOff != zOff) {
+            System.arraycopy(z, zOff, dst, dstOff, n);
+        }
+        if (bias != null) {
+            ComputeBackends.get().addBias(bias, dst, dstOff, n);
         }
-        return output;
     }
 
     @Override
-    public double[][] backword(double[][] da) {
-        int batches = da.length;
-        int neurons = da[0].length;
-        double[][] dz = new double[batches][neurons];
-
-        for (int i = 0; i < batches; i++) {
-            for (int j = 0; j < neurons; j++) {
-                dz[i][j] = da[i][j];
-            }
+    public void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        if (dst != da || dstOff != daOff) {
+            System.arraycopy(da, daOff, dst, dstOff, n);
         }
-        return dz;
     }
 
 
@@ -1,37 +1,36 @@
 package com.example.activations;
 
-public class ReLU implements IActivation{
+import com.example.compute.ComputeBackends;
+import com.example.tensor.Tensor;
 
-    private double[][] input;
+public class ReLU extends RowActivation {
+
+    private Tensor output; // store for backpropagation
 
     @Override
-    public double[][] forward(double[][] z) {
-        this.input = z; // store for backpropagation
-        int batches = z.length;
-        int neurons = z[0].length;
-        double[][] output = new double[batches][neurons];
-
-        for(int i=0;i<batches;i++){
-            for(int j=0;j<neurons;j++){
-                output[i][j] = Math.max(0, z[i][j]);
-            }
-        }
+    public Tensor forward(Tensor z) {
+        output = new Tensor(z.getRows(), z.getCols());
+        forwardInto(z, output);
         return output;
     }
 
+
     @Override
-    public double[][] backword(double[][] da) {
-        int batches = da.length;
-        int neurons = da[0].length;
-        double[][] inputGrad = new double[batches][neurons];
-
-        for(int i=0;i<batches;i++){
-            for(int j=0;j<neurons;j++){
-                double drev = (input[i][j] > 0)?1:0;
-                inputGrad[i][j] = da[i][j]*drev;
-            }
-        }
+    public Tensor backword(Tensor da) {
+        Tensor inputGrad = new Tensor(da.getRows(), da.getCols());
+        backwordInto(output, da, inputGrad);
         return inputGrad;
     }
 
+    @Override
+    public void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().relu(z, zOff, bias, dst, dstOff, n);
+    }
+
+    // derivative: 1 where the output is positive (same as z > 0), else 0
+    @Override
+    public void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().reluBackward(output, outputOff, da, daOff, dst, dstOff, n);
+    }
+
 }
@@ -0,0 +1,29 @@
+package com.example.activations;
+
+import com.example.tensor.Tensor;
+
+// Base for activations written as row kernels: the batch calls run forwardRow/backwordRow row by
+// row on the caller's buffers, with no copies and no state, so they are safe to share between threads
+public abstract class RowActivation implements IActivation {
+
+    @Override
+    public abstract void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n);
+
+    @Override
+    public abstract void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n);
+
+    @Override
+    public void forwardInto(Tensor z, double[] bias, Tensor dst) {
+        for (int i = 0; i < z.getRows(); i++) {
+            forwardRow(z.getData(), z.index(i, 0), bias, dst.getData(), dst.index(i, 0), z.getCols());
+        }
+    }
+
+    @Override
+    public void backwordInto(Tensor output, Tensor da, Tensor dst) {
+        for (int i = 0; i < da.getRows(); i++) {
+            backwordRow(output.getData(), output.index(i, 0), da.getData(), da.index(i, 0),
+                dst.getData(), dst.index(i, 0), da.getCols());
+        }
+    }
+}
@@ -1,39 +1,36 @@
 package com.example.activations;
 
-public class Sigmoid implements IActivation{
+import com.example.compute.ComputeBackends;
+import com.example.tensor.Tensor;
 
-    private double[][] output;
+public class Sigmoid extends RowActivation {
+
+    private Tensor output; // store for backpropagation
 
     @Override
-    public double[][] forward(double[][] z) {
-        int batches = z.length;
-        int neurons = z[0].length;
-        output = new double[batches][neurons];
-
-        for (int i = 0; i < batches; i++) {
-            for (int j = 0; j < neurons; j++) {
-                output[i][j] = 1.0 / (1.0 + Math.exp(-z[i][j]));
-            }
-        }
+    public Tensor forward(Tensor z) {
+        output = new Tensor(z.getRows(), z.getCols());
+        forwardInto(z, output);
         return output;
     }
 
 
     @Override
-    public double[][] backword(double[][] da) {
-        int batches = da.length;
-        int neurons = da[0].length;
-        double[][] inputGrad = new double[batches][neurons];
-
-        for (int i = 0; i < batches; i++) {
-            for (int j = 0; j < neurons; j++) {
-                
-                double sigmoidValue = output[i][j];
-                double derivative = sigmoidValue * (1.0 - sigmoidValue);
-                inputGrad[i][j] = da[i][j] * derivative;
-            }
-        }
+    public Tensor backword(Tensor da) {
+        Tensor inputGrad = new Tensor(da.getRows(), da.getCols());
+        backwordInto(output, da, inputGrad);
         return inputGrad;
     }
 
-}
\ No newline at end of file
+    @Override
+    public void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().sigmoid(z, zOff, bias, dst, dstOff, n);
+    }
+
+    // derivative: s * (1 - s)
+    @Override
+    public void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().sigmoidBackward(output, outputOff, da, daOff, dst, dstOff, n);
+    }
+
+}
@@ -1,41 +1,36 @@
 package com.example.activations;
 
-public class Tanh implements IActivation{
+import com.example.compute.ComputeBackends;
+import com.example.tensor.Tensor;
 
-    private double[][] input;
+public class Tanh extends RowActivation {
 
+    private Tensor output; // store for backpropagation
 
     @Override
-    public double[][] forward(double[][] z) {
-        this.input = z; // store for backpropagation
-        int batches = z.length;
-        int neurons = z[0].length;
-        double[][] output = new double[batches][neurons];
-
-        for(int i=0;i<batches;i++){
-            for(int j=0;j<neurons;j++){
-                output[i][j] = Math.tanh(z[i][j]);
-            }
-        }
+    public Tensor forward(Tensor z) {
+        output = new Tensor(z.getRows(), z.getCols());
+        forwardInto(z, output);
         return output;
     }
 
+
     @Override
-    public double[][] backword(double[][] da) {
-        int batches = da.length;
-        int neurons = da[0].length;
-        double[][] inputGrad = new double[batches][neurons];
-
-        for(int i=0;i<batches;i++){
-            for(int j=0;j<neurons;j++){
-
-                // Derivative of tanh: 1 - tanh^2(x)
-                double tanhValue = input[i][j];
-                double drev = 1 - (tanhValue * tanhValue);
-                inputGrad[i][j] = da[i][j]*drev;
-            }
-        }
+    public Tensor backword(Tensor da) {
+        Tensor inputGrad = new Tensor(da.getRows(), da.getCols());
+        backwordInto(output, da, inputGrad);
         return inputGrad;
     }
 
+    @Override
+    public void forwardRow(double[] z, int zOff, double[] bias, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().tanh(z, zOff, bias, dst, dstOff, n);
+    }
+
+    // Derivative of tanh: 1 - tanh^2(z), with tanh(z) being the output
+    @Override
+    public void backwordRow(double[] output, int outputOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        ComputeBackends.get().tanhBackward(output, outputOff, da, daOff, dst, dstOff, n);
+    }
+
 }
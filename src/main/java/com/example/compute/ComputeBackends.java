@@ -0,0 +1,74 @@
+package com.example.compute;
+
+public final class ComputeBackends {
+
+    // -Dtinynn.backend=auto|scalar|vector
+    public static final String BACKEND_PROPERTY = "tinynn.backend";
+
+    private static final String VECTOR_BACKEND_CLASS = "com.example.compute.VectorBackend";
+
+    private static volatile IComputeBackend current;
+
+    private ComputeBackends() {
+    }
+
+    public static IComputeBackend get() {
+        IComputeBackend backend = current;
+        if (backend == null) {
+            synchronized (ComputeBackends.class) {
+                if (current == null) {
+                    current = select(System.getProperty(BACKEND_PROPERTY, "auto"));
+                }
+                backend = current;
+            }
+        }
+        return backend;
+    }
+
+    public static void set(IComputeBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Compute backend cannot be null");
+        }
+        current = backend;
+    }
+
+    // "auto" prefers the vector backend and falls back to scalar code when
+    // jdk.incubator.vector is not resolved (JVM started without --add-modules)
+    public static IComputeBackend select(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Backend name cannot be null");
+        }
+        switch (name.trim().toLowerCase()) {
+            case "scalar":
+                return new ScalarBackend();
+            case "vector": {
+                IComputeBackend vector = loadVectorBackend();
+                if (vector == null) {
+                    throw new IllegalStateException(
+                        "Vector backend requested but jdk.incubator.vector is not available (run with --add-modules jdk.incubator.vector)"
+                    );
+                }
+                return vector;
+            }
+            case "auto": {
+                IComputeBackend vector = loadVectorBackend();
+                return vector != null ? vector : new ScalarBackend();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown compute backend '" + name + "', expected auto, scalar or vector");
+        }
+    }
+
+    public static boolean isVectorAvailable() {
+        return loadVectorBackend() != null;
+    }
+
+    // Loaded reflectively so this class never links against the incubator module
+    private static IComputeBackend loadVectorBackend() {
+        try {
+            return (IComputeBackend) Class.forName(VECTOR_BACKEND_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.compute;
+
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Tensor;
+
+public interface IComputeBackend {
+
+    // Name used for selection and logging ("scalar", "vector")
+    String getName();
+
+    // C = alpha * op(A) * op(B) + beta * C, op(X) = X or X^T
+    void gemm(double alpha, Tensor a, boolean transA, Tensor b, boolean transB, double beta, Tensor c);
+
+    // Same product with float32 parameters in B, accumulated in double
+    void gemm(double alpha, Tensor a, boolean transA, FloatTensor b, boolean transB, double beta, Tensor c);
+
+    // Element-wise kernels over one contiguous run of n values (typically one row of a Tensor)
+
+    double dot(double[] a, int aOff, double[] b, int bOff, int n);
+
+    // y = y + alpha * x
+    void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n);
+
+    // y = y + alpha * x into float32 storage, computed in double and rounded once
+    void axpy(double alpha, double[] x, int xOff, float[] y, int yOff, int n);
+
+    // sum a[i] * b[i] over int8 values, exact in int32 (cannot overflow for n below 133,000)
+    int dot(byte[] a, int aOff, byte[] b, int bOff, int n);
+
+    // dst = dst + bias
+    void addBias(double[] bias, double[] dst, int dstOff, int n);
+
+    // Activations fuse the bias add: dst = f(src + bias), bias may be null
+
+    // dst = max(0, src + bias)
+    void relu(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n);
+
+    // dst = (x > 0) ? da : 0
+    void reluBackward(double[] x, int xOff, double[] da, int daOff, double[] dst, int dstOff, int n);
+
+    // dst = 1 / (1 + exp(-(src + bias)))
+    void sigmoid(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n);
+
+    // dst = da * s * (1 - s)
+    void sigmoidBackward(double[] s, int sOff, double[] da, int daOff, double[] dst, int dstOff, int n);
+
+    // dst = tanh(src + bias)
+    void tanh(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n);
+
+    // dst = da * (1 - t^2)
+    void tanhBackward(double[] t, int tOff, double[] da, int daOff, double[] dst, int dstOff, int n);
+
+    // sum (p - t)^2
+    double sumSquaredDiff(double[] p, int pOff, double[] t, int tOff, int n);
+
+    // sum |p - t|
+    double sumAbsDiff(double[] p, int pOff, double[] t, int tOff, int n);
+
+    // sum -t * log(p) - (1 - t) * log(1 - p), with p clamped to [epsilon, 1 - epsilon]
+    double sumBinaryCrossEntropy(double[] p, int pOff, double[] t, int tOff, int n, double epsilon);
+
+    // Sigmoid + binary cross-entropy straight from the logits z:
+    // grad = scale * (sigmoid(z) - t), returns sum max(z, 0) - z * t + log(1 + exp(-|z|))
+    double sigmoidCrossEntropy(double[] z, int zOff, double[] t, int tOff, double scale, double[] grad, int gradOff, int n);
+
+    // dst = scale * (p - t)
+    void scaledDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n);
+
+    // dst = scale * sign(p - t)
+    void scaledSignDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n);
+}
@@ -0,0 +1,183 @@
+package com.example.compute;
+
+import com.example.tensor.Gemm;
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Tensor;
+
+public class ScalarBackend implements IComputeBackend {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void gemm(double alpha, Tensor a, boolean transA, Tensor b, boolean transB, double beta, Tensor c) {
+        Gemm.multiply(alpha, a, transA, b, transB, beta, c);
+    }
+
+    @Override
+    public void gemm(double alpha, Tensor a, boolean transA, FloatTensor b, boolean transB, double beta, Tensor c) {
+        Gemm.multiply(alpha, a, transA, b, transB, beta, c);
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        for (int i = 0; i < n; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, float[] y, int yOff, int n) {
+        for (int i = 0; i < n; i++) {
+            y[yOff + i] = (float) (y[yOff + i] + alpha * x[xOff + i]);
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOff, byte[] b, int bOff, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addBias(double[] bias, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[dstOff + i] += bias[i];
+        }
+    }
+
+    @Override
+    public void relu(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        if (bias == null) {
+            for (int i = 0; i < n; i++) {
+                dst[dstOff + i] = Math.max(0, src[srcOff + i]);
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            dst[dstOff + i] = Math.max(0, src[srcOff + i] + bias[i]);
+        }
+    }
+
+    @Override
+    public void reluBackward(double[] x, int xOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            double drev = (x[xOff + i] > 0) ? 1 : 0;
+            dst[dstOff + i] = da[daOff + i] * drev;
+        }
+    }
+
+    @Override
+    public void sigmoid(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        if (bias == null) {
+            for (int i = 0; i < n; i++) {
+                dst[dstOff + i] = 1.0 / (1.0 + Math.exp(-src[srcOff + i]));
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            dst[dstOff + i] = 1.0 / (1.0 + Math.exp(-(src[srcOff + i] + bias[i])));
+        }
+    }
+
+    @Override
+    public void sigmoidBackward(double[] s, int sOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            double sigmoidValue = s[sOff + i];
+            dst[dstOff + i] = da[daOff + i] * (sigmoidValue * (1.0 - sigmoidValue));
+        }
+    }
+
+    @Override
+    public void tanh(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        if (bias == null) {
+            for (int i = 0; i < n; i++) {
+                dst[dstOff + i] = Math.tanh(src[srcOff + i]);
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            dst[dstOff + i] = Math.tanh(src[srcOff + i] + bias[i]);
+        }
+    }
+
+    @Override
+    public void tanhBackward(double[] t, int tOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            double tanhValue = t[tOff + i];
+            dst[dstOff + i] = da[daOff + i] * (1 - (tanhValue * tanhValue));
+        }
+    }
+
+    @Override
+    public double sumSquaredDiff(double[] p, int pOff, double[] t, int tOff, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double diff = p[pOff + i] - t[tOff + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumAbsDiff(double[] p, int pOff, double[] t, int tOff, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.abs(p[pOff + i] - t[tOff + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumBinaryCrossEntropy(double[] p, int pOff, double[] t, int tOff, int n, double epsilon) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double pred = Math.max(epsilon, Math.min(1.0 - epsilon, p[pOff + i]));
+            double target = t[tOff + i];
+            sum += -target * Math.log(pred) - (1.0 - target) * Math.log(1.0 - pred);
+        }
+        return sum;
+    }
+
+    @Override
+    public double sigmoidCrossEntropy(double[] z, int zOff, double[] t, int tOff, double scale, double[] grad, int gradOff, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double logit = z[zOff + i];
+            double target = t[tOff + i];
+            sum += Math.max(logit, 0) - logit * target + Math.log1p(Math.exp(-Math.abs(logit)));
+            grad[gradOff + i] = scale * (1.0 / (1.0 + Math.exp(-logit)) - target);
+        }
+        return sum;
+    }
+
+    @Override
+    public void scaledDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[dstOff + i] = scale * (p[pOff + i] - t[tOff + i]);
+        }
+    }
+
+    @Override
+    public void scaledSignDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n) {
+        for (int i = 0; i < n; i++) {
+            double diff = p[pOff + i] - t[tOff + i];
+            // When diff == 0, gradient is technically undefined, common practice is to set it to 0
+            dst[dstOff + i] = (diff > 0) ? scale : (diff < 0) ? -scale : 0.0;
+        }
+    }
+}
@@ -0,0 +1,710 @@
+package com.example.compute;
+
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Gemm;
+import com.example.tensor.Tensor;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD kernels on jdk.incubator.vector, compiled and run with --add-modules jdk.incubator.vector.
+// Only instantiated through ComputeBackends, which falls back to ScalarBackend when the module is missing
+public class VectorBackend implements IComputeBackend {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // Half-width float species with the same lane count, widened to SPECIES on load
+    private static final VectorSpecies<Float> FLOAT_SPECIES =
+        VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    // int8 dot products: bytes are widened to int32 lanes of the full vector width, PARTS int
+    // vectors per byte vector (byte vectors are at least 64 bits wide)
+    private static final VectorSpecies<Integer> INT_SPECIES =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(SPECIES.vectorBitSize()));
+    private static final VectorSpecies<Byte> BYTE_SPECIES =
+        VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, SPECIES.vectorBitSize() / 4)));
+    private static final int PARTS = BYTE_SPECIES.length() / INT_SPECIES.length();
+
+    // Same cache blocking as Gemm; the register tile is 4 rows x 2 vectors
+    private static final int MC = 64;
+    private static final int KC = 256;
+    private static final int NC = 256;
+    private static final int MR = 4;
+    private static final int NR = 2 * LANES;
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public void gemm(double alpha, Tensor a, boolean transA, Tensor b, boolean transB, double beta, Tensor c) {
+        // Tiles broadcast op(A) against contiguous rows of op(B), or take dot products of
+        // contiguous rows of A and B^T; transposing both operands has no contiguous axis
+        if (transA && transB) {
+            Gemm.multiply(alpha, a, transA, b, transB, beta, c);
+            return;
+        }
+
+        int m = transA ? a.getCols() : a.getRows();
+        int k = transA ? a.getRows() : a.getCols();
+        int kb = transB ? b.getCols() : b.getRows();
+        int n = transB ? b.getRows() : b.getCols();
+        if (k != kb || c.getRows() != m || c.getCols() != n) {
+            throw new IllegalArgumentException(
+                "GEMM shape mismatch: op(A) [" + m + " x " + k + "], op(B) [" + kb + " x " + n + "], C " + c.shapeString()
+            );
+        }
+
+        Gemm.scale(c, beta);
+        if (alpha == 0.0 || m == 0 || n == 0 || k == 0) {
+            return;
+        }
+
+        int aRs = transA ? 1 : a.getStride();
+        int aCs = transA ? a.getStride() : 1;
+        int bRs = transB ? 1 : b.getStride();
+        int bCs = transB ? b.getStride() : 1;
+        double[] ad = a.getData();
+        double[] bd = b.getData();
+        double[] cd = c.getData();
+        int cRs = c.getStride();
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    if (transB) {
+                        dotBlock(alpha, ad, a.getOffset(), aRs, bd, b.getOffset(), bCs, cd, c.getOffset(), cRs,
+                            ic, mc, jc, nc, pc, kc);
+                    } else {
+                        broadcastBlock(alpha, ad, a.getOffset(), aRs, aCs, bd, b.getOffset(), bRs, cd, c.getOffset(), cRs,
+                            ic, mc, jc, nc, pc, kc);
+                    }
+                }
+            }
+        }
+    }
+
+    // op(B) rows are contiguous: C[i, j..j+NR) += sum_p A(i, p) * B(p, j..j+NR)
+    private static void broadcastBlock(double alpha,
+                                       double[] ad, int aOff, int aRs, int aCs,
+                                       double[] bd, int bOff, int bRs,
+                                       double[] cd, int cOff, int cRs,
+                                       int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int iFull = i0 + (mc / MR) * MR;
+        int jFull = j0 + (nc / NR) * NR;
+        int jEnd = j0 + nc;
+
+        for (int i = i0; i < iFull; i += MR) {
+            for (int j = j0; j < jFull; j += NR) {
+                DoubleVector c00 = DoubleVector.zero(SPECIES), c01 = DoubleVector.zero(SPECIES);
+                DoubleVector c10 = DoubleVector.zero(SPECIES), c11 = DoubleVector.zero(SPECIES);
+                DoubleVector c20 = DoubleVector.zero(SPECIES), c21 = DoubleVector.zero(SPECIES);
+                DoubleVector c30 = DoubleVector.zero(SPECIES), c31 = DoubleVector.zero(SPECIES);
+                int aIdx = aOff + i * aRs + p0 * aCs;
+                int bIdx = bOff + p0 * bRs + j;
+                for (int p = 0; p < kc; p++) {
+                    DoubleVector b0 = DoubleVector.fromArray(SPECIES, bd, bIdx);
+                    DoubleVector b1 = DoubleVector.fromArray(SPECIES, bd, bIdx + LANES);
+                    DoubleVector a0 = DoubleVector.broadcast(SPECIES, ad[aIdx]);
+                    DoubleVector a1 = DoubleVector.broadcast(SPECIES, ad[aIdx + aRs]);
+                    DoubleVector a2 = DoubleVector.broadcast(SPECIES, ad[aIdx + 2 * aRs]);
+                    DoubleVector a3 = DoubleVector.broadcast(SPECIES, ad[aIdx + 3 * aRs]);
+                    c00 = a0.fma(b0, c00); c01 = a0.fma(b1, c01);
+                    c10 = a1.fma(b0, c10); c11 = a1.fma(b1, c11);
+                    c20 = a2.fma(b0, c20); c21 = a2.fma(b1, c21);
+                    c30 = a3.fma(b0, c30); c31 = a3.fma(b1, c31);
+                    aIdx += aCs;
+                    bIdx += bRs;
+                }
+                int cIdx = cOff + i * cRs + j;
+                storeAdd(alpha, c00, c01, cd, cIdx);
+                storeAdd(alpha, c10, c11, cd, cIdx + cRs);
+                storeAdd(alpha, c20, c21, cd, cIdx + 2 * cRs);
+                storeAdd(alpha, c30, c31, cd, cIdx + 3 * cRs);
+            }
+        }
+
+        // Leftover columns for the full row tiles, then leftover rows
+        scalarEdge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, 1, cd, cOff, cRs, i0, iFull, jFull, jEnd, p0, kc);
+        scalarEdge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, 1, cd, cOff, cRs, iFull, iEnd, j0, jEnd, p0, kc);
+    }
+
+    private static void storeAdd(double alpha, DoubleVector v0, DoubleVector v1, double[] cd, int cIdx) {
+        DoubleVector.fromArray(SPECIES, cd, cIdx).add(v0.mul(alpha)).intoArray(cd, cIdx);
+        DoubleVector.fromArray(SPECIES, cd, cIdx + LANES).add(v1.mul(alpha)).intoArray(cd, cIdx + LANES);
+    }
+
+    // A rows and B^T rows are contiguous along p: 2 x 4 tile of dot products
+    private static void dotBlock(double alpha,
+                                 double[] ad, int aOff, int aRs,
+                                 double[] bd, int bOff, int bCs,
+                                 double[] cd, int cOff, int cRs,
+                                 int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int jEnd = j0 + nc;
+        int iFull = i0 + (mc / 2) * 2;
+        int jFull = j0 + (nc / 4) * 4;
+        int pVec = SPECIES.loopBound(kc);
+
+        for (int i = i0; i < iFull; i += 2) {
+            int a0 = aOff + i * aRs + p0;
+            int a1 = a0 + aRs;
+            for (int j = j0; j < jFull; j += 4) {
+                int b0 = bOff + j * bCs + p0;
+                int b1 = b0 + bCs;
+                int b2 = b1 + bCs;
+                int b3 = b2 + bCs;
+                DoubleVector s00 = DoubleVector.zero(SPECIES), s01 = DoubleVector.zero(SPECIES);
+                DoubleVector s02 = DoubleVector.zero(SPECIES), s03 = DoubleVector.zero(SPECIES);
+                DoubleVector s10 = DoubleVector.zero(SPECIES), s11 = DoubleVector.zero(SPECIES);
+                DoubleVector s12 = DoubleVector.zero(SPECIES), s13 = DoubleVector.zero(SPECIES);
+                int p = 0;
+                for (; p < pVec; p += LANES) {
+                    DoubleVector x0 = DoubleVector.fromArray(SPECIES, ad, a0 + p);
+                    DoubleVector x1 = DoubleVector.fromArray(SPECIES, ad, a1 + p);
+                    DoubleVector w0 = DoubleVector.fromArray(SPECIES, bd, b0 + p);
+                    DoubleVector w1 = DoubleVector.fromArray(SPECIES, bd, b1 + p);
+                    DoubleVector w2 = DoubleVector.fromArray(SPECIES, bd, b2 + p);
+                    DoubleVector w3 = DoubleVector.fromArray(SPECIES, bd, b3 + p);
+                    s00 = x0.fma(w0, s00); s01 = x0.fma(w1, s01); s02 = x0.fma(w2, s02); s03 = x0.fma(w3, s03);
+                    s10 = x1.fma(w0, s10); s11 = x1.fma(w1, s11); s12 = x1.fma(w2, s12); s13 = x1.fma(w3, s13);
+                }
+                double r00 = s00.reduceLanes(VectorOperators.ADD), r01 = s01.reduceLanes(VectorOperators.ADD);
+                double r02 = s02.reduceLanes(VectorOperators.ADD), r03 = s03.reduceLanes(VectorOperators.ADD);
+                double r10 = s10.reduceLanes(VectorOperators.ADD), r11 = s11.reduceLanes(VectorOperators.ADD);
+                double r12 = s12.reduceLanes(VectorOperators.ADD), r13 = s13.reduceLanes(VectorOperators.ADD);
+                for (; p < kc; p++) {
+                    double x0 = ad[a0 + p];
+                    double x1 = ad[a1 + p];
+                    r00 += x0 * bd[b0 + p]; r01 += x0 * bd[b1 + p]; r02 += x0 * bd[b2 + p]; r03 += x0 * bd[b3 + p];
+                    r10 += x1 * bd[b0 + p]; r11 += x1 * bd[b1 + p]; r12 += x1 * bd[b2 + p]; r13 += x1 * bd[b3 + p];
+                }
+                int c0 = cOff + i * cRs + j;
+                int c1 = c0 + cRs;
+                cd[c0] += alpha * r00; cd[c0 + 1] += alpha * r01; cd[c0 + 2] += alpha * r02; cd[c0 + 3] += alpha * r03;
+                cd[c1] += alpha * r10; cd[c1 + 1] += alpha * r11; cd[c1 + 2] += alpha * r12; cd[c1 + 3] += alpha * r13;
+            }
+            for (int j = jFull; j < jEnd; j++) {
+                int bj = bOff + j * bCs + p0;
+                cd[cOff + i * cRs + j] += alpha * dotRange(ad, a0, bd, bj, kc);
+                cd[cOff + (i + 1) * cRs + j] += alpha * dotRange(ad, a1, bd, bj, kc);
+            }
+        }
+        for (int i = iFull; i < iEnd; i++) {
+            int ai = aOff + i * aRs + p0;
+            for (int j = j0; j < jEnd; j++) {
+                cd[cOff + i * cRs + j] += alpha * dotRange(ad, ai, bd, bOff + j * bCs + p0, kc);
+            }
+        }
+    }
+
+    private static void scalarEdge(double alpha,
+                                   double[] ad, int aOff, int aRs, int aCs,
+                                   double[] bd, int bOff, int bRs, int bCs,
+                                   double[] cd, int cOff, int cRs,
+                                   int iStart, int iEnd, int jStart, int jEnd, int p0, int kc) {
+        for (int i = iStart; i < iEnd; i++) {
+            for (int j = jStart; j < jEnd; j++) {
+                int a = aOff + i * aRs + p0 * aCs;
+                int b = bOff + p0 * bRs + j * bCs;
+                double sum = 0;
+                for (int p = 0; p < kc; p++) {
+                    sum += ad[a] * bd[b];
+                    a += aCs;
+                    b += bRs;
+                }
+                cd[cOff + i * cRs + j] += alpha * sum;
+            }
+        }
+    }
+
+    private static double dotRange(double[] a, int aOff, double[] b, int bOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            acc = DoubleVector.fromArray(SPECIES, a, aOff + i).fma(DoubleVector.fromArray(SPECIES, b, bOff + i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void gemm(double alpha, Tensor a, boolean transA, FloatTensor b, boolean transB, double beta, Tensor c) {
+        if (transA && transB) {
+            Gemm.multiply(alpha, a, transA, b, transB, beta, c);
+            return;
+        }
+
+        int m = transA ? a.getCols() : a.getRows();
+        int k = transA ? a.getRows() : a.getCols();
+        int kb = transB ? b.getCols() : b.getRows();
+        int n = transB ? b.getRows() : b.getCols();
+        if (k != kb || c.getRows() != m || c.getCols() != n) {
+            throw new IllegalArgumentException(
+                "GEMM shape mismatch: op(A) [" + m + " x " + k + "], op(B) [" + kb + " x " + n + "], C " + c.shapeString()
+            );
+        }
+
+        Gemm.scale(c, beta);
+        if (alpha == 0.0 || m == 0 || n == 0 || k == 0) {
+            return;
+        }
+
+        int aRs = transA ? 1 : a.getStride();
+        int aCs = transA ? a.getStride() : 1;
+        int bRs = transB ? 1 : b.getStride();
+        int bCs = transB ? b.getStride() : 1;
+        double[] ad = a.getData();
+        float[] bd = b.getData();
+        double[] cd = c.getData();
+        int cRs = c.getStride();
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    if (transB) {
+                        dotBlock(alpha, ad, a.getOffset(), aRs, bd, b.getOffset(), bCs, cd, c.getOffset(), cRs,
+                            ic, mc, jc, nc, pc, kc);
+                    } else {
+                        broadcastBlock(alpha, ad, a.getOffset(), aRs, aCs, bd, b.getOffset(), bRs, cd, c.getOffset(), cRs,
+                            ic, mc, jc, nc, pc, kc);
+                    }
+                }
+            }
+        }
+    }
+
+    private static DoubleVector widen(float[] src, int index) {
+        return (DoubleVector) FloatVector.fromArray(FLOAT_SPECIES, src, index).convertShape(VectorOperators.F2D, SPECIES, 0);
+    }
+
+    private static void broadcastBlock(double alpha,
+                                       double[] ad, int aOff, int aRs, int aCs,
+                                       float[] bd, int bOff, int bRs,
+                                       double[] cd, int cOff, int cRs,
+                                       int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int iFull = i0 + (mc / MR) * MR;
+        int jFull = j0 + (nc / NR) * NR;
+        int jEnd = j0 + nc;
+
+        for (int i = i0; i < iFull; i += MR) {
+            for (int j = j0; j < jFull; j += NR) {
+                DoubleVector c00 = DoubleVector.zero(SPECIES), c01 = DoubleVector.zero(SPECIES);
+                DoubleVector c10 = DoubleVector.zero(SPECIES), c11 = DoubleVector.zero(SPECIES);
+                DoubleVector c20 = DoubleVector.zero(SPECIES), c21 = DoubleVector.zero(SPECIES);
+                DoubleVector c30 = DoubleVector.zero(SPECIES), c31 = DoubleVector.zero(SPECIES);
+                int aIdx = aOff + i * aRs + p0 * aCs;
+                int bIdx = bOff + p0 * bRs + j;
+                for (int p = 0; p < kc; p++) {
+                    DoubleVector b0 = widen(bd, bIdx);
+                    DoubleVector b1 = widen(bd, bIdx + LANES);
+                    DoubleVector a0 = DoubleVector.broadcast(SPECIES, ad[aIdx]);
+                    DoubleVector a1 = DoubleVector.broadcast(SPECIES, ad[aIdx + aRs]);
+                    DoubleVector a2 = DoubleVector.broadcast(SPECIES, ad[aIdx + 2 * aRs]);
+                    DoubleVector a3 = DoubleVector.broadcast(SPECIES, ad[aIdx + 3 * aRs]);
+                    c00 = a0.fma(b0, c00); c01 = a0.fma(b1, c01);
+                    c10 = a1.fma(b0, c10); c11 = a1.fma(b1, c11);
+                    c20 = a2.fma(b0, c20); c21 = a2.fma(b1, c21);
+                    c30 = a3.fma(b0, c30); c31 = a3.fma(b1, c31);
+                    aIdx += aCs;
+                    bIdx += bRs;
+                }
+                int cIdx = cOff + i * cRs + j;
+                storeAdd(alpha, c00, c01, cd, cIdx);
+                storeAdd(alpha, c10, c11, cd, cIdx + cRs);
+                storeAdd(alpha, c20, c21, cd, cIdx + 2 * cRs);
+                storeAdd(alpha, c30, c31, cd, cIdx + 3 * cRs);
+            }
+        }
+
+        scalarEdge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, 1, cd, cOff, cRs, i0, iFull, jFull, jEnd, p0, kc);
+        scalarEdge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, 1, cd, cOff, cRs, iFull, iEnd, j0, jEnd, p0, kc);
+    }
+
+    private static void dotBlock(double alpha,
+                                 double[] ad, int aOff, int aRs,
+                                 float[] bd, int bOff, int bCs,
+                                 double[] cd, int cOff, int cRs,
+                                 int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int jEnd = j0 + nc;
+        int iFull = i0 + (mc / 2) * 2;
+        int jFull = j0 + (nc / 4) * 4;
+        int pVec = SPECIES.loopBound(kc);
+
+        for (int i = i0; i < iFull; i += 2) {
+            int a0 = aOff + i * aRs + p0;
+            int a1 = a0 + aRs;
+            for (int j = j0; j < jFull; j += 4) {
+                int b0 = bOff + j * bCs + p0;
+                int b1 = b0 + bCs;
+                int b2 = b1 + bCs;
+                int b3 = b2 + bCs;
+                DoubleVector s00 = DoubleVector.zero(SPECIES), s01 = DoubleVector.zero(SPECIES);
+                DoubleVector s02 = DoubleVector.zero(SPECIES), s03 = DoubleVector.zero(SPECIES);
+                DoubleVector s10 = DoubleVector.zero(SPECIES), s11 = DoubleVector.zero(SPECIES);
+                DoubleVector s12 = DoubleVector.zero(SPECIES), s13 = DoubleVector.zero(SPECIES);
+                int p = 0;
+                for (; p < pVec; p += LANES) {
+                    DoubleVector x0 = DoubleVector.fromArray(SPECIES, ad, a0 + p);
+                    DoubleVector x1 = DoubleVector.fromArray(SPECIES, ad, a1 + p);
+                    DoubleVector w0 = widen(bd, b0 + p);
+                    DoubleVector w1 = widen(bd, b1 + p);
+                    DoubleVector w2 = widen(bd, b2 + p);
+                    DoubleVector w3 = widen(bd, b3 + p);
+                    s00 = x0.fma(w0, s00); s01 = x0.fma(w1, s01); s02 = x0.fma(w2, s02); s03 = x0.fma(w3, s03);
+                    s10 = x1.fma(w0, s10); s11 = x1.fma(w1, s11); s12 = x1.fma(w2, s12); s13 = x1.fma(w3, s13);
+                }
+                double r00 = s00.reduceLanes(VectorOperators.ADD), r01 = s01.reduceLanes(VectorOperators.ADD);
+                double r02 = s02.reduceLanes(VectorOperators.ADD), r03 = s03.reduceLanes(VectorOperators.ADD);
+                double r10 = s10.reduceLanes(VectorOperators.ADD), r11 = s11.reduceLanes(VectorOperators.ADD);
+                double r12 = s12.reduceLanes(VectorOperators.ADD), r13 = s13.reduceLanes(VectorOperators.ADD);
+                for (; p < kc; p++) {
+                    double x0 = ad[a0 + p];
+                    double x1 = ad[a1 + p];
+                    r00 += x0 * bd[b0 + p]; r01 += x0 * bd[b1 + p]; r02 += x0 * bd[b2 + p]; r03 += x0 * bd[b3 + p];
+                    r10 += x1 * bd[b0 + p]; r11 += x1 * bd[b1 + p]; r12 += x1 * bd[b2 + p]; r13 += x1 * bd[b3 + p];
+                }
+                int c0 = cOff + i * cRs + j;
+                int c1 = c0 + cRs;
+                cd[c0] += alpha * r00; cd[c0 + 1] += alpha * r01; cd[c0 + 2] += alpha * r02; cd[c0 + 3] += alpha * r03;
+                cd[c1] += alpha * r10; cd[c1 + 1] += alpha * r11; cd[c1 + 2] += alpha * r12; cd[c1 + 3] += alpha * r13;
+            }
+            for (int j = jFull; j < jEnd; j++) {
+                int bj = bOff + j * bCs + p0;
+                cd[cOff + i * cRs + j] += alpha * dotRange(ad, a0, bd, bj, kc);
+                cd[cOff + (i + 1) * cRs + j] += alpha * dotRange(ad, a1, bd, bj, kc);
+            }
+        }
+        for (int i = iFull; i < iEnd; i++) {
+            int ai = aOff + i * aRs + p0;
+            for (int j = j0; j < jEnd; j++) {
+                cd[cOff + i * cRs + j] += alpha * dotRange(ad, ai, bd, bOff + j * bCs + p0, kc);
+            }
+        }
+    }
+
+    private static void scalarEdge(double alpha,
+                                   double[] ad, int aOff, int aRs, int aCs,
+                                   float[] bd, int bOff, int bRs, int bCs,
+                                   double[] cd, int cOff, int cRs,
+                                   int iStart, int iEnd, int jStart, int jEnd, int p0, int kc) {
+        for (int i = iStart; i < iEnd; i++) {
+            for (int j = jStart; j < jEnd; j++) {
+                int a = aOff + i * aRs + p0 * aCs;
+                int b = bOff + p0 * bRs + j * bCs;
+                double sum = 0;
+                for (int p = 0; p < kc; p++) {
+                    sum += ad[a] * bd[b];
+                    a += aCs;
+                    b += bRs;
+                }
+                cd[cOff + i * cRs + j] += alpha * sum;
+            }
+        }
+    }
+
+    private static double dotRange(double[] a, int aOff, float[] b, int bOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            acc = DoubleVector.fromArray(SPECIES, a, aOff + i).fma(widen(b, bOff + i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        return dotRange(a, aOff, b, bOff, n);
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOff + i);
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOff + i);
+            vx.fma(va, vy).intoArray(y, yOff + i);
+        }
+        for (; i < n; i++) {
+            y[yOff + i] += alpha * x[xOff + i];
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, float[] y, int yOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOff + i);
+            FloatVector sum = (FloatVector) vx.fma(va, widen(y, yOff + i)).convertShape(VectorOperators.D2F, FLOAT_SPECIES, 0);
+            sum.intoArray(y, yOff + i);
+        }
+        for (; i < n; i++) {
+            y[yOff + i] = (float) (y[yOff + i] + alpha * x[xOff + i]);
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOff, byte[] b, int bOff, int n) {
+        int bound = BYTE_SPECIES.loopBound(n);
+        IntVector acc = IntVector.zero(INT_SPECIES);
+        int i = 0;
+        for (; i < bound; i += BYTE_SPECIES.length()) {
+            ByteVector va = ByteVector.fromArray(BYTE_SPECIES, a, aOff + i);
+            ByteVector vb = ByteVector.fromArray(BYTE_SPECIES, b, bOff + i);
+            for (int part = 0; part < PARTS; part++) {
+                IntVector wa = (IntVector) va.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                IntVector wb = (IntVector) vb.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                acc = acc.add(wa.mul(wb));
+            }
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addBias(double[] bias, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, dst, dstOff + i)
+                .add(DoubleVector.fromArray(SPECIES, bias, i))
+                .intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] += bias[i];
+        }
+    }
+
+    @Override
+    public void relu(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            withBias(src, srcOff, bias, i).max(0.0).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] = Math.max(0, src[srcOff + i] + (bias == null ? 0.0 : bias[i]));
+        }
+    }
+
+    private static DoubleVector withBias(double[] src, int srcOff, double[] bias, int i) {
+        DoubleVector v = DoubleVector.fromArray(SPECIES, src, srcOff + i);
+        return bias == null ? v : v.add(DoubleVector.fromArray(SPECIES, bias, i));
+    }
+
+    @Override
+    public void reluBackward(double[] x, int xOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            VectorMask<Double> active = DoubleVector.fromArray(SPECIES, x, xOff + i).compare(VectorOperators.GT, 0.0);
+            zero.blend(DoubleVector.fromArray(SPECIES, da, daOff + i), active).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] = (x[xOff + i] > 0) ? da[daOff + i] : 0.0;
+        }
+    }
+
+    @Override
+    public void sigmoid(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector e = withBias(src, srcOff, bias, i).neg().lanewise(VectorOperators.EXP);
+            one.div(e.add(1.0)).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] = 1.0 / (1.0 + Math.exp(-(src[srcOff + i] + (bias == null ? 0.0 : bias[i]))));
+        }
+    }
+
+    @Override
+    public void sigmoidBackward(double[] s, int sOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector vs = DoubleVector.fromArray(SPECIES, s, sOff + i);
+            DoubleVector derivative = vs.mul(vs.neg().add(1.0));
+            DoubleVector.fromArray(SPECIES, da, daOff + i).mul(derivative).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            double sigmoidValue = s[sOff + i];
+            dst[dstOff + i] = da[daOff + i] * (sigmoidValue * (1.0 - sigmoidValue));
+        }
+    }
+
+    @Override
+    public void tanh(double[] src, int srcOff, double[] bias, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            withBias(src, srcOff, bias, i).lanewise(VectorOperators.TANH).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] = Math.tanh(src[srcOff + i] + (bias == null ? 0.0 : bias[i]));
+        }
+    }
+
+    @Override
+    public void tanhBackward(double[] t, int tOff, double[] da, int daOff, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector vt = DoubleVector.fromArray(SPECIES, t, tOff + i);
+            DoubleVector derivative = vt.mul(vt).neg().add(1.0);
+            DoubleVector.fromArray(SPECIES, da, daOff + i).mul(derivative).intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            double tanhValue = t[tOff + i];
+            dst[dstOff + i] = da[daOff + i] * (1 - (tanhValue * tanhValue));
+        }
+    }
+
+    @Override
+    public double sumSquaredDiff(double[] p, int pOff, double[] t, int tOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, p, pOff + i).sub(DoubleVector.fromArray(SPECIES, t, tOff + i));
+            acc = diff.fma(diff, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            double diff = p[pOff + i] - t[tOff + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumAbsDiff(double[] p, int pOff, double[] t, int tOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, p, pOff + i).sub(DoubleVector.fromArray(SPECIES, t, tOff + i));
+            acc = acc.add(diff.abs());
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += Math.abs(p[pOff + i] - t[tOff + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumBinaryCrossEntropy(double[] p, int pOff, double[] t, int tOff, int n, double epsilon) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector pred = DoubleVector.fromArray(SPECIES, p, pOff + i).max(epsilon).min(1.0 - epsilon);
+            DoubleVector target = DoubleVector.fromArray(SPECIES, t, tOff + i);
+            DoubleVector logP = pred.lanewise(VectorOperators.LOG);
+            DoubleVector log1mP = pred.neg().add(1.0).lanewise(VectorOperators.LOG);
+            // -t * log(p) - (1 - t) * log(1 - p)
+            acc = acc.sub(target.mul(logP)).sub(target.neg().add(1.0).mul(log1mP));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            double pred = Math.max(epsilon, Math.min(1.0 - epsilon, p[pOff + i]));
+            double target = t[tOff + i];
+            sum += -target * Math.log(pred) - (1.0 - target) * Math.log(1.0 - pred);
+        }
+        return sum;
+    }
+
+    @Override
+    public double sigmoidCrossEntropy(double[] z, int zOff, double[] t, int tOff, double scale, double[] grad, int gradOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector logit = DoubleVector.fromArray(SPECIES, z, zOff + i);
+            DoubleVector target = DoubleVector.fromArray(SPECIES, t, tOff + i);
+            DoubleVector softplus = logit.abs().neg().lanewise(VectorOperators.EXP).lanewise(VectorOperators.LOG1P);
+            acc = acc.add(logit.max(0.0).sub(logit.mul(target)).add(softplus));
+            DoubleVector p = one.div(logit.neg().lanewise(VectorOperators.EXP).add(1.0));
+            p.sub(target).mul(scale).intoArray(grad, gradOff + i);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            double logit = z[zOff + i];
+            double target = t[tOff + i];
+            sum += Math.max(logit, 0) - logit * target + Math.log1p(Math.exp(-Math.abs(logit)));
+            grad[gradOff + i] = scale * (1.0 / (1.0 + Math.exp(-logit)) - target);
+        }
+        return sum;
+    }
+
+    @Override
+    public void scaledDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, p, pOff + i)
+                .sub(DoubleVector.fromArray(SPECIES, t, tOff + i))
+                .mul(scale)
+                .intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            dst[dstOff + i] = scale * (p[pOff + i] - t[tOff + i]);
+        }
+    }
+
+    @Override
+    public void scaledSignDiff(double scale, double[] p, int pOff, double[] t, int tOff, double[] dst, int dstOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        DoubleVector positive = DoubleVector.broadcast(SPECIES, scale);
+        DoubleVector negative = DoubleVector.broadcast(SPECIES, -scale);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, p, pOff + i).sub(DoubleVector.fromArray(SPECIES, t, tOff + i));
+            zero.blend(positive, diff.compare(VectorOperators.GT, 0.0))
+                .blend(negative, diff.compare(VectorOperators.LT, 0.0))
+                .intoArray(dst, dstOff + i);
+        }
+        for (; i < n; i++) {
+            double diff = p[pOff + i] - t[tOff + i];
+            dst[dstOff + i] = (diff > 0) ? scale : (diff < 0) ? -scale : 0.0;
+        }
+    }
+}
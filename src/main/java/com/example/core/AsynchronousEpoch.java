@@ -0,0 +1,138 @@
+package com.example.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.loss.IFusedOutputLoss;
+import com.example.loss.ILossFunction;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Hogwild-style epoch: every worker claims the next mini-batch of the shuffled order, runs it
+// through its own replica and applies the update straight to the shared parameters, without locks.
+// Updates from different workers may interleave and overwrite each other; for sparse-ish
+// gradients those collisions are rare and cost less than a barrier per batch
+final class AsynchronousEpoch implements AutoCloseable {
+
+    private final ILossFunction lossFunction;
+    private final boolean fused;
+    private final int threads;
+
+    private final NeuralNetworkEngine[] replicas;
+    private final TensorBuffer[] batchInputs;
+    private final TensorBuffer[] batchTargets;
+    private final TensorBuffer[] lossGradients;
+    private final double[] workerLosses;
+
+    private final ExecutorService executor;
+    private final List<Callable<Void>> workers;
+    private final AtomicInteger nextBatch;
+
+    // Current epoch, published to the workers by invokeAll
+    private Tensor inputs;
+    private Tensor targets;
+    private int[] indices;
+    private int batchSize;
+    private double learningRate;
+
+    AsynchronousEpoch(NeuralNetworkEngine engine, ILossFunction lossFunction, boolean fused,
+                      int threads, int maxBatchSize, int inputCols, int targetCols) {
+        this.lossFunction = lossFunction;
+        this.fused = fused;
+        this.threads = threads;
+
+        this.replicas = new NeuralNetworkEngine[threads];
+        this.batchInputs = new TensorBuffer[threads];
+        this.batchTargets = new TensorBuffer[threads];
+        this.lossGradients = new TensorBuffer[threads];
+        for (int w = 0; w < threads; w++) {
+            replicas[w] = engine.replica();
+            replicas[w].reserveWorkspace(maxBatchSize);
+            batchInputs[w] = new TensorBuffer(maxBatchSize, inputCols);
+            batchTargets[w] = new TensorBuffer(maxBatchSize, targetCols);
+            lossGradients[w] = new TensorBuffer(maxBatchSize, targetCols);
+        }
+        this.workerLosses = new double[threads];
+        this.nextBatch = new AtomicInteger();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "tinynn-hogwild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.workers = new ArrayList<>(threads);
+        for (int w = 0; w < threads; w++) {
+            int worker = w;
+            workers.add(() -> {
+                runWorker(worker);
+                return null;
+            });
+        }
+    }
+
+    // Trains one pass over inputs in the order given by indices, starting at batch firstBatch;
+    // returns the summed loss (mean batch loss x batch size)
+    double run(Tensor inputs, Tensor targets, int[] indices, int batchSize, double learningRate, int firstBatch) {
+        this.inputs = inputs;
+        this.targets = targets;
+        this.indices = indices;
+        this.batchSize = batchSize;
+        this.learningRate = learningRate;
+        nextBatch.set(firstBatch);
+
+        Tasks.invokeAll(executor, workers, "Asynchronous training epoch");
+
+        double totalLoss = 0.0;
+        for (int w = 0; w < threads; w++) {
+            totalLoss += workerLosses[w];
+        }
+        return totalLoss;
+    }
+
+    private void runWorker(int w) {
+        NeuralNetworkEngine replica = replicas[w];
+        int numSamples = inputs.getRows();
+        int numBatches = (numSamples + batchSize - 1) / batchSize;
+        double loss = 0.0;
+
+        int batch;
+        while ((batch = nextBatch.getAndIncrement()) < numBatches) {
+            int startIdx = batch * batchSize;
+            int currentBatchSize = Math.min(startIdx + batchSize, numSamples) - startIdx;
+
+            Tensor batchX = batchInputs[w].rows(currentBatchSize);
+            Tensor batchY = batchTargets[w].rows(currentBatchSize);
+            NetworkTrainer.gatherRows(inputs, indices, startIdx, batchX);
+            NetworkTrainer.gatherRows(targets, indices, startIdx, batchY);
+            Tensor lossGradient = lossGradients[w].rows(currentBatchSize);
+
+            double batchLoss;
+            if (fused) {
+                Tensor logits = replica.forwardLogits(batchX);
+                batchLoss = ((IFusedOutputLoss) lossFunction).computeLossAndGradientFromLogits(logits, batchY, lossGradient);
+                replica.backwardFromLogits(lossGradient);
+            } else {
+                Tensor predictions = replica.forward(batchX);
+                batchLoss = lossFunction.computeLoss(predictions, batchY);
+                lossFunction.computeGradientInto(predictions, batchY, lossGradient);
+                replica.backward(lossGradient);
+            }
+            loss += batchLoss * currentBatchSize;
+
+            // The replica's parameters are the engine's arrays, so this is the shared update
+            replica.updateParameters(learningRate);
+        }
+        workerLosses[w] = loss;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
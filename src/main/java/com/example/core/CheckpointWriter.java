@@ -0,0 +1,65 @@
+package com.example.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Writes checkpoints on one background thread. Only the newest snapshot matters, so a snapshot
+// submitted while an older one is still waiting replaces it instead of queueing behind it, and
+// the training thread never waits for the disk (close() does, to flush the last one). A failed
+// write does not stop training; it is reported on stderr and kept for getLastFailure()
+final class CheckpointWriter implements AutoCloseable {
+
+    private final Path path;
+    private final ExecutorService executor;
+    private final AtomicReference<TrainingCheckpoint> pending;
+    private volatile IOException lastFailure;
+
+    CheckpointWriter(Path path) {
+        this.path = path;
+        this.pending = new AtomicReference<>();
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tinynn-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void submit(TrainingCheckpoint checkpoint) {
+        if (pending.getAndSet(checkpoint) == null) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        TrainingCheckpoint checkpoint;
+        while ((checkpoint = pending.getAndSet(null)) != null) {
+            try {
+                checkpoint.write(path);
+            } catch (IOException e) {
+                // Training goes on; the previous checkpoint file is still intact
+                lastFailure = e;
+                System.err.println("Warning: Could not write checkpoint " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // The most recent write failure, null if every write so far succeeded; complete after close()
+    IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    // Waits for the pending write, if any
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.loss.IFusedOutputLoss;
+import com.example.loss.ILossFunction;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// One synchronous data-parallel mini-batch: the batch is split into contiguous shards, every
+// replica runs forward/backward on its own shard concurrently, and the replica gradients are
+// reduced into the engine's gradients so a single updateParameters applies them.
+// Losses scale their gradient by 1/batch and DenseLayer divides by the batch again, so a shard
+// of n rows out of N contributes with weight (n/N)^2 to match the single-threaded step
+final class DataParallelStep implements AutoCloseable {
+
+    private final ILossFunction lossFunction;
+    private final boolean fused;
+    private final boolean deterministic;
+    private final int threads;
+
+    private final NeuralNetworkEngine[] replicas;
+    private final TensorBuffer[] lossGradients;
+    private final double[][] engineGradients;      // every layer's gradient arrays, in layer order
+    private final double[][][] replicaGradients;   // [replica][array], same order
+    private final double[] shardLosses;
+    private final double[] shardWeights;
+
+    private final ExecutorService executor;
+    private final List<Callable<Void>> shardTasks;
+    private final List<Callable<Void>> reduceTasks;
+
+    // Current batch, published to the workers by invokeAll
+    private Tensor batchInputs;
+    private Tensor batchTargets;
+    private int shards;
+
+    DataParallelStep(NeuralNetworkEngine engine, ILossFunction lossFunction, boolean fused,
+                     boolean deterministic, int threads, int maxBatchSize) {
+        this.lossFunction = lossFunction;
+        this.fused = fused;
+        this.deterministic = deterministic;
+        this.threads = threads;
+
+        int maxShardSize = (maxBatchSize + threads - 1) / threads;
+        int outputSize = engine.getLayer(engine.getLayerCount() - 1).getOutputSize();
+        this.replicas = new NeuralNetworkEngine[threads];
+        this.lossGradients = new TensorBuffer[threads];
+        this.replicaGradients = new double[threads][][];
+        for (int r = 0; r < threads; r++) {
+            replicas[r] = engine.replica();
+            replicas[r].reserveWorkspace(maxShardSize);
+            lossGradients[r] = new TensorBuffer(maxShardSize, outputSize);
+            replicaGradients[r] = gradientArrays(replicas[r]);
+        }
+        this.engineGradients = gradientArrays(engine);
+        this.shardLosses = new double[threads];
+        this.shardWeights = new double[threads];
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "tinynn-trainer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.shardTasks = new ArrayList<>(threads);
+        this.reduceTasks = new ArrayList<>(threads);
+        for (int r = 0; r < threads; r++) {
+            int replica = r;
+            shardTasks.add(() -> {
+                runShard(replica);
+                return null;
+            });
+            reduceTasks.add(() -> {
+                reduceStripe(replica);
+                return null;
+            });
+        }
+    }
+
+    private static double[][] gradientArrays(NeuralNetworkEngine engine) {
+        List<double[]> arrays = new ArrayList<>();
+        for (int i = 0; i < engine.getLayerCount(); i++) {
+            for (double[] array : engine.getLayer(i).getGradientArrays()) {
+                arrays.add(array);
+            }
+        }
+        return arrays.toArray(new double[0][]);
+    }
+
+    // Runs forward/backward for the whole batch and leaves the reduced gradients in the engine's layers;
+    // returns the mean loss over the batch
+    double run(Tensor inputs, Tensor targets) {
+        int batchSize = inputs.getRows();
+        this.batchInputs = inputs;
+        this.batchTargets = targets;
+        this.shards = Math.min(threads, batchSize);
+        for (int r = 0; r < shards; r++) {
+            double fraction = (double) shardSize(r) / batchSize;
+            shardWeights[r] = fraction * fraction;
+        }
+
+        if (deterministic) {
+            Tasks.invokeAll(executor, shardTasks.subList(0, shards), "Data-parallel training step");
+            Tasks.invokeAll(executor, reduceTasks, "Gradient reduction");
+        } else {
+            for (double[] gradient : engineGradients) {
+                Arrays.fill(gradient, 0.0);
+            }
+            Tasks.invokeAll(executor, shardTasks.subList(0, shards), "Data-parallel training step");
+        }
+
+        double totalLoss = 0.0;
+        for (int r = 0; r < shards; r++) {
+            totalLoss += shardLosses[r];
+        }
+        return totalLoss / batchSize;
+    }
+
+    private int shardStart(int shard) {
+        return (int) ((long) batchInputs.getRows() * shard / shards);
+    }
+
+    private int shardSize(int shard) {
+        return shardStart(shard + 1) - shardStart(shard);
+    }
+
+    private void runShard(int r) {
+        int start = shardStart(r);
+        int size = shardSize(r);
+        Tensor x = batchInputs.rowSlice(start, size);
+        Tensor y = batchTargets.rowSlice(start, size);
+        NeuralNetworkEngine replica = replicas[r];
+        Tensor lossGradient = lossGradients[r].rows(size);
+
+        double loss;
+        if (fused) {
+            Tensor logits = replica.forwardLogits(x);
+            loss = ((IFusedOutputLoss) lossFunction).computeLossAndGradientFromLogits(logits, y, lossGradient);
+            replica.backwardFromLogits(lossGradient);
+        } else {
+            Tensor predictions = replica.forward(x);
+            loss = lossFunction.computeLoss(predictions, y);
+            lossFunction.computeGradientInto(predictions, y, lossGradient);
+            replica.backward(lossGradient);
+        }
+        shardLosses[r] = loss * size;
+
+        if (!deterministic) {
+            // Accumulates in completion order, so the floating-point sum varies from run to run
+            double weight = shardWeights[r];
+            double[][] gradients = replicaGradients[r];
+            synchronized (engineGradients) {
+                for (int a = 0; a < engineGradients.length; a++) {
+                    double[] dst = engineGradients[a];
+                    double[] src = gradients[a];
+                    for (int i = 0; i < dst.length; i++) {
+                        dst[i] += weight * src[i];
+                    }
+                }
+            }
+        }
+    }
+
+    // Each worker owns one stripe of every gradient array and sums the replicas in
+    // replica order, so the result depends only on the seed and the thread count
+    private void reduceStripe(int stripe) {
+        for (int a = 0; a < engineGradients.length; a++) {
+            double[] dst = engineGradients[a];
+            int from = (int) ((long) dst.length * stripe / threads);
+            int to = (int) ((long) dst.length * (stripe + 1) / threads);
+            for (int i = from; i < to; i++) {
+                double sum = 0.0;
+                for (int r = 0; r < shards; r++) {
+                    sum += shardWeights[r] * replicaGradients[r][a][i];
+                }
+                dst[i] = sum;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
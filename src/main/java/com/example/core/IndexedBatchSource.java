@@ -0,0 +1,69 @@
+package com.example.core;
+
+import java.util.Random;
+
+import com.example.data.IBatchSource;
+import com.example.tensor.Tensor;
+
+// The batches of one epoch over in-memory tensors, gathered through the trainer's shuffled index
+// permutation from a given row on; lets the tensor path of NetworkTrainer run through a
+// PrefetchingBatchSource. The trainer shuffles the indices itself (startEpoch ignores random) and
+// only between epochs, when nothing is being gathered
+final class IndexedBatchSource implements IBatchSource {
+
+    private final Tensor inputs;
+    private final Tensor targets;
+    private final int[] indices;
+    private int position;
+
+    IndexedBatchSource(Tensor inputs, Tensor targets, int[] indices) {
+        this.inputs = inputs;
+        this.targets = targets;
+        this.indices = indices;
+    }
+
+    // Where the next epoch starts, in rows of the permutation
+    void seek(int row) {
+        this.position = row;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputs.getCols();
+    }
+
+    @Override
+    public int getTargetSize() {
+        return targets.getCols();
+    }
+
+    @Override
+    public long getSampleCount() {
+        return indices.length;
+    }
+
+    @Override
+    public void startEpoch(Random random) {
+    }
+
+    @Override
+    public int nextBatch(Tensor batchInputs, Tensor batchTargets) {
+        int count = Math.min(batchInputs.getRows(), indices.length - position);
+        if (count <= 0) {
+            return 0;
+        }
+        gather(inputs, batchInputs, count);
+        gather(targets, batchTargets, count);
+        position += count;
+        return count;
+    }
+
+    private void gather(Tensor source, Tensor batch, int count) {
+        double[] src = source.getData();
+        double[] dst = batch.getData();
+        int cols = source.getCols();
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(src, source.index(indices[position + i], 0), dst, batch.index(i, 0), cols);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.core;
+
+import com.example.tensor.Tensor;
+
+// No-grad forward pass over a network's shared weights. The session owns every scratch buffer
+// and the layers only run infer(), which records nothing for backprop, so any number of
+// sessions can score against one model concurrently. A session itself is single-threaded:
+// use one per thread (NeuralNetworkEngine keeps per-thread scratch for predict).
+// Weights are read as they are, so do not update them while sessions are scoring
+public class InferenceSession {
+
+    private final NeuralNetworkEngine engine;
+    private final InferenceWorkspace workspace;
+
+    public InferenceSession(NeuralNetworkEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        this.engine = engine;
+        this.workspace = new InferenceWorkspace();
+    }
+
+    // Returns a session-owned tensor, valid until the next call on this session
+    public Tensor predict(Tensor inputs) {
+        return workspace.predict(engine.layerList(), inputs);
+    }
+
+    public double[][] predict(double[][] inputs) {
+        if (inputs == null || inputs.length == 0) {
+            throw new IllegalArgumentException("Input cannot be null or empty");
+        }
+        return predict(Tensor.fromArray(inputs)).toArray();
+    }
+
+    // Writes the network output into a caller-owned [rows x outputSize] tensor
+    public void predictInto(Tensor inputs, Tensor output) {
+        workspace.predictInto(engine.layerList(), inputs, output);
+    }
+
+    // Scores one row into out (outputSize values). After the first call nothing is allocated:
+    // the features are staged in a session-owned row and every layer writes into its buffer
+    public void predictInto(double[] features, double[] out) {
+        copyRow(workspace.scoreRow(engine.layerList(), features), out);
+    }
+
+    // Single-output networks only: the one output value for this row
+    public double predictScalar(double[] features) {
+        return scalar(workspace.scoreRow(engine.layerList(), features));
+    }
+
+    static void copyRow(Tensor output, double[] out) {
+        if (out == null || out.length != output.getCols()) {
+            throw new IllegalArgumentException("Output size must be " + output.getCols());
+        }
+        System.arraycopy(output.getData(), output.getOffset(), out, 0, out.length);
+    }
+
+    static double scalar(Tensor output) {
+        if (output.getCols() != 1) {
+            throw new IllegalStateException("predictScalar needs a single-output network, this one has " + output.getCols());
+        }
+        return output.getData()[output.getOffset()];
+    }
+
+    // Sizes the buffers for batches up to maxBatchSize so later calls do not allocate
+    public void reserve(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        workspace.reserve(engine.layerList(), maxBatchSize);
+    }
+
+    public NeuralNetworkEngine getEngine() {
+        return engine;
+    }
+}
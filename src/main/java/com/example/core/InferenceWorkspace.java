@@ -0,0 +1,101 @@
+package com.example.core;
+
+import java.util.List;
+
+import com.example.layers.ILayer;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Scratch buffers of a no-grad forward pass over a given layer list. Holds no reference to the
+// network, so NeuralNetworkEngine can cache one per thread without the thread keeping the engine
+// alive. Single-threaded, see InferenceSession
+final class InferenceWorkspace {
+
+    private TensorBuffer[] buffers = new TensorBuffer[0];   // one per layer, the last one only backs predict
+    private TensorBuffer inputRow;                          // staging row for the double[] single-row calls
+
+    // Returns a workspace-owned tensor, valid until the next call on this workspace
+    Tensor predict(List<ILayer> layers, Tensor inputs) {
+        checkInputs(layers, inputs);
+        Tensor current = forwardHidden(layers, inputs);
+        Tensor output = buffers[layers.size() - 1].rows(inputs.getRows());
+        layers.get(layers.size() - 1).infer(current, output);
+        return output;
+    }
+
+    // Writes the network output into a caller-owned [rows x outputSize] tensor
+    void predictInto(List<ILayer> layers, Tensor inputs, Tensor output) {
+        checkInputs(layers, inputs);
+        ILayer last = layers.get(layers.size() - 1);
+        if (output == null || output.getRows() != inputs.getRows() || output.getCols() != last.getOutputSize()) {
+            throw new IllegalArgumentException(
+                "Output must be [" + inputs.getRows() + " x " + last.getOutputSize() + "]"
+            );
+        }
+        last.infer(forwardHidden(layers, inputs), output);
+    }
+
+    // Scores one row; after the first call nothing is allocated: the features are staged in a
+    // workspace-owned row and every layer writes into its buffer
+    Tensor scoreRow(List<ILayer> layers, double[] features) {
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("Network has no layers");
+        }
+        int inputSize = layers.get(0).getInputSize();
+        if (features == null || features.length != inputSize) {
+            throw new IllegalArgumentException("Input size must be " + inputSize);
+        }
+        ensureBuffers(layers);
+        if (inputRow == null || inputRow.getCols() != inputSize) {
+            inputRow = new TensorBuffer(1, inputSize);
+        }
+
+        Tensor row = inputRow.rows(1);
+        System.arraycopy(features, 0, row.getData(), row.getOffset(), inputSize);
+        Tensor output = buffers[layers.size() - 1].rows(1);
+        layers.get(layers.size() - 1).infer(forwardHidden(layers, row), output);
+        return output;
+    }
+
+    void reserve(List<ILayer> layers, int maxBatchSize) {
+        ensureBuffers(layers);
+        for (TensorBuffer buffer : buffers) {
+            buffer.reserve(maxBatchSize);
+        }
+    }
+
+    private void checkInputs(List<ILayer> layers, Tensor inputs) {
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("Network has no layers");
+        }
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Input cannot be null or empty");
+        }
+        ensureBuffers(layers);
+    }
+
+    private Tensor forwardHidden(List<ILayer> layers, Tensor inputs) {
+        Tensor current = inputs;
+        for (int i = 0; i < layers.size() - 1; i++) {
+            Tensor next = buffers[i].rows(inputs.getRows());
+            layers.get(i).infer(current, next);
+            current = next;
+        }
+        return current;
+    }
+
+    // Rebuilt only when the layer stack changed shape since the last call
+    private void ensureBuffers(List<ILayer> layers) {
+        boolean matches = buffers.length == layers.size();
+        for (int i = 0; matches && i < layers.size(); i++) {
+            matches = buffers[i].getCols() == layers.get(i).getOutputSize();
+        }
+        if (!matches) {
+            TensorBuffer[] rebuilt = new TensorBuffer[layers.size()];
+            for (int i = 0; i < layers.size(); i++) {
+                rebuilt[i] = new TensorBuffer(layers.get(i).getOutputSize());
+            }
+            buffers = rebuilt;
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.core;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.function.DoubleSupplier;
 
+import com.example.data.IBatchPreprocessor;
+import com.example.data.IBatchSource;
+import com.example.data.PrefetchingBatchSource;
+import com.example.loss.IFusedOutputLoss;
 import com.example.loss.ILossFunction;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
 
 public class NetworkTrainer {
 
@@ -14,7 +24,27 @@ public class NetworkTrainer {
     private int epochs;
     private int batchSize;
     private boolean verbose;
+    private boolean fuseOutputLoss;
+    private int threads;
+    private boolean deterministicReduction;
+    private boolean asynchronous;
+    private int prefetchDepth;
+    private IBatchPreprocessor batchPreprocessor;
     private Random random;
+
+    private Path checkpointPath;
+    private int checkpointEveryEpochs;
+    private int checkpointEveryBatches;
+    private Duration checkpointInterval;
+    private TrainingCheckpoint resumeCheckpoint;   // applied by the next train()
+    private int batchesSinceCheckpoint;
+    private long lastCheckpointNanos;
+    private IOException lastCheckpointFailure;
+
+    // Prefetch statistics of the last train()
+    private long prefetchBatches;
+    private long prefetchStalls;
+    private long prefetchStallNanos;
     
     private List<Double> trainingLossHistory;
     private List<Double> validationLossHistory;
@@ -28,6 +58,11 @@ public class NetworkTrainer {
         this.epochs = 100;
         this.batchSize = 32;
         this.verbose = true;
+        this.fuseOutputLoss = true;
+        this.threads = 1;
+        this.deterministicReduction = true;
+        this.asynchronous = false;
+        this.prefetchDepth = 0;
         this.random = new Random();
         this.trainingLossHistory = new ArrayList<>();
         this.validationLossHistory = new ArrayList<>();
@@ -70,9 +105,119 @@ public class NetworkTrainer {
         this.verbose = verbose;
     }
 
-    private double[][][] shuffleData(double[][] inputs, double[][] targets) {
-        int numSamples = inputs.length;
-        int[] indices = new int[numSamples];
+    // When the loss supports it (CrossEntropy after a Sigmoid output), compute loss and
+    // gradient from the logits and skip the output activation's backward pass
+    public void setFuseOutputLoss(boolean fuseOutputLoss) {
+        this.fuseOutputLoss = fuseOutputLoss;
+    }
+
+    // Synchronous data parallelism: each mini-batch is split across this many replicas of the
+    // network and their gradients are reduced before one shared update
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    // true reduces the replica gradients in a fixed order (reproducible for a given seed and thread
+    // count), false adds each replica's gradients as soon as it finishes, in whatever order that is
+    public void setDeterministicReduction(boolean deterministicReduction) {
+        this.deterministicReduction = deterministicReduction;
+    }
+
+    // Hogwild-style training when threads > 1: each thread takes whole mini-batches and updates the
+    // shared weights without locks or a barrier; not reproducible, and a thread may overwrite
+    // another's concurrent update of the same weight
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    // Gather up to n batches ahead on a background thread while the current one trains, 0 (default)
+    // gathers each batch inline. Same batches and results either way; asynchronous training
+    // gathers its own batches and ignores this
+    public void setPrefetchDepth(int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth cannot be negative");
+        }
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    // Applied to every gathered batch before it is trained on (on the prefetch thread when
+    // prefetching); null for none. Not supported with asynchronous training
+    public void setBatchPreprocessor(IBatchPreprocessor batchPreprocessor) {
+        this.batchPreprocessor = batchPreprocessor;
+    }
+
+    // Periodic checkpoints of the whole training state to this file, written on a background thread
+    // (see TrainingCheckpoint); a final one is written when train() completes. null disables them.
+    // Only DenseLayer networks can be checkpointed: train() rejects any other layer before it starts
+    public void setCheckpointPath(Path checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    // Checkpoint after every n epochs, 0 (default) disables this trigger
+    public void setCheckpointEveryEpochs(int checkpointEveryEpochs) {
+        if (checkpointEveryEpochs < 0) {
+            throw new IllegalArgumentException("Checkpoint epoch interval cannot be negative");
+        }
+        this.checkpointEveryEpochs = checkpointEveryEpochs;
+    }
+
+    // Checkpoint after every n mini-batches, also in the middle of an epoch; 0 (default) disables
+    // this trigger. Asynchronous training only checkpoints between epochs
+    public void setCheckpointEveryBatches(int checkpointEveryBatches) {
+        if (checkpointEveryBatches < 0) {
+            throw new IllegalArgumentException("Checkpoint batch interval cannot be negative");
+        }
+        this.checkpointEveryBatches = checkpointEveryBatches;
+    }
+
+    // Checkpoint when this much time has passed since the last one (checked after every batch); null disables
+    public void setCheckpointInterval(Duration checkpointInterval) {
+        if (checkpointInterval != null && (checkpointInterval.isNegative() || checkpointInterval.isZero())) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    // Restores the network's parameters, the random generator and the loss history from a checkpoint;
+    // the next train() call, with the same data and settings, continues where that run stopped.
+    // train(Tensor, ...) resumes a mid-epoch checkpoint at its batch; train(IBatchSource) cannot
+    // seek a source, so it restarts that epoch from batch 0 with a fresh shuffle
+    public void resume(Path checkpoint) throws IOException {
+        TrainingCheckpoint state = TrainingCheckpoint.read(checkpoint);
+        state.restore(engine);
+        this.random = state.restoreRandom();
+        this.trainingLossHistory = new ArrayList<>(state.getTrainingLossHistory());
+        this.validationLossHistory = new ArrayList<>(state.getValidationLossHistory());
+        this.resumeCheckpoint = state;
+    }
+
+    private boolean checkpointDue() {
+        if (checkpointEveryBatches > 0 && batchesSinceCheckpoint >= checkpointEveryBatches) {
+            return true;
+        }
+        return checkpointInterval != null && System.nanoTime() - lastCheckpointNanos >= checkpointInterval.toNanos();
+    }
+
+    // Copies the state on this thread, the writer does the I/O
+    private void checkpoint(CheckpointWriter writer, int epoch, int batch, double epochLoss, int[] indices) {
+        writer.submit(TrainingCheckpoint.capture(engine, random, epoch, batch, epochLoss, indices,
+            trainingLossHistory, validationLossHistory));
+        batchesSinceCheckpoint = 0;
+        lastCheckpointNanos = System.nanoTime();
+    }
+
+    private boolean useFusedOutputLoss() {
+        return fuseOutputLoss
+            && lossFunction instanceof IFusedOutputLoss
+            && ((IFusedOutputLoss) lossFunction).canFuseWith(engine.getOutputActivation());
+    }
+
+    // Shuffle through an index permutation instead of copying rows (reuses the indices array)
+    private void shuffleIndices(int[] indices) {
+        int numSamples = indices.length;
         for (int i = 0; i < numSamples; i++) {
             indices[i] = i;
         }
@@ -83,15 +228,16 @@ public class NetworkTrainer {
             indices[i] = indices[j];
             indices[j] = temp;
         }
-        
-        double[][] shuffledInputs = new double[numSamples][];
-        double[][] shuffledTargets = new double[numSamples][];
-        for (int i = 0; i < numSamples; i++) {
-            shuffledInputs[i] = inputs[indices[i]];
-            shuffledTargets[i] = targets[indices[i]];
+    }
+
+    // Gather the selected rows into one contiguous batch
+    static void gatherRows(Tensor source, int[] indices, int start, Tensor batch) {
+        double[] src = source.getData();
+        double[] dst = batch.getData();
+        int cols = source.getCols();
+        for (int i = 0; i < batch.getRows(); i++) {
+            System.arraycopy(src, source.index(indices[start + i], 0), dst, batch.index(i, 0), cols);
         }
-        
-        return new double[][][] { shuffledInputs, shuffledTargets };
     }
 
     public void train(double[][] inputs, double[][] targets) {
@@ -99,97 +245,408 @@ public class NetworkTrainer {
     }
 
     public void train(double[][] inputs, double[][] targets, double[][] valInputs, double[][] valTargets) {
+        if (inputs == null || targets == null) {
+            throw new IllegalArgumentException("Inputs and targets cannot be null");
+        }
+        boolean hasValidation = (valInputs != null && valTargets != null);
+        train(
+            Tensor.fromArray(inputs),
+            Tensor.fromArray(targets),
+            hasValidation ? Tensor.fromArray(valInputs) : null,
+            hasValidation ? Tensor.fromArray(valTargets) : null
+        );
+    }
+
+    public void train(Tensor inputs, Tensor targets) {
+        train(inputs, targets, null, null);
+    }
+
+    public void train(Tensor inputs, Tensor targets, Tensor valInputs, Tensor valTargets) {
         if (lossFunction == null) {
             throw new IllegalStateException("Loss function must be set before training");
         }
         if (inputs == null || targets == null) {
             throw new IllegalArgumentException("Inputs and targets cannot be null");
         }
-        if (inputs.length != targets.length) {
+        if (inputs.getRows() != targets.getRows()) {
             throw new IllegalArgumentException("Number of input samples must match number of target samples");
         }
         if (engine.getLayerCount() == 0) {
             throw new IllegalStateException("Network must have at least one layer");
         }
+        if (threads > 1 && asynchronous && batchPreprocessor != null) {
+            throw new IllegalStateException("Batch preprocessing is not supported with asynchronous training");
+        }
+        if (checkpointPath != null) {
+            TrainingCheckpoint.checkLayers(engine);
+        }
 
-        trainingLossHistory.clear();
-        validationLossHistory.clear();
-
-        int numSamples = inputs.length;
+        int numSamples = inputs.getRows();
         int numBatches = (int) Math.ceil((double) numSamples / batchSize);
         
         boolean hasValidation = (valInputs != null && valTargets != null);
 
+        // Position to continue from; a resumed run keeps the restored history
+        TrainingCheckpoint resumed = resumeCheckpoint;
+        resumeCheckpoint = null;
+        int startEpoch = 0;
+        int startBatch = 0;
+        if (resumed != null) {
+            startEpoch = resumed.getEpoch();
+            startBatch = resumed.getBatch();
+            if (startBatch > 0 && (resumed.getIndices().length != numSamples || startBatch > numBatches)) {
+                throw new IllegalStateException(
+                    "Checkpoint was taken mid-epoch on " + resumed.getIndices().length + " samples, got " + numSamples
+                );
+            }
+        } else {
+            trainingLossHistory.clear();
+            validationLossHistory.clear();
+        }
+
         if (verbose) {
             System.out.println("Starting training...");
             System.out.println("Samples: " + numSamples + ", Batch Size: " + batchSize + ", Epochs: " + epochs);
             System.out.println("Learning Rate: " + learningRate);
             if (hasValidation) {
-                System.out.println("Validation Samples: " + valInputs.length);
+                System.out.println("Validation Samples: " + valInputs.getRows());
+            }
+            if (resumed != null) {
+                System.out.println("Resuming at epoch " + (startEpoch + 1) + ", batch " + (startBatch + 1));
             }
             System.out.println("========================================");
         }
 
-        for (int epoch = 0; epoch < epochs; epoch++) {
-            double[][][] shuffled = shuffleData(inputs, targets);
-            double[][] shuffledInputs = shuffled[0];
-            double[][] shuffledTargets = shuffled[1];
-            
-            double totalLoss = 0.0;
-
-            for (int batch = 0; batch < numBatches; batch++) {
-                int startIdx = batch * batchSize;
-                int endIdx = Math.min(startIdx + batchSize, numSamples);
-                int currentBatchSize = endIdx - startIdx;
-
-                double[][] batchInputs = new double[currentBatchSize][];
-                double[][] batchTargets = new double[currentBatchSize][];
-                
-                for (int i = 0; i < currentBatchSize; i++) {
-                    batchInputs[i] = shuffledInputs[startIdx + i];
-                    batchTargets[i] = shuffledTargets[startIdx + i];
+        // Everything a mini-batch needs is allocated here once, the epoch loop reuses it
+        int[] indices = new int[numSamples];
+        int maxBatchSize = Math.min(batchSize, numSamples);
+        TensorBuffer batchInputs = new TensorBuffer(maxBatchSize, inputs.getCols());
+        TensorBuffer batchTargets = new TensorBuffer(maxBatchSize, targets.getCols());
+        TensorBuffer lossGradients = new TensorBuffer(maxBatchSize, targets.getCols());
+        engine.reserveWorkspace(maxBatchSize);
+        boolean fused = useFusedOutputLoss();
+        DataParallelStep parallelStep = threads > 1 && !asynchronous
+            ? new DataParallelStep(engine, lossFunction, fused, deterministicReduction, threads, maxBatchSize)
+            : null;
+        AsynchronousEpoch asynchronousEpoch = threads > 1 && asynchronous
+            ? new AsynchronousEpoch(engine, lossFunction, fused, threads, maxBatchSize, inputs.getCols(), targets.getCols())
+            : null;
+        IndexedBatchSource epochBatches = new IndexedBatchSource(inputs, targets, indices);
+        PrefetchingBatchSource prefetcher = newPrefetcher(epochBatches, maxBatchSize);
+        CheckpointWriter checkpoints = checkpointPath != null ? new CheckpointWriter(checkpointPath) : null;
+        lastCheckpointFailure = null;
+        batchesSinceCheckpoint = 0;
+        lastCheckpointNanos = System.nanoTime();
+
+        try {
+            for (int epoch = startEpoch; epoch < epochs; epoch++) {
+                double totalLoss = 0.0;
+                int firstBatch = 0;
+                if (epoch == startEpoch && startBatch > 0) {
+                    // Same order and partial loss as when the checkpoint was taken
+                    System.arraycopy(resumed.getIndices(), 0, indices, 0, numSamples);
+                    totalLoss = resumed.getEpochLoss();
+                    firstBatch = startBatch;
+                } else {
+                    shuffleIndices(indices);
                 }
 
-                double[][] predictions = engine.forward(batchInputs);
-
-                double batchLoss = lossFunction.computeLoss(predictions, batchTargets);
-                totalLoss += batchLoss * currentBatchSize;
+                if (asynchronousEpoch != null) {
+                    totalLoss += asynchronousEpoch.run(inputs, targets, indices, batchSize, learningRate, firstBatch);
+                    batchesSinceCheckpoint += numBatches - firstBatch;
+                } else if (prefetcher != null) {
+                    epochBatches.seek(firstBatch * batchSize);
+                    prefetcher.startEpoch(null);
+                    int batch = firstBatch;
+                    int currentBatchSize;
+                    while ((currentBatchSize = prefetcher.advance()) > 0) {
+                        double batchLoss = trainBatch(prefetcher.getInputs(), prefetcher.getTargets(),
+                            lossGradients.rows(currentBatchSize), parallelStep, fused);
+                        totalLoss += batchLoss * currentBatchSize;
+                        batch++;
+
+                        batchesSinceCheckpoint++;
+                        if (checkpoints != null && checkpointDue()) {
+                            checkpoint(checkpoints, epoch, batch, totalLoss, indices);
+                        }
+                    }
+                } else {
+                    for (int batch = firstBatch; batch < numBatches; batch++) {
+                        int startIdx = batch * batchSize;
+                        int endIdx = Math.min(startIdx + batchSize, numSamples);
+                        int currentBatchSize = endIdx - startIdx;
+
+                        Tensor batchX = batchInputs.rows(currentBatchSize);
+                        Tensor batchY = batchTargets.rows(currentBatchSize);
+                        gatherRows(inputs, indices, startIdx, batchX);
+                        gatherRows(targets, indices, startIdx, batchY);
+                        if (batchPreprocessor != null) {
+                            batchPreprocessor.process(batchX, batchY);
+                        }
+
+                        double batchLoss = trainBatch(batchX, batchY, lossGradients.rows(currentBatchSize), parallelStep, fused);
+                        totalLoss += batchLoss * currentBatchSize;
+
+                        batchesSinceCheckpoint++;
+                        if (checkpoints != null && checkpointDue()) {
+                            checkpoint(checkpoints, epoch, batch + 1, totalLoss, indices);
+                        }
+                    }
+                }
 
-                double[][] lossGradient = lossFunction.computeGradient(predictions, batchTargets);
+                finishEpoch(epoch, totalLoss / numSamples,
+                    hasValidation ? () -> engine.evaluate(valInputs, valTargets, lossFunction) : null);
 
-                engine.backward(lossGradient);
-                
-                engine.updateParameters(learningRate);
+                if (checkpoints != null && epoch < epochs - 1 && epochCheckpointDue(epoch)) {
+                    checkpoint(checkpoints, epoch + 1, 0, 0.0, indices);
+                }
+            }
+            if (checkpoints != null) {
+                checkpoint(checkpoints, epochs, 0, 0.0, indices);
             }
+        } finally {
+            if (parallelStep != null) {
+                parallelStep.close();
+            }
+            if (asynchronousEpoch != null) {
+                asynchronousEpoch.close();
+            }
+            if (prefetcher != null) {
+                closePrefetcher(prefetcher);
+            }
+            if (checkpoints != null) {
+                checkpoints.close();
+                lastCheckpointFailure = checkpoints.getLastFailure();
+            }
+        }
 
-            double avgLoss = totalLoss / numSamples;
-            trainingLossHistory.add(avgLoss);
+        printCompletion(hasValidation);
+    }
 
-            if (verbose && ((epoch + 1) % 10 == 0 || epoch == 0 || epoch == epochs - 1)) {
-                StringBuilder output = new StringBuilder();
-                output.append(String.format("Epoch %d/%d - Loss: %.6f", epoch + 1, epochs, avgLoss));
-                
-                if (hasValidation) {
-                    double valLoss = engine.evaluate(valInputs, valTargets, lossFunction);
-                    validationLossHistory.add(valLoss);
-                    output.append(String.format(" - Val Loss: %.6f", valLoss));
-                }
-                
-                System.out.println(output.toString());
-            } else if (hasValidation) {
-                double valLoss = engine.evaluate(valInputs, valTargets, lossFunction);
+    private PrefetchingBatchSource newPrefetcher(IBatchSource source, int maxBatchSize) {
+        prefetchBatches = 0;
+        prefetchStalls = 0;
+        prefetchStallNanos = 0;
+        if (prefetchDepth == 0 || (threads > 1 && asynchronous)) {
+            return null;
+        }
+        PrefetchingBatchSource prefetcher = new PrefetchingBatchSource(source, maxBatchSize, prefetchDepth);
+        prefetcher.setPreprocessor(batchPreprocessor);
+        return prefetcher;
+    }
+
+    private void closePrefetcher(PrefetchingBatchSource prefetcher) {
+        prefetcher.close();
+        prefetchBatches = prefetcher.getBatchCount();
+        prefetchStalls = prefetcher.getStallCount();
+        prefetchStallNanos = prefetcher.getStallTimeNanos();
+    }
+
+    // One optimization step on a gathered batch; returns the batch's mean loss
+    private double trainBatch(Tensor batchX, Tensor batchY, Tensor lossGradient, DataParallelStep parallelStep, boolean fused) {
+        double batchLoss;
+        if (parallelStep != null) {
+            batchLoss = parallelStep.run(batchX, batchY);
+        } else if (fused) {
+            Tensor logits = engine.forwardLogits(batchX);
+            batchLoss = ((IFusedOutputLoss) lossFunction).computeLossAndGradientFromLogits(logits, batchY, lossGradient);
+            engine.backwardFromLogits(lossGradient);
+        } else {
+            Tensor predictions = engine.forward(batchX);
+            batchLoss = lossFunction.computeLoss(predictions, batchY);
+            lossFunction.computeGradientInto(predictions, batchY, lossGradient);
+            engine.backward(lossGradient);
+        }
+        engine.updateParameters(learningRate);
+        return batchLoss;
+    }
+
+    // Records the epoch's losses (validationLoss is null without validation data) and reports progress
+    private void finishEpoch(int epoch, double avgLoss, DoubleSupplier validationLoss) {
+        trainingLossHistory.add(avgLoss);
+
+        if (verbose && ((epoch + 1) % 10 == 0 || epoch == 0 || epoch == epochs - 1)) {
+            StringBuilder output = new StringBuilder();
+            output.append(String.format("Epoch %d/%d - Loss: %.6f", epoch + 1, epochs, avgLoss));
+
+            if (validationLoss != null) {
+                double valLoss = validationLoss.getAsDouble();
                 validationLossHistory.add(valLoss);
+                output.append(String.format(" - Val Loss: %.6f", valLoss));
             }
+
+            System.out.println(output.toString());
+        } else if (validationLoss != null) {
+            validationLossHistory.add(validationLoss.getAsDouble());
         }
+    }
 
-        if (verbose) {
+    private boolean epochCheckpointDue(int epoch) {
+        return (checkpointEveryEpochs > 0 && (epoch + 1) % checkpointEveryEpochs == 0) || checkpointDue();
+    }
+
+    private void printCompletion(boolean hasValidation) {
+        if (verbose && !trainingLossHistory.isEmpty()) {
             System.out.println("========================================");
             System.out.println("Training completed!");
             System.out.println("Final Training Loss: " + trainingLossHistory.get(trainingLossHistory.size() - 1));
             if (hasValidation && !validationLossHistory.isEmpty()) {
                 System.out.println("Final Validation Loss: " + validationLossHistory.get(validationLossHistory.size() - 1));
             }
+            if (prefetchBatches > 0) {
+                System.out.println(String.format("Prefetch: waited for %d of %d batches, %.1f ms in total",
+                    prefetchStalls, prefetchBatches, prefetchStallNanos / 1e6));
+            }
+        }
+    }
+
+    public void train(IBatchSource source) {
+        train(source, null);
+    }
+
+    // Trains batch by batch from the source, so the samples never have to be in memory together;
+    // validation, if given, is evaluated the same way. The source decides how to shuffle, drawing
+    // from this trainer's random. A source has no batch position to save, so checkpoints are taken
+    // at epoch ends only (when the epoch, batch or time setting is due) and a mid-epoch checkpoint
+    // resumes at the start of its epoch. Asynchronous training needs the tensor overload
+    public void train(IBatchSource source, IBatchSource validation) {
+        if (lossFunction == null) {
+            throw new IllegalStateException("Loss function must be set before training");
+        }
+        if (source == null) {
+            throw new IllegalArgumentException("Batch source cannot be null");
+        }
+        if (engine.getLayerCount() == 0) {
+            throw new IllegalStateException("Network must have at least one layer");
+        }
+        if (threads > 1 && asynchronous) {
+            throw new IllegalStateException("Asynchronous training needs in-memory inputs and targets");
+        }
+        if (checkpointPath != null) {
+            TrainingCheckpoint.checkLayers(engine);
+        }
+        if (validation != null && (validation.getInputSize() != source.getInputSize()
+                || validation.getTargetSize() != source.getTargetSize())) {
+            throw new IllegalArgumentException("Validation source must have the same input and target sizes");
+        }
+        boolean hasValidation = validation != null;
+
+        TrainingCheckpoint resumed = resumeCheckpoint;
+        resumeCheckpoint = null;
+        int startEpoch = 0;
+        if (resumed != null) {
+            startEpoch = resumed.getEpoch();
+            if (resumed.getBatch() > 0) {
+                System.err.println("Warning: Checkpoint was taken mid-epoch, epoch " + (startEpoch + 1)
+                    + " starts again from its first batch");
+            }
+        } else {
+            trainingLossHistory.clear();
+            validationLossHistory.clear();
+        }
+
+        long sampleCount = source.getSampleCount();
+        if (verbose) {
+            System.out.println("Starting training...");
+            System.out.println("Samples: " + (sampleCount >= 0 ? String.valueOf(sampleCount) : "streamed")
+                + ", Batch Size: " + batchSize + ", Epochs: " + epochs);
+            System.out.println("Learning Rate: " + learningRate);
+            if (hasValidation && validation.getSampleCount() >= 0) {
+                System.out.println("Validation Samples: " + validation.getSampleCount());
+            }
+            if (resumed != null) {
+                System.out.println("Resuming at epoch " + (startEpoch + 1));
+            }
+            System.out.println("========================================");
+        }
+
+        int maxBatchSize = sampleCount > 0 ? (int) Math.min(batchSize, sampleCount) : batchSize;
+        TensorBuffer batchInputs = new TensorBuffer(maxBatchSize, source.getInputSize());
+        TensorBuffer batchTargets = new TensorBuffer(maxBatchSize, source.getTargetSize());
+        TensorBuffer lossGradients = new TensorBuffer(maxBatchSize, source.getTargetSize());
+        engine.reserveWorkspace(maxBatchSize);
+        boolean fused = useFusedOutputLoss();
+        DataParallelStep parallelStep = threads > 1
+            ? new DataParallelStep(engine, lossFunction, fused, deterministicReduction, threads, maxBatchSize)
+            : null;
+        PrefetchingBatchSource prefetcher = newPrefetcher(source, maxBatchSize);
+        CheckpointWriter checkpoints = checkpointPath != null ? new CheckpointWriter(checkpointPath) : null;
+        lastCheckpointFailure = null;
+        batchesSinceCheckpoint = 0;
+        lastCheckpointNanos = System.nanoTime();
+
+        try {
+            for (int epoch = startEpoch; epoch < epochs; epoch++) {
+                double totalLoss = 0.0;
+                long seen = 0;
+                int currentBatchSize;
+                if (prefetcher != null) {
+                    prefetcher.startEpoch(random);
+                    while ((currentBatchSize = prefetcher.advance()) > 0) {
+                        double batchLoss = trainBatch(prefetcher.getInputs(), prefetcher.getTargets(),
+                            lossGradients.rows(currentBatchSize), parallelStep, fused);
+                        totalLoss += batchLoss * currentBatchSize;
+                        seen += currentBatchSize;
+                        batchesSinceCheckpoint++;
+                    }
+                } else {
+                    source.startEpoch(random);
+                    while ((currentBatchSize = source.nextBatch(batchInputs.rows(maxBatchSize), batchTargets.rows(maxBatchSize))) > 0) {
+                        Tensor batchX = batchInputs.rows(currentBatchSize);
+                        Tensor batchY = batchTargets.rows(currentBatchSize);
+                        if (batchPreprocessor != null) {
+                            batchPreprocessor.process(batchX, batchY);
+                        }
+                        double batchLoss = trainBatch(batchX, batchY, lossGradients.rows(currentBatchSize), parallelStep, fused);
+                        totalLoss += batchLoss * currentBatchSize;
+                        seen += currentBatchSize;
+                        batchesSinceCheckpoint++;
+                    }
+                }
+                if (seen == 0) {
+                    throw new IllegalStateException("Batch source returned no samples");
+                }
+
+                finishEpoch(epoch, totalLoss / seen,
+                    hasValidation ? () -> evaluate(validation, batchInputs, batchTargets, maxBatchSize) : null);
+
+                if (checkpoints != null && epoch < epochs - 1 && epochCheckpointDue(epoch)) {
+                    checkpoint(checkpoints, epoch + 1, 0, 0.0, null);
+                }
+            }
+            if (checkpoints != null) {
+                checkpoint(checkpoints, epochs, 0, 0.0, null);
+            }
+        } finally {
+            if (parallelStep != null) {
+                parallelStep.close();
+            }
+            if (prefetcher != null) {
+                closePrefetcher(prefetcher);
+            }
+            if (checkpoints != null) {
+                checkpoints.close();
+                lastCheckpointFailure = checkpoints.getLastFailure();
+            }
         }
+
+        printCompletion(hasValidation);
+    }
+
+    // Mean loss over one unshuffled pass, reusing the training batch buffers
+    private double evaluate(IBatchSource source, TensorBuffer inputs, TensorBuffer targets, int maxBatchSize) {
+        source.startEpoch(null);
+        double totalLoss = 0.0;
+        long seen = 0;
+        int count;
+        while ((count = source.nextBatch(inputs.rows(maxBatchSize), targets.rows(maxBatchSize))) > 0) {
+            totalLoss += engine.evaluate(inputs.rows(count), targets.rows(count), lossFunction) * count;
+            seen += count;
+        }
+        if (seen == 0) {
+            throw new IllegalStateException("Validation source returned no samples");
+        }
+        return totalLoss / seen;
     }
 
     public List<Double> getTrainingLossHistory() {
@@ -212,6 +669,63 @@ public class NetworkTrainer {
         return batchSize;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isDeterministicReduction() {
+        return deterministicReduction;
+    }
+
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public IBatchPreprocessor getBatchPreprocessor() {
+        return batchPreprocessor;
+    }
+
+    // Batches the last train() took from its prefetch thread (0 without prefetching)
+    public long getPrefetchBatchCount() {
+        return prefetchBatches;
+    }
+
+    // Batches of the last train() that were not ready when the training thread asked for them
+    public long getPrefetchStallCount() {
+        return prefetchStalls;
+    }
+
+    // Time the training thread spent waiting for batches in the last train()
+    public long getPrefetchStallTimeNanos() {
+        return prefetchStallNanos;
+    }
+
+    public Path getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    public int getCheckpointEveryEpochs() {
+        return checkpointEveryEpochs;
+    }
+
+    public int getCheckpointEveryBatches() {
+        return checkpointEveryBatches;
+    }
+
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    // Why the last train() failed to write a checkpoint (the latest failure if several did), null
+    // if all its checkpoints were written. Training itself carries on past a failed write
+    public IOException getLastCheckpointFailure() {
+        return lastCheckpointFailure;
+    }
+
     public ILossFunction getLossFunction() {
         return lossFunction;
     }
@@ -3,15 +3,40 @@ package com.example.core;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.example.activations.IActivation;
+import com.example.layers.DenseLayer;
 import com.example.layers.ILayer;
+import com.example.layers.Precision;
 import com.example.loss.ILossFunction;
+import com.example.tensor.Tensor;
 
 public class NeuralNetworkEngine {
 
     private List<ILayer> layers;
     private Random random;
 
+    // Bumped whenever the layers or their parameters change through the engine; shared with replicas,
+    // whose updates write the same parameters
+    private AtomicLong parameterVersion = new AtomicLong();
+
+    // Parallel inference: predict splits the rows into chunks scored concurrently on the executor
+    private boolean parallelInference;
+    private ExecutorService inferenceExecutor;
+    private int inferenceChunkRows = 512;
+
+    // predict/evaluate run on per-thread scratch, so concurrent callers never share buffers or layer state.
+    // The cached workspaces hold no reference to the engine (a thread-local value that did would keep
+    // the engine alive for as long as the thread) and only serve batches up to CACHED_WORKSPACE_ROWS:
+    // larger calls get a workspace of their own, dropped with its buffers when the call returns
+    private static final int CACHED_WORKSPACE_ROWS = 256;
+    private final ThreadLocal<InferenceWorkspace> workspaces = ThreadLocal.withInitial(InferenceWorkspace::new);
+
     public NeuralNetworkEngine() {
         this.layers = new ArrayList<>();
         this.random = new Random(42);
@@ -33,29 +58,86 @@ public class NeuralNetworkEngine {
         }
         
         layers.add(layer);
+        parameterVersion.incrementAndGet();
     }
 
-    public double[][] forward(double[][] input) {
+    public Tensor forward(Tensor input) {
         if (layers.isEmpty()) {
             throw new IllegalStateException("Network has no layers");
         }
-        if (input == null || input.length == 0) {
+        if (input == null || input.getRows() == 0) {
             throw new IllegalArgumentException("Input cannot be null or empty");
         }
 
-        double[][] output = input;
-        for (ILayer layer : layers) {
-            output = layer.forward(output);
+        // Each layer returns its own workspace, reused across batches
+        Tensor output = input;
+        for (int i = 0; i < layers.size(); i++) {
+            output = layers.get(i).forward(output);
         }
         return output;
     }
 
-    public double[][] backward(double[][] lossGradient) {
-        if (lossGradient == null || lossGradient.length == 0) {
+    public double[][] forward(double[][] input) {
+        if (input == null || input.length == 0) {
+            throw new IllegalArgumentException("Input cannot be null or empty");
+        }
+        return forward(Tensor.fromArray(input)).toArray();
+    }
+
+    // Fused output head: same as forward but the last layer stops at its logits,
+    // leaving the output activation to an IFusedOutputLoss
+    public Tensor forwardLogits(Tensor input) {
+        DenseLayer outputLayer = getFusableOutputLayer();
+        if (input == null || input.getRows() == 0) {
+            throw new IllegalArgumentException("Input cannot be null or empty");
+        }
+
+        Tensor output = input;
+        for (int i = 0; i < layers.size() - 1; i++) {
+            output = layers.get(i).forward(output);
+        }
+        return outputLayer.forwardLogits(output);
+    }
+
+    // Counterpart of forwardLogits: logitGradient is d(loss)/d(logits) of the last layer
+    public Tensor backwardFromLogits(Tensor logitGradient) {
+        DenseLayer outputLayer = getFusableOutputLayer();
+        if (logitGradient == null || logitGradient.getRows() == 0) {
+            throw new IllegalArgumentException("Loss gradient cannot be null or empty");
+        }
+
+        Tensor gradient = outputLayer.backwardFromLogits(logitGradient);
+        for (int i = layers.size() - 2; i >= 0; i--) {
+            gradient = layers.get(i).backward(gradient);
+        }
+        return gradient;
+    }
+
+    // Activation of the last layer when it is a DenseLayer, otherwise null
+    public IActivation getOutputActivation() {
+        if (layers.isEmpty() || !(layers.get(layers.size() - 1) instanceof DenseLayer)) {
+            return null;
+        }
+        return ((DenseLayer) layers.get(layers.size() - 1)).getActivation();
+    }
+
+    private DenseLayer getFusableOutputLayer() {
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("Network has no layers");
+        }
+        ILayer last = layers.get(layers.size() - 1);
+        if (!(last instanceof DenseLayer)) {
+            throw new IllegalStateException("Fused output head requires a DenseLayer as the last layer");
+        }
+        return (DenseLayer) last;
+    }
+
+    public Tensor backward(Tensor lossGradient) {
+        if (lossGradient == null || lossGradient.getRows() == 0) {
             throw new IllegalArgumentException("Loss gradient cannot be null or empty");
         }
 
-        double[][] gradient = lossGradient;
+        Tensor gradient = lossGradient;
         
         // Backpropagate through layers in reverse order
         for (int i = layers.size() - 1; i >= 0; i--) {
@@ -65,14 +147,42 @@ public class NeuralNetworkEngine {
         return gradient;
     }
 
+    public double[][] backward(double[][] lossGradient) {
+        if (lossGradient == null || lossGradient.length == 0) {
+            throw new IllegalArgumentException("Loss gradient cannot be null or empty");
+        }
+        return backward(Tensor.fromArray(lossGradient)).toArray();
+    }
+
     public void updateParameters(double learningRate) {
         if (learningRate <= 0) {
             throw new IllegalArgumentException("Learning rate must be positive");
         }
         
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).updateParameters(learningRate);
+        }
+        parameterVersion.incrementAndGet();
+    }
+
+    // Size every layer's per-batch buffers once, so training allocates nothing per mini-batch
+    public void reserveWorkspace(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        for (ILayer layer : layers) {
+            layer.reserveWorkspace(maxBatchSize);
+        }
+    }
+
+    // Engine over replicas of every layer: shares the parameters, owns all per-batch state
+    public NeuralNetworkEngine replica() {
+        NeuralNetworkEngine replica = new NeuralNetworkEngine();
         for (ILayer layer : layers) {
-            layer.updateParameters(learningRate);
+            replica.layers.add(layer.replica());
         }
+        replica.parameterVersion = parameterVersion;
+        return replica;
     }
 
     public void resetWeights() {
@@ -85,55 +195,223 @@ public class NeuralNetworkEngine {
                                    layer.getClass().getSimpleName());
             }
         }
+        parameterVersion.incrementAndGet();
+    }
+
+    // Changes whenever training or the engine modifies the network, so derived state
+    // (e.g. a PredictionCache) can tell that it is stale
+    public long getParameterVersion() {
+        return parameterVersion.get();
+    }
+
+    // Call after changing weights directly through a layer (getWeightTensor().set, getBiases()[j] = ...)
+    public void markParametersChanged() {
+        parameterVersion.incrementAndGet();
+    }
+
+    // Converts the stored weights of every DenseLayer. Prefer this to layer.setPrecision on a built
+    // network: going to FLOAT32 changes the outputs, so it counts as a parameter change
+    public void setPrecision(Precision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("Precision cannot be null");
+        }
+        for (ILayer layer : layers) {
+            if (layer instanceof DenseLayer) {
+                ((DenseLayer) layer).setPrecision(precision);
+            }
+        }
+        parameterVersion.incrementAndGet();
+    }
+
+    public Tensor predict(Tensor inputs) {
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("Network has no layers");
+        }
+
+        if (useParallelInference(inputs.getRows())) {
+            Tensor output = new Tensor(inputs.getRows(), layers.get(layers.size() - 1).getOutputSize());
+            inferParallel(inputs, output);
+            return output;
+        }
+
+        // a cached workspace is reused by the next call, hand the caller a copy
+        InferenceWorkspace workspace = workspace(inputs.getRows());
+        Tensor output = workspace.predict(layers, inputs);
+        return workspace == workspaces.get() ? output.copy() : output;
+    }
+
+    private InferenceWorkspace workspace(int rows) {
+        return rows <= CACHED_WORKSPACE_ROWS ? workspaces.get() : new InferenceWorkspace();
     }
 
     public double[][] predict(double[][] inputs) {
         if (inputs == null || inputs.length == 0) {
             throw new IllegalArgumentException("Inputs cannot be null or empty");
         }
+        Tensor batch = Tensor.fromArray(inputs);
+        return (useParallelInference(batch.getRows()) ? predict(batch)
+            : workspace(batch.getRows()).predict(layers, batch)).toArray();
+    }
+
+    // Scores inputs into a caller-owned [rows x outputSize] tensor, e.g. one preallocated for a whole scoring job
+    public void predictInto(Tensor inputs, Tensor output) {
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
         if (layers.isEmpty()) {
             throw new IllegalStateException("Network has no layers");
         }
+        if (output == null || output.getRows() != inputs.getRows()
+                || output.getCols() != layers.get(layers.size() - 1).getOutputSize()) {
+            throw new IllegalArgumentException(
+                "Output must be [" + inputs.getRows() + " x " + layers.get(layers.size() - 1).getOutputSize() + "]"
+            );
+        }
 
-        return forward(inputs);
+        if (useParallelInference(inputs.getRows())) {
+            inferParallel(inputs, output);
+        } else {
+            workspace(inputs.getRows()).predictInto(layers, inputs, output);
+        }
     }
 
-    public double evaluate(double[][] inputs, double[][] targets, ILossFunction lossFunction) {
+    // Single-row scoring on the calling thread's session, allocation-free once warm
+    public void predictInto(double[] features, double[] out) {
+        InferenceSession.copyRow(workspaces.get().scoreRow(layers, features), out);
+    }
+
+    public double predictScalar(double[] features) {
+        return InferenceSession.scalar(workspaces.get().scoreRow(layers, features));
+    }
+
+    // Independent session for one scoring thread, see InferenceSession
+    public InferenceSession newInferenceSession() {
+        return new InferenceSession(this);
+    }
+
+    private boolean useParallelInference(int rows) {
+        return parallelInference && rows > inferenceChunkRows;
+    }
+
+    // Each worker claims chunks of rows until none are left and runs them through its own
+    // InferenceSession, so layer workspaces and backprop state are never touched
+    private void inferParallel(Tensor inputs, Tensor output) {
+        int rows = inputs.getRows();
+        int chunkRows = inferenceChunkRows;
+        int chunks = (rows + chunkRows - 1) / chunkRows;
+        ExecutorService executor = getInferenceExecutor();
+        int parallelism = executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        int workers = Math.max(1, Math.min(chunks, parallelism));
+
+        AtomicInteger nextChunk = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(() -> {
+                InferenceSession session = new InferenceSession(this);
+                session.reserve(chunkRows);
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                    int start = chunk * chunkRows;
+                    int count = Math.min(chunkRows, rows - start);
+                    session.predictInto(inputs.rowSlice(start, count), output.rowSlice(start, count));
+                }
+                return null;
+            });
+        }
+
+        Tasks.invokeAll(executor, tasks, "Parallel inference");
+    }
+
+    // Scores large predict calls on several threads (the common ForkJoinPool unless an executor is set)
+    public void setParallelInference(boolean parallelInference) {
+        this.parallelInference = parallelInference;
+    }
+
+    public boolean isParallelInference() {
+        return parallelInference;
+    }
+
+    // Executor for parallel inference, null selects the common ForkJoinPool; the caller keeps ownership
+    public void setInferenceExecutor(ExecutorService inferenceExecutor) {
+        this.inferenceExecutor = inferenceExecutor;
+    }
+
+    public ExecutorService getInferenceExecutor() {
+        return inferenceExecutor != null ? inferenceExecutor : ForkJoinPool.commonPool();
+    }
+
+    // Rows per parallel work unit; batches no larger than one chunk are scored on the calling thread
+    public void setInferenceChunkRows(int inferenceChunkRows) {
+        if (inferenceChunkRows <= 0) {
+            throw new IllegalArgumentException("Inference chunk rows must be positive");
+        }
+        this.inferenceChunkRows = inferenceChunkRows;
+    }
+
+    public int getInferenceChunkRows() {
+        return inferenceChunkRows;
+    }
+
+    public double evaluate(Tensor inputs, Tensor targets, ILossFunction lossFunction) {
         if (lossFunction == null) {
             throw new IllegalArgumentException("Loss function cannot be null");
         }
         if (inputs == null || targets == null) {
             throw new IllegalArgumentException("Inputs and targets cannot be null");
         }
-        if (inputs.length != targets.length) {
+        if (inputs.getRows() != targets.getRows()) {
             throw new IllegalArgumentException("Number of input samples must match number of target samples");
         }
 
-        double[][] predictions = predict(inputs);
+        Tensor predictions = workspace(inputs.getRows()).predict(layers, inputs);
         return lossFunction.computeLoss(predictions, targets);
     }
 
-    public double computeAccuracy(double[][] inputs, double[][] targets) {
-        double[][] predictions = predict(inputs);
+    public double evaluate(double[][] inputs, double[][] targets, ILossFunction lossFunction) {
+        if (lossFunction == null) {
+            throw new IllegalArgumentException("Loss function cannot be null");
+        }
+        if (inputs == null || targets == null) {
+            throw new IllegalArgumentException("Inputs and targets cannot be null");
+        }
+        return evaluate(Tensor.fromArray(inputs), Tensor.fromArray(targets), lossFunction);
+    }
+
+    public double computeAccuracy(Tensor inputs, Tensor targets) {
+        if (inputs == null || targets == null) {
+            throw new IllegalArgumentException("Inputs and targets cannot be null");
+        }
+        Tensor predictions = workspace(inputs.getRows()).predict(layers, inputs);
         int correct = 0;
         
-        for (int i = 0; i < predictions.length; i++) {
-            int predictedClass = argmax(predictions[i]);
-            int trueClass = argmax(targets[i]);
+        for (int i = 0; i < predictions.getRows(); i++) {
+            int predictedClass = argmax(predictions, i);
+            int trueClass = argmax(targets, i);
             if (predictedClass == trueClass) {
                 correct++;
             }
         }
         
-        return (double) correct / predictions.length * 100.0;
+        return (double) correct / predictions.getRows() * 100.0;
     }
 
-    private int argmax(double[] array) {
+    public double computeAccuracy(double[][] inputs, double[][] targets) {
+        return computeAccuracy(Tensor.fromArray(inputs), Tensor.fromArray(targets));
+    }
+
+    private int argmax(Tensor tensor, int row) {
+        double[] data = tensor.getData();
+        int rowStart = tensor.index(row, 0);
         int maxIdx = 0;
-        double maxVal = array[0];
-        for (int i = 1; i < array.length; i++) {
-            if (array[i] > maxVal) {
-                maxVal = array[i];
+        double maxVal = data[rowStart];
+        for (int i = 1; i < tensor.getCols(); i++) {
+            if (data[rowStart + i] > maxVal) {
+                maxVal = data[rowStart + i];
                 maxIdx = i;
             }
         }
@@ -151,12 +429,18 @@ public class NeuralNetworkEngine {
         return layers.get(index);
     }
 
+    // Live layer list for sessions in this package, without the defensive copy
+    List<ILayer> layerList() {
+        return layers;
+    }
+
     public List<ILayer> getLayers() {
         return new ArrayList<>(layers);
     }
 
     public void clearLayers() {
         layers.clear();
+        parameterVersion.incrementAndGet();
     }
 
     public Random getRandom() {
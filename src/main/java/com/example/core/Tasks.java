@@ -0,0 +1,34 @@
+package com.example.core;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+final class Tasks {
+
+    private Tasks() {
+    }
+
+    // Runs the tasks and waits for all of them; a task's unchecked exception is rethrown as is
+    static void invokeAll(ExecutorService executor, List<? extends Callable<Void>> tasks, String action) {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(action + " was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(action + " failed", cause);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.example.layers.DenseLayer;
+import com.example.layers.ILayer;
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Tensor;
+
+// Everything needed to continue a training run: every layer's parameters in its storage layout,
+// the trainer's Random, the position in the run (epoch, next batch and, mid-epoch, the shuffled
+// order and the loss so far) and both loss histories. Captured as a copy on the training thread,
+// so it can be written in the background while training goes on.
+// File: "TNNC", version, payload, CRC32 of everything before it; big-endian (DataOutputStream)
+public final class TrainingCheckpoint {
+
+    private static final int MAGIC = 'T' << 24 | 'N' << 16 | 'N' << 8 | 'C';
+    private static final int VERSION = 1;
+
+    // Parameter arrays go through a byte buffer of this size instead of one call per value
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final int epoch;            // epoch to run next, or the one in progress
+    private final int batch;            // next batch of that epoch, 0 at an epoch boundary
+    private final double epochLoss;     // summed loss of the batches already run in that epoch
+    private final int[] indices;        // shuffled order of the epoch in progress, null at a boundary
+    private final byte[] randomState;
+    private final List<Double> trainingLossHistory;
+    private final List<Double> validationLossHistory;
+    private final LayerState[] layers;
+
+    private static final class LayerState {
+        final int inputSize;
+        final int outputSize;
+        final boolean transposed;
+        final double[] weights;         // null for float32 storage
+        final float[] floatWeights;     // null for float64 storage
+        final double[] biases;
+
+        LayerState(int inputSize, int outputSize, boolean transposed, double[] weights, float[] floatWeights, double[] biases) {
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+            this.transposed = transposed;
+            this.weights = weights;
+            this.floatWeights = floatWeights;
+            this.biases = biases;
+        }
+
+        // Logical [input x output] element, whatever the stored layout
+        double weight(int i, int j) {
+            int index = transposed ? j * inputSize + i : i * outputSize + j;
+            return floatWeights != null ? floatWeights[index] : weights[index];
+        }
+    }
+
+    private TrainingCheckpoint(int epoch, int batch, double epochLoss, int[] indices, byte[] randomState,
+                               List<Double> trainingLossHistory, List<Double> validationLossHistory, LayerState[] layers) {
+        this.epoch = epoch;
+        this.batch = batch;
+        this.epochLoss = epochLoss;
+        this.indices = indices;
+        this.randomState = randomState;
+        this.trainingLossHistory = trainingLossHistory;
+        this.validationLossHistory = validationLossHistory;
+        this.layers = layers;
+    }
+
+    static TrainingCheckpoint capture(NeuralNetworkEngine engine, Random random, int epoch, int batch, double epochLoss,
+                                      int[] indices, List<Double> trainingLossHistory, List<Double> validationLossHistory) {
+        LayerState[] layers = new LayerState[engine.getLayerCount()];
+        for (int l = 0; l < layers.length; l++) {
+            DenseLayer layer = denseLayer(engine.getLayer(l), l);
+            int count = layer.getInputSize() * layer.getOutputSize();
+            double[] weights = null;
+            float[] floatWeights = null;
+            if (layer.getFloatWeights() != null) {
+                floatWeights = new float[count];
+                copyOut(layer.getFloatWeights(), floatWeights);
+            } else {
+                weights = new double[count];
+                copyOut(layer.getWeightTensor(), weights);
+            }
+            layers[l] = new LayerState(layer.getInputSize(), layer.getOutputSize(), layer.isTransposedWeights(),
+                weights, floatWeights, layer.getBiases().clone());
+        }
+        return new TrainingCheckpoint(epoch, batch, epochLoss, batch > 0 ? indices.clone() : null, serialize(random),
+            new ArrayList<>(trainingLossHistory), new ArrayList<>(validationLossHistory), layers);
+    }
+
+    // Fails if a layer cannot be captured, so train() can refuse before running any epoch
+    // rather than at the first checkpoint
+    static void checkLayers(NeuralNetworkEngine engine) {
+        for (int l = 0; l < engine.getLayerCount(); l++) {
+            denseLayer(engine.getLayer(l), l);
+        }
+    }
+
+    private static DenseLayer denseLayer(ILayer layer, int index) {
+        if (!(layer instanceof DenseLayer)) {
+            throw new IllegalArgumentException("Cannot checkpoint layer " + index + " of type " + layer.getClass().getSimpleName());
+        }
+        return (DenseLayer) layer;
+    }
+
+    // Row by row so views with a stride are copied correctly
+    private static void copyOut(Tensor source, double[] dst) {
+        for (int r = 0; r < source.getRows(); r++) {
+            source.copyRowTo(r, dst, r * source.getCols());
+        }
+    }
+
+    private static void copyOut(FloatTensor source, float[] dst) {
+        for (int r = 0; r < source.getRows(); r++) {
+            System.arraycopy(source.getData(), source.index(r, 0), dst, r * source.getCols(), source.getCols());
+        }
+    }
+
+    // Copies the parameters into the engine's layers, which must have the same shapes; precision
+    // and weight layout may differ from the checkpointed ones
+    void restore(NeuralNetworkEngine engine) {
+        if (engine.getLayerCount() != layers.length) {
+            throw new IllegalStateException(
+                "Checkpoint has " + layers.length + " layers, the network has " + engine.getLayerCount()
+            );
+        }
+        // Every shape is checked before anything is overwritten
+        for (int l = 0; l < layers.length; l++) {
+            DenseLayer layer = denseLayer(engine.getLayer(l), l);
+            LayerState state = layers[l];
+            if (layer.getInputSize() != state.inputSize || layer.getOutputSize() != state.outputSize) {
+                throw new IllegalStateException(
+                    "Layer " + l + " is [" + layer.getInputSize() + " -> " + layer.getOutputSize()
+                        + "], checkpoint has [" + state.inputSize + " -> " + state.outputSize + "]"
+                );
+            }
+        }
+        for (int l = 0; l < layers.length; l++) {
+            DenseLayer layer = (DenseLayer) engine.getLayer(l);
+            LayerState state = layers[l];
+            for (int i = 0; i < state.inputSize; i++) {
+                for (int j = 0; j < state.outputSize; j++) {
+                    double value = state.weight(i, j);
+                    int row = layer.isTransposedWeights() ? j : i;
+                    int col = layer.isTransposedWeights() ? i : j;
+                    if (layer.getFloatWeights() != null) {
+                        layer.getFloatWeights().set(row, col, (float) value);
+                    } else {
+                        layer.getWeightTensor().set(row, col, value);
+                    }
+                }
+            }
+            System.arraycopy(state.biases, 0, layer.getBiases(), 0, state.outputSize);
+        }
+        engine.markParametersChanged();
+    }
+
+    Random restoreRandom() {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(randomState))) {
+            return (Random) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot restore the random generator state", e);
+        }
+    }
+
+    // java.util.Random is Serializable, which captures its exact internal seed
+    private static byte[] serialize(Random random) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot capture the random generator state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Written to a temporary sibling, synced and moved into place, so a crash mid-write
+    // leaves the previous checkpoint intact
+    public void write(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            writePayload(out);
+            out.flush();
+            long checksum = checked.getChecksum().getValue();
+            out.writeLong(checksum);
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writePayload(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(epoch);
+        out.writeInt(batch);
+        out.writeDouble(epochLoss);
+        out.writeInt(indices != null ? indices.length : -1);
+        if (indices != null) {
+            for (int index : indices) {
+                out.writeInt(index);
+            }
+        }
+        out.writeInt(randomState.length);
+        out.write(randomState);
+        writeHistory(out, trainingLossHistory);
+        writeHistory(out, validationLossHistory);
+
+        out.writeInt(layers.length);
+        for (LayerState layer : layers) {
+            out.writeInt(layer.inputSize);
+            out.writeInt(layer.outputSize);
+            out.writeBoolean(layer.transposed);
+            out.writeBoolean(layer.floatWeights != null);
+            if (layer.floatWeights != null) {
+                writeFloats(out, layer.floatWeights);
+            } else {
+                writeDoubles(out, layer.weights);
+            }
+            writeDoubles(out, layer.biases);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES);
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, CHUNK_BYTES / Double.BYTES);
+            chunk.clear();
+            chunk.asDoubleBuffer().put(values, i, count);
+            out.write(chunk.array(), 0, count * Double.BYTES);
+            i += count;
+        }
+    }
+
+    private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES);
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, CHUNK_BYTES / Float.BYTES);
+            chunk.clear();
+            chunk.asFloatBuffer().put(values, i, count);
+            out.write(chunk.array(), 0, count * Float.BYTES);
+            i += count;
+        }
+    }
+
+    private static void writeHistory(DataOutputStream out, List<Double> history) throws IOException {
+        out.writeInt(history.size());
+        for (double value : history) {
+            out.writeDouble(value);
+        }
+    }
+
+    public static TrainingCheckpoint read(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            CheckedInputStream checked = new CheckedInputStream(file, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a training checkpoint: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported checkpoint version " + version + " in " + path);
+            }
+            TrainingCheckpoint checkpoint = readPayload(in, path);
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(file).readLong() != expected) {
+                throw new IllegalStateException("Checksum mismatch in checkpoint " + path);
+            }
+            return checkpoint;
+        }
+    }
+
+    private static TrainingCheckpoint readPayload(DataInputStream in, Path path) throws IOException {
+        int epoch = in.readInt();
+        int batch = in.readInt();
+        double epochLoss = in.readDouble();
+        int indexCount = in.readInt();
+        int[] indices = null;
+        if (indexCount >= 0) {
+            indices = new int[indexCount];
+            for (int i = 0; i < indexCount; i++) {
+                indices[i] = in.readInt();
+            }
+        }
+        byte[] randomState = new byte[checkedLength(in.readInt(), path)];
+        in.readFully(randomState);
+        List<Double> trainingLossHistory = readHistory(in, path);
+        List<Double> validationLossHistory = readHistory(in, path);
+
+        LayerState[] layers = new LayerState[checkedLength(in.readInt(), path)];
+        for (int l = 0; l < layers.length; l++) {
+            int inputSize = checkedLength(in.readInt(), path);
+            int outputSize = checkedLength(in.readInt(), path);
+            boolean transposed = in.readBoolean();
+            boolean float32 = in.readBoolean();
+            int count = checkedLength((long) inputSize * outputSize, path);
+            double[] weights = null;
+            float[] floatWeights = null;
+            if (float32) {
+                floatWeights = new float[count];
+                readFloats(in, floatWeights);
+            } else {
+                weights = new double[count];
+                readDoubles(in, weights);
+            }
+            double[] biases = new double[outputSize];
+            readDoubles(in, biases);
+            layers[l] = new LayerState(inputSize, outputSize, transposed, weights, floatWeights, biases);
+        }
+        return new TrainingCheckpoint(epoch, batch, epochLoss, indices, randomState,
+            trainingLossHistory, validationLossHistory, layers);
+    }
+
+    private static void readDoubles(DataInputStream in, double[] values) throws IOException {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, CHUNK_BYTES / Double.BYTES);
+            in.readFully(chunk, 0, count * Double.BYTES);
+            ByteBuffer.wrap(chunk, 0, count * Double.BYTES).asDoubleBuffer().get(values, i, count);
+            i += count;
+        }
+    }
+
+    private static void readFloats(DataInputStream in, float[] values) throws IOException {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        for (int i = 0; i < values.length; ) {
+            int count = Math.min(values.length - i, CHUNK_BYTES / Float.BYTES);
+            in.readFully(chunk, 0, count * Float.BYTES);
+            ByteBuffer.wrap(chunk, 0, count * Float.BYTES).asFloatBuffer().get(values, i, count);
+            i += count;
+        }
+    }
+
+    private static List<Double> readHistory(DataInputStream in, Path path) throws IOException {
+        int size = checkedLength(in.readInt(), path);
+        List<Double> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            history.add(in.readDouble());
+        }
+        return history;
+    }
+
+    private static int checkedLength(long length, Path path) {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Corrupt checkpoint " + path);
+        }
+        return (int) length;
+    }
+
+    // Epochs completed before this checkpoint; training resumes in this epoch
+    public int getEpoch() {
+        return epoch;
+    }
+
+    // Batches of the current epoch already trained, 0 at an epoch boundary
+    public int getBatch() {
+        return batch;
+    }
+
+    double getEpochLoss() {
+        return epochLoss;
+    }
+
+    int[] getIndices() {
+        return indices;
+    }
+
+    public List<Double> getTrainingLossHistory() {
+        return Collections.unmodifiableList(trainingLossHistory);
+    }
+
+    public List<Double> getValidationLossHistory() {
+        return Collections.unmodifiableList(validationLossHistory);
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+}
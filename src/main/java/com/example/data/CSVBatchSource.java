@@ -0,0 +1,178 @@
+package com.example.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import com.example.tensor.Tensor;
+import com.example.utils.CSVRowReader;
+
+// Streams a numeric CSV file from disk every epoch, so only a buffer of the file and the shuffle
+// buffer are ever in memory. Rows are shuffled through a buffer of getShuffleBufferSize() rows: the
+// next sample is drawn at random from the buffer and its slot refilled from the file. That mixes
+// rows within a window of the file, not across all of it; a dataset whose rows are sorted (e.g. by
+// label) should be shuffled once on disk, or written to a MappedDataset and shuffled by index
+public class CSVBatchSource implements IBatchSource, AutoCloseable {
+
+    private static final int DEFAULT_SHUFFLE_BUFFER_SIZE = 8192;
+
+    private final CSVRowReader reader;
+    private final int[] inputColumns;
+    private final int[] targetColumns;
+    private final double[] row;
+    private int shuffleBufferSize;
+
+    private double[][] slots;
+    private int buffered;
+    private Random random;
+    private boolean shuffling;
+    private long epochSamples;
+    private long sampleCount;
+
+    // targetColumns are the file columns that hold the targets, every other column is an input
+    public CSVBatchSource(String filePath, boolean hasHeader, int... targetColumns) throws IOException {
+        this(filePath, hasHeader, ',', targetColumns);
+    }
+
+    public CSVBatchSource(String filePath, boolean hasHeader, char delimiter, int... targetColumns) throws IOException {
+        if (targetColumns == null || targetColumns.length == 0) {
+            throw new IllegalArgumentException("At least one target column is required");
+        }
+        this.reader = new CSVRowReader(filePath, hasHeader, delimiter);
+        int cols = reader.getColumnCount();
+        boolean[] isTarget = new boolean[cols];
+        for (int column : targetColumns) {
+            if (column < 0 || column >= cols || isTarget[column]) {
+                reader.close();
+                throw new IllegalArgumentException("Target column " + column + " is out of bounds or repeated");
+            }
+            isTarget[column] = true;
+        }
+        if (targetColumns.length == cols) {
+            reader.close();
+            throw new IllegalArgumentException("At least one input column is required");
+        }
+        this.targetColumns = targetColumns.clone();
+        this.inputColumns = new int[cols - targetColumns.length];
+        for (int column = 0, i = 0; column < cols; column++) {
+            if (!isTarget[column]) {
+                inputColumns[i++] = column;
+            }
+        }
+        this.row = new double[cols];
+        this.shuffleBufferSize = DEFAULT_SHUFFLE_BUFFER_SIZE;
+        this.sampleCount = -1;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputColumns.length;
+    }
+
+    @Override
+    public int getTargetSize() {
+        return targetColumns.length;
+    }
+
+    // Known after the first complete pass
+    @Override
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public void startEpoch(Random random) {
+        try {
+            reader.rewind();
+            this.random = random;
+            this.shuffling = random != null && shuffleBufferSize > 1;
+            this.epochSamples = 0;
+            this.buffered = 0;
+            if (shuffling) {
+                if (slots == null || slots.length != shuffleBufferSize) {
+                    slots = new double[shuffleBufferSize][reader.getColumnCount()];
+                }
+                while (buffered < slots.length && reader.readRow(slots[buffered])) {
+                    buffered++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + reader.getFilePath(), e);
+        }
+    }
+
+    @Override
+    public int nextBatch(Tensor inputs, Tensor targets) {
+        if (inputs.getCols() != inputColumns.length || targets.getCols() != targetColumns.length
+                || inputs.getRows() != targets.getRows()) {
+            throw new IllegalArgumentException("Batch tensors must be [n x " + inputColumns.length
+                + "] and [n x " + targetColumns.length + "]");
+        }
+        double[] x = inputs.getData();
+        double[] y = targets.getData();
+        int count = 0;
+        try {
+            while (count < inputs.getRows()) {
+                double[] sample = nextRow();
+                if (sample == null) {
+                    sampleCount = epochSamples + count;
+                    break;
+                }
+                int xRow = inputs.index(count, 0);
+                for (int i = 0; i < inputColumns.length; i++) {
+                    x[xRow + i] = sample[inputColumns[i]];
+                }
+                int yRow = targets.index(count, 0);
+                for (int i = 0; i < targetColumns.length; i++) {
+                    y[yRow + i] = sample[targetColumns[i]];
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + reader.getFilePath(), e);
+        }
+        epochSamples += count;
+        return count;
+    }
+
+    // The next sample of the epoch, valid until the next call; null at the end
+    private double[] nextRow() throws IOException {
+        if (!shuffling) {
+            return reader.readRow(row) ? row : null;
+        }
+        if (buffered == 0) {
+            return null;
+        }
+        // Hand out a random slot, then refill it from the file (or close the gap once the file is done)
+        int pick = random.nextInt(buffered);
+        System.arraycopy(slots[pick], 0, row, 0, row.length);
+        if (!reader.readRow(slots[pick])) {
+            buffered--;
+            double[] last = slots[buffered];
+            slots[buffered] = slots[pick];
+            slots[pick] = last;
+        }
+        return row;
+    }
+
+    // Rows held for shuffling; 0 or 1 streams the file in order. Applies from the next epoch
+    public void setShuffleBufferSize(int shuffleBufferSize) {
+        if (shuffleBufferSize < 0) {
+            throw new IllegalArgumentException("Shuffle buffer size cannot be negative");
+        }
+        this.shuffleBufferSize = shuffleBufferSize;
+    }
+
+    public int getShuffleBufferSize() {
+        return shuffleBufferSize;
+    }
+
+    public String[] getHeaders() {
+        return reader.getHeaders();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
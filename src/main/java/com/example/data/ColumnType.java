@@ -0,0 +1,22 @@
+package com.example.data;
+
+// Storage type of one column of a columnar table file. ColumnarWriter picks the narrowest type
+// that holds every value of the column exactly: INT8 for small integer codes such as one-hot or
+// label columns, INT32 for other integers, otherwise FLOAT64 (or FLOAT32 when asked to)
+public enum ColumnType {
+    FLOAT64(8),
+    FLOAT32(4),
+    INT32(4),
+    INT8(1);
+
+    private final int bytes;
+
+    ColumnType(int bytes) {
+        this.bytes = bytes;
+    }
+
+    // Bytes per value
+    public int getBytes() {
+        return bytes;
+    }
+}
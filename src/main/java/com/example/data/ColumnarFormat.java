@@ -0,0 +1,48 @@
+package com.example.data;
+
+// Layout of a columnar table file, all values little-endian:
+//
+//   header (64 bytes)
+//     0  int   magic "TNNT"
+//     4  int   format version
+//     8  int   column count
+//    12  int   flags (bit 0: the columns have names, bit 1: written with float32 precision)
+//    16  long  row count
+//    24  long  size of the source CSV file in bytes
+//    32  long  last-modified time of the source CSV file, epoch milliseconds
+//    40  long  file length
+//    48  int   delimiter of the source CSV file
+//    52  ...   reserved, zero
+//   column table (64 bytes per column)
+//     0  int   type (ColumnType ordinal)
+//     4  int   name length in UTF-8 bytes
+//     8  long  name offset
+//    16  long  data offset, [rows] values of the column's type
+//    24  double min
+//    32  double max
+//    40  double mean
+//    48  double standard deviation (population)
+//    56  ...   reserved, zero
+//   names, then one data block per column, each starting on a BLOCK_ALIGNMENT boundary
+//
+// Everything needed to describe the table is in the first few kilobytes, so opening a file only
+// reads those and maps the data blocks
+public final class ColumnarFormat {
+
+    public static final int MAGIC = 'T' | 'N' << 8 | 'N' << 16 | 'T' << 24;
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int COLUMN_ENTRY_SIZE = 64;
+    static final int BLOCK_ALIGNMENT = 64;
+
+    static final int FLAG_NAMES = 1;
+    static final int FLAG_FLOAT32 = 2;
+
+    private ColumnarFormat() {
+    }
+
+    static long align(long offset) {
+        return (offset + BLOCK_ALIGNMENT - 1) / BLOCK_ALIGNMENT * BLOCK_ALIGNMENT;
+    }
+}
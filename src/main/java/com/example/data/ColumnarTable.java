@@ -0,0 +1,410 @@
+package com.example.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import com.example.layers.Precision;
+import com.example.tensor.Tensor;
+
+// A columnar table file (see ColumnarFormat) opened with FileChannel.map. Opening reads only the
+// header, the column table and the names and maps each column's block, so it takes milliseconds
+// whatever the size of the table; values are read from the mapped pages on demand.
+// load(csvPath, cachePath) converts a CSV file once and reuses the file for as long as the CSV is
+// unchanged. Read-only and thread-safe
+public final class ColumnarTable {
+
+    private final Path path;
+    private final long fileSize;
+    private final int rows;
+    private final int flags;
+    private final char delimiter;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final String[] headers;     // null when the CSV had no header
+    private final ColumnType[] types;
+    private final double[] min;
+    private final double[] max;
+    private final double[] mean;
+    private final double[] std;
+    private final DoubleBuffer[] doubleColumns;  // one of the four views is set per column
+    private final FloatBuffer[] floatColumns;
+    private final IntBuffer[] intColumns;
+    private final ByteBuffer[] byteColumns;
+
+    private ColumnarTable(Path path, FileChannel channel, ByteBuffer header, String[] headers) throws IOException {
+        int cols = header.getInt(8);
+        this.path = path;
+        this.fileSize = header.getLong(40);
+        this.rows = (int) header.getLong(16);
+        this.flags = header.getInt(12);
+        this.delimiter = (char) header.getInt(48);
+        this.sourceSize = header.getLong(24);
+        this.sourceModified = header.getLong(32);
+        this.headers = headers;
+        this.types = new ColumnType[cols];
+        this.min = new double[cols];
+        this.max = new double[cols];
+        this.mean = new double[cols];
+        this.std = new double[cols];
+        this.doubleColumns = new DoubleBuffer[cols];
+        this.floatColumns = new FloatBuffer[cols];
+        this.intColumns = new IntBuffer[cols];
+        this.byteColumns = new ByteBuffer[cols];
+
+        ColumnType[] allTypes = ColumnType.values();
+        for (int c = 0; c < cols; c++) {
+            int entry = ColumnarFormat.HEADER_SIZE + c * ColumnarFormat.COLUMN_ENTRY_SIZE;
+            int type = header.getInt(entry);
+            long dataOffset = header.getLong(entry + 16);
+            if (type < 0 || type >= allTypes.length) {
+                throw new IllegalStateException("Corrupt columnar file " + path + ": unknown type " + type);
+            }
+            types[c] = allTypes[type];
+            long length = (long) rows * types[c].getBytes();
+            if (dataOffset % ColumnarFormat.BLOCK_ALIGNMENT != 0 || dataOffset < header.capacity()
+                    || dataOffset + length > fileSize || length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Corrupt columnar file " + path + ": bad block for column " + c);
+            }
+            min[c] = header.getDouble(entry + 24);
+            max[c] = header.getDouble(entry + 32);
+            mean[c] = header.getDouble(entry + 40);
+            std[c] = header.getDouble(entry + 48);
+
+            // The mapping stays valid after the channel is closed
+            ByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            switch (types[c]) {
+                case FLOAT64:
+                    doubleColumns[c] = block.asDoubleBuffer();
+                    break;
+                case FLOAT32:
+                    floatColumns[c] = block.asFloatBuffer();
+                    break;
+                case INT32:
+                    intColumns[c] = block.asIntBuffer();
+                    break;
+                default:
+                    byteColumns[c] = block;
+                    break;
+            }
+        }
+    }
+
+    public static ColumnarTable open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = readHeader(channel, size, path);
+            int cols = header.getInt(8);
+
+            // Header and column table in one buffer, then the names
+            ByteBuffer table = read(channel, 0,
+                ColumnarFormat.HEADER_SIZE + (long) cols * ColumnarFormat.COLUMN_ENTRY_SIZE, size, path);
+            String[] headers = null;
+            if ((header.getInt(12) & ColumnarFormat.FLAG_NAMES) != 0) {
+                headers = new String[cols];
+                for (int c = 0; c < cols; c++) {
+                    int entry = ColumnarFormat.HEADER_SIZE + c * ColumnarFormat.COLUMN_ENTRY_SIZE;
+                    ByteBuffer name = read(channel, table.getLong(entry + 8), table.getInt(entry + 4), size, path);
+                    headers[c] = new String(name.array(), StandardCharsets.UTF_8);
+                }
+            }
+            return new ColumnarTable(path, channel, table, headers);
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel, long size, Path path) throws IOException {
+        ByteBuffer header = read(channel, 0, ColumnarFormat.HEADER_SIZE, size, path);
+        if (header.getInt(0) != ColumnarFormat.MAGIC) {
+            throw new IllegalStateException("Not a columnar file: " + path);
+        }
+        int version = header.getInt(4);
+        if (version != ColumnarFormat.VERSION) {
+            throw new IllegalStateException("Unsupported columnar format version " + version + " in " + path);
+        }
+        int cols = header.getInt(8);
+        long rows = header.getLong(16);
+        if (cols <= 0 || rows < 0 || rows > Integer.MAX_VALUE || header.getLong(40) != size) {
+            throw new IllegalStateException("Corrupt or truncated columnar file " + path);
+        }
+        return header;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, long length, long size, Path path)
+            throws IOException {
+        if (offset < 0 || length < 0 || length > Integer.MAX_VALUE || offset + length > size) {
+            throw new IllegalStateException("Corrupt or truncated columnar file " + path);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IllegalStateException("Corrupt or truncated columnar file " + path);
+            }
+        }
+        return buffer;
+    }
+
+    public static ColumnarTable load(String csvPath, Path cachePath) throws IOException {
+        return load(csvPath, cachePath, true, ',', Precision.FLOAT64);
+    }
+
+    // Opens cachePath if it was converted from csvPath, as it is now, with the same options;
+    // otherwise (no file, CSV changed, other options, unreadable file) converts the CSV again first
+    public static ColumnarTable load(String csvPath, Path cachePath, boolean hasHeader, char delimiter,
+                                     Precision precision) throws IOException {
+        if (csvPath == null) {
+            throw new IllegalArgumentException("CSV path cannot be null");
+        }
+        if (cachePath == null) {
+            throw new IllegalArgumentException("Cache path cannot be null");
+        }
+        if (Files.exists(cachePath)) {
+            try {
+                if (isCacheOf(cachePath, csvPath, hasHeader, delimiter, precision)) {
+                    return open(cachePath);
+                }
+            } catch (IllegalStateException e) {
+                System.err.println("Warning: Ignoring columnar cache " + cachePath + ": " + e.getMessage());
+            }
+        }
+        ColumnarWriter.convert(csvPath, cachePath, hasHeader, delimiter, precision);
+        return open(cachePath);
+    }
+
+    // True if the file was converted from csvPath with these options and the CSV has not changed
+    // since (same size and last-modified time)
+    public boolean isConvertedFrom(String csvPath, boolean hasHeader, char delimiter, Precision precision)
+            throws IOException {
+        return matchesSource(flags, this.delimiter, sourceSize, sourceModified, csvPath, hasHeader, delimiter, precision);
+    }
+
+    // Decides staleness from the header alone, so nothing is mapped when the cache is about to be
+    // replaced (Windows refuses to replace a file that is mapped)
+    private static boolean isCacheOf(Path cachePath, String csvPath, boolean hasHeader, char delimiter,
+                                     Precision precision) throws IOException {
+        ByteBuffer header;
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            header = readHeader(channel, channel.size(), cachePath);
+        }
+        return matchesSource(header.getInt(12), (char) header.getInt(48), header.getLong(24), header.getLong(32),
+            csvPath, hasHeader, delimiter, precision);
+    }
+
+    private static boolean matchesSource(int flags, char storedDelimiter, long sourceSize, long sourceModified,
+                                         String csvPath, boolean hasHeader, char delimiter, Precision precision)
+            throws IOException {
+        Path source = Paths.get(csvPath);
+        if (!Files.exists(source)) {
+            return false;
+        }
+        return Files.size(source) == sourceSize
+            && Files.getLastModifiedTime(source).toMillis() == sourceModified
+            && ((flags & ColumnarFormat.FLAG_NAMES) != 0) == hasHeader
+            && ((flags & ColumnarFormat.FLAG_FLOAT32) != 0) == (precision == Precision.FLOAT32)
+            && storedDelimiter == delimiter;
+    }
+
+    public double get(int row, int col) {
+        checkColumn(col);
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row index " + row + " is out of bounds");
+        }
+        return value(row, col);
+    }
+
+    private double value(int row, int col) {
+        switch (types[col]) {
+            case FLOAT64:
+                return doubleColumns[col].get(row);
+            case FLOAT32:
+                return floatColumns[col].get(row);
+            case INT32:
+                return intColumns[col].get(row);
+            default:
+                return byteColumns[col].get(row);
+        }
+    }
+
+    // Copies one column into a new array
+    public double[] getColumn(int col) {
+        checkColumn(col);
+        double[] column = new double[rows];
+        if (types[col] == ColumnType.FLOAT64) {
+            doubleColumns[col].get(0, column, 0, rows);
+        } else {
+            for (int r = 0; r < rows; r++) {
+                column[r] = value(r, col);
+            }
+        }
+        return column;
+    }
+
+    // Row-major [rows x columns.length] copy of the given columns, all of them when none are given,
+    // ready for the in-memory training and inference APIs
+    public Tensor toTensor(int... columns) {
+        int[] selected = columns.length > 0 ? columns : allColumns();
+        for (int col : selected) {
+            checkColumn(col);
+        }
+        int width = selected.length;
+        Tensor tensor = new Tensor(rows, width);
+        double[] data = tensor.getData();
+        for (int j = 0; j < width; j++) {
+            int col = selected[j];
+            for (int r = 0; r < rows; r++) {
+                data[r * width + j] = value(r, col);
+            }
+        }
+        return tensor;
+    }
+
+    // The table as training samples: the given columns are the targets (in that order) and the
+    // other columns the inputs. Samples are read from the mapped columns when they are copied
+    public IDataset asDataset(int... targetColumns) {
+        if (targetColumns == null || targetColumns.length == 0) {
+            throw new IllegalArgumentException("At least one target column is required");
+        }
+        boolean[] isTarget = new boolean[types.length];
+        for (int col : targetColumns) {
+            checkColumn(col);
+            if (isTarget[col]) {
+                throw new IllegalArgumentException("Target column " + col + " is given twice");
+            }
+            isTarget[col] = true;
+        }
+        if (targetColumns.length == types.length) {
+            throw new IllegalArgumentException("At least one column must be left as input");
+        }
+        int[] inputColumns = new int[types.length - targetColumns.length];
+        int k = 0;
+        for (int c = 0; c < types.length; c++) {
+            if (!isTarget[c]) {
+                inputColumns[k++] = c;
+            }
+        }
+        return new ColumnDataset(inputColumns, targetColumns.clone());
+    }
+
+    private final class ColumnDataset implements IDataset {
+        private final int[] inputColumns;
+        private final int[] targetColumns;
+
+        ColumnDataset(int[] inputColumns, int[] targetColumns) {
+            this.inputColumns = inputColumns;
+            this.targetColumns = targetColumns;
+        }
+
+        @Override
+        public int size() {
+            return rows;
+        }
+
+        @Override
+        public int getInputSize() {
+            return inputColumns.length;
+        }
+
+        @Override
+        public int getTargetSize() {
+            return targetColumns.length;
+        }
+
+        @Override
+        public void copySample(int index, double[] inputs, int inputOffset, double[] targets, int targetOffset) {
+            if (index < 0 || index >= rows) {
+                throw new IndexOutOfBoundsException("Sample index " + index + " is out of bounds");
+            }
+            for (int i = 0; i < inputColumns.length; i++) {
+                inputs[inputOffset + i] = value(index, inputColumns[i]);
+            }
+            for (int i = 0; i < targetColumns.length; i++) {
+                targets[targetOffset + i] = value(index, targetColumns[i]);
+            }
+        }
+    }
+
+    private int[] allColumns() {
+        int[] all = new int[types.length];
+        for (int c = 0; c < all.length; c++) {
+            all[c] = c;
+        }
+        return all;
+    }
+
+    private void checkColumn(int col) {
+        if (col < 0 || col >= types.length) {
+            throw new IndexOutOfBoundsException("Column index " + col + " is out of bounds");
+        }
+    }
+
+    // Index of the column with this name (case-insensitive, as in CSVDataReader)
+    public int getColumnIndex(String name) {
+        if (headers == null) {
+            throw new IllegalStateException("Columnar file does not have column names");
+        }
+        for (int c = 0; c < headers.length; c++) {
+            if (headers[c].equalsIgnoreCase(name)) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Column not found: " + name);
+    }
+
+    public String[] getHeaders() {
+        return headers != null ? headers.clone() : null;
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    public ColumnType getColumnType(int col) {
+        checkColumn(col);
+        return types[col];
+    }
+
+    public double getMin(int col) {
+        checkColumn(col);
+        return min[col];
+    }
+
+    public double getMax(int col) {
+        checkColumn(col);
+        return max[col];
+    }
+
+    public double getMean(int col) {
+        checkColumn(col);
+        return mean[col];
+    }
+
+    // Population standard deviation
+    public double getStd(int col) {
+        checkColumn(col);
+        return std[col];
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+}
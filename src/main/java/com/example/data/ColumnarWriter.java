@@ -0,0 +1,266 @@
+package com.example.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.example.layers.Precision;
+import com.example.utils.CSVRowReader;
+
+// Converts a numeric CSV file into a columnar table file (see ColumnarFormat) that ColumnarTable
+// opens in milliseconds. The CSV is streamed twice with CSVRowReader, so it never has to fit in
+// memory: the first pass counts the rows and collects each column's min/max/mean/std and narrowest
+// exact type, the second writes every column into its own block. The file is written next to the
+// target and moved into place when it is complete.
+//
+//   java -cp tinynn.jar com.example.data.ColumnarWriter data.csv data.tnnc [float32]
+public final class ColumnarWriter {
+
+    // Write buffers of all the columns together
+    private static final int BUFFER_BUDGET = 8 << 20;
+    private static final int MIN_COLUMN_BUFFER = 4096;
+
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+
+    private ColumnarWriter() {
+    }
+
+    public static void convert(String csvPath, Path target) throws IOException {
+        convert(csvPath, target, true, ',', Precision.FLOAT64);
+    }
+
+    // FLOAT32 stores the non-integer columns as floats (rounded to the nearest float), halving them;
+    // integer columns are always stored exactly
+    public static void convert(String csvPath, Path target, boolean hasHeader, char delimiter, Precision precision)
+            throws IOException {
+        if (csvPath == null) {
+            throw new IllegalArgumentException("CSV path cannot be null");
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("Target path cannot be null");
+        }
+        if (precision == null) {
+            throw new IllegalArgumentException("Precision cannot be null");
+        }
+        Path source = Paths.get(csvPath);
+        // Taken before reading, so a CSV changed during the conversion looks stale next time
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+
+        Path absolute = target.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (CSVRowReader reader = new CSVRowReader(csvPath, hasHeader, delimiter)) {
+            ColumnStats stats = scan(reader, precision);
+            reader.rewind();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                String[] headers = reader.getHeaders();
+                int flags = (headers != null ? ColumnarFormat.FLAG_NAMES : 0)
+                    | (precision == Precision.FLOAT32 ? ColumnarFormat.FLAG_FLOAT32 : 0);
+                long[] dataOffsets = writeHeader(channel, stats, headers, flags, delimiter, sourceSize, sourceModified);
+                writeColumns(channel, reader, stats, dataOffsets);
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // First pass: row count, statistics and types
+    private static ColumnStats scan(CSVRowReader reader, Precision precision) throws IOException {
+        int cols = reader.getColumnCount();
+        ColumnStats stats = new ColumnStats(cols);
+        double[] row = new double[cols];
+        long rows = 0;
+        while (reader.readRow(row)) {
+            rows++;
+            for (int c = 0; c < cols; c++) {
+                double value = row[c];
+                stats.min[c] = Math.min(stats.min[c], value);
+                stats.max[c] = Math.max(stats.max[c], value);
+                // Welford's update keeps the variance accurate over long columns
+                double delta = value - stats.mean[c];
+                stats.mean[c] += delta / rows;
+                stats.m2[c] += delta * (value - stats.mean[c]);
+                if (stats.integral[c] && (value != (int) value
+                        || Double.doubleToRawLongBits(value) == NEGATIVE_ZERO_BITS)) {
+                    stats.integral[c] = false;
+                }
+            }
+        }
+        if (rows > Integer.MAX_VALUE) {
+            throw new IllegalStateException("CSV file has too many rows for a columnar table: " + rows);
+        }
+        stats.rows = (int) rows;
+        for (int c = 0; c < cols; c++) {
+            if (stats.integral[c]) {
+                stats.types[c] = stats.min[c] >= Byte.MIN_VALUE && stats.max[c] <= Byte.MAX_VALUE
+                    ? ColumnType.INT8 : ColumnType.INT32;
+            } else {
+                stats.types[c] = precision == Precision.FLOAT32 ? ColumnType.FLOAT32 : ColumnType.FLOAT64;
+            }
+            if ((long) stats.rows * stats.types[c].getBytes() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Column " + c + " is too large for a columnar table");
+            }
+        }
+        return stats;
+    }
+
+    // Writes the header, the column table and the names; returns where each column's data goes
+    private static long[] writeHeader(FileChannel channel, ColumnStats stats, String[] headers, int flags,
+                                      char delimiter, long sourceSize, long sourceModified) throws IOException {
+        int cols = stats.types.length;
+        byte[][] names = new byte[cols][];
+        long offset = ColumnarFormat.HEADER_SIZE + (long) cols * ColumnarFormat.COLUMN_ENTRY_SIZE;
+        long namesStart = offset;
+        for (int c = 0; c < cols; c++) {
+            names[c] = headers != null ? headers[c].getBytes(StandardCharsets.UTF_8) : new byte[0];
+            offset += names[c].length;
+        }
+        long[] dataOffsets = new long[cols];
+        for (int c = 0; c < cols; c++) {
+            offset = ColumnarFormat.align(offset);
+            dataOffsets[c] = offset;
+            offset += (long) stats.rows * stats.types[c].getBytes();
+        }
+        long fileLength = offset;
+
+        ByteBuffer header = ByteBuffer.allocate((int) namesStart).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, ColumnarFormat.MAGIC);
+        header.putInt(4, ColumnarFormat.VERSION);
+        header.putInt(8, cols);
+        header.putInt(12, flags);
+        header.putLong(16, stats.rows);
+        header.putLong(24, sourceSize);
+        header.putLong(32, sourceModified);
+        header.putLong(40, fileLength);
+        header.putInt(48, delimiter);
+        long nameOffset = namesStart;
+        for (int c = 0; c < cols; c++) {
+            int entry = ColumnarFormat.HEADER_SIZE + c * ColumnarFormat.COLUMN_ENTRY_SIZE;
+            header.putInt(entry, stats.types[c].ordinal());
+            header.putInt(entry + 4, names[c].length);
+            header.putLong(entry + 8, nameOffset);
+            header.putLong(entry + 16, dataOffsets[c]);
+            header.putDouble(entry + 24, stats.min[c]);
+            header.putDouble(entry + 32, stats.max[c]);
+            header.putDouble(entry + 40, stats.mean[c]);
+            header.putDouble(entry + 48, Math.sqrt(stats.m2[c] / stats.rows));
+            nameOffset += names[c].length;
+        }
+        writeFully(channel, header, 0);
+        long position = namesStart;
+        for (int c = 0; c < cols; c++) {
+            writeFully(channel, ByteBuffer.wrap(names[c]), position);
+            position += names[c].length;
+        }
+        // Extends the file to its final length, the padding between blocks stays zero
+        if (fileLength > position) {
+            writeFully(channel, ByteBuffer.allocate(1), fileLength - 1);
+        }
+        return dataOffsets;
+    }
+
+    // Second pass: every column through its own buffer, flushed to the column's block
+    private static void writeColumns(FileChannel channel, CSVRowReader reader, ColumnStats stats, long[] dataOffsets)
+            throws IOException {
+        int cols = stats.types.length;
+        int bufferSize = Math.max(MIN_COLUMN_BUFFER, BUFFER_BUDGET / cols) & ~7;
+        ByteBuffer[] buffers = new ByteBuffer[cols];
+        long[] positions = dataOffsets.clone();
+        for (int c = 0; c < cols; c++) {
+            buffers[c] = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        double[] row = new double[cols];
+        long rows = 0;
+        while (reader.readRow(row)) {
+            rows++;
+            for (int c = 0; c < cols; c++) {
+                ByteBuffer buffer = buffers[c];
+                if (!buffer.hasRemaining()) {
+                    positions[c] += flush(channel, buffer, positions[c]);
+                }
+                switch (stats.types[c]) {
+                    case FLOAT64:
+                        buffer.putDouble(row[c]);
+                        break;
+                    case FLOAT32:
+                        buffer.putFloat((float) row[c]);
+                        break;
+                    case INT32:
+                        buffer.putInt((int) row[c]);
+                        break;
+                    default:
+                        buffer.put((byte) row[c]);
+                        break;
+                }
+            }
+        }
+        if (rows != stats.rows) {
+            throw new IllegalStateException("CSV file changed during conversion: " + reader.getFilePath());
+        }
+        for (int c = 0; c < cols; c++) {
+            flush(channel, buffers[c], positions[c]);
+        }
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        writeFully(channel, buffer, position);
+        buffer.clear();
+        return length;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static final class ColumnStats {
+        final double[] min;
+        final double[] max;
+        final double[] mean;
+        final double[] m2;
+        final boolean[] integral;
+        final ColumnType[] types;
+        int rows;
+
+        ColumnStats(int cols) {
+            this.min = new double[cols];
+            this.max = new double[cols];
+            this.mean = new double[cols];
+            this.m2 = new double[cols];
+            this.integral = new boolean[cols];
+            this.types = new ColumnType[cols];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            Arrays.fill(integral, true);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equalsIgnoreCase("float32"))) {
+            System.err.println("Usage: ColumnarWriter <input.csv> <output> [float32]");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        convert(args[0], Paths.get(args[1]), true, ',',
+            args.length == 3 ? Precision.FLOAT32 : Precision.FLOAT64);
+        ColumnarTable table = ColumnarTable.open(Paths.get(args[1]));
+        System.out.printf("Converted %d rows x %d columns into %s (%d bytes) in %.1f ms%n",
+            table.getRowCount(), table.getColumnCount(), args[1], table.getFileSize(),
+            (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.data;
+
+import java.util.Random;
+
+import com.example.tensor.Tensor;
+
+// Batches over a random-access dataset. Shuffling permutes an index array (the same draws as
+// NetworkTrainer's in-memory path, so both train identically for a given seed) and gathers the
+// selected samples into the batch; the samples themselves are never reordered or copied as a whole
+public class DatasetBatchSource implements IBatchSource {
+
+    private final IDataset dataset;
+    private final int[] indices;
+    private int position;
+
+    public DatasetBatchSource(IDataset dataset) {
+        if (dataset == null) {
+            throw new IllegalArgumentException("Dataset cannot be null");
+        }
+        this.dataset = dataset;
+        this.indices = new int[dataset.size()];
+        this.position = indices.length;
+    }
+
+    @Override
+    public int getInputSize() {
+        return dataset.getInputSize();
+    }
+
+    @Override
+    public int getTargetSize() {
+        return dataset.getTargetSize();
+    }
+
+    @Override
+    public long getSampleCount() {
+        return indices.length;
+    }
+
+    @Override
+    public void startEpoch(Random random) {
+        int numSamples = indices.length;
+        for (int i = 0; i < numSamples; i++) {
+            indices[i] = i;
+        }
+        if (random != null) {
+            for (int i = numSamples - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = indices[i];
+                indices[i] = indices[j];
+                indices[j] = temp;
+            }
+        }
+        position = 0;
+    }
+
+    @Override
+    public int nextBatch(Tensor inputs, Tensor targets) {
+        if (inputs.getCols() != dataset.getInputSize() || targets.getCols() != dataset.getTargetSize()
+                || inputs.getRows() != targets.getRows()) {
+            throw new IllegalArgumentException("Batch tensors must be [n x " + dataset.getInputSize()
+                + "] and [n x " + dataset.getTargetSize() + "]");
+        }
+        int count = Math.min(inputs.getRows(), indices.length - position);
+        for (int i = 0; i < count; i++) {
+            dataset.copySample(indices[position + i], inputs.getData(), inputs.index(i, 0),
+                targets.getData(), targets.index(i, 0));
+        }
+        position += count;
+        return count;
+    }
+
+    public IDataset getDataset() {
+        return dataset;
+    }
+}
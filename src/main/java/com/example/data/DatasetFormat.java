@@ -0,0 +1,28 @@
+package com.example.data;
+
+// Layout of a dataset file, all values little-endian:
+//
+//   header (64 bytes)
+//     0  int   magic "TNND"
+//     4  int   format version
+//     8  int   input size
+//    12  int   target size
+//    16  long  sample count
+//    24  int   precision (0 = float64, 1 = float32)
+//    28  ...   reserved, zero
+//   samples from offset 64, one row per sample: inputs then targets, in the file's precision
+//
+// Rows have a fixed size, so sample i is found by arithmetic and can be read in place from a mapping
+public final class DatasetFormat {
+
+    public static final int MAGIC = 'T' | 'N' << 8 | 'N' << 16 | 'D' << 24;
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int PRECISION_FLOAT64 = 0;
+    static final int PRECISION_FLOAT32 = 1;
+
+    private DatasetFormat() {
+    }
+}
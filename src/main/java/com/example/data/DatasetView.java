@@ -0,0 +1,48 @@
+package com.example.data;
+
+// A subset of another dataset, in the given order, without copying any sample
+public class DatasetView implements IDataset {
+
+    private final IDataset source;
+    private final int[] indices;
+
+    public DatasetView(IDataset source, int[] indices) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source dataset cannot be null");
+        }
+        if (indices == null) {
+            throw new IllegalArgumentException("Indices cannot be null");
+        }
+        for (int index : indices) {
+            if (index < 0 || index >= source.size()) {
+                throw new IndexOutOfBoundsException("Sample index " + index + " is out of bounds");
+            }
+        }
+        this.source = source;
+        this.indices = indices.clone();
+    }
+
+    @Override
+    public int size() {
+        return indices.length;
+    }
+
+    @Override
+    public int getInputSize() {
+        return source.getInputSize();
+    }
+
+    @Override
+    public int getTargetSize() {
+        return source.getTargetSize();
+    }
+
+    @Override
+    public void copySample(int index, double[] inputs, int inputOffset, double[] targets, int targetOffset) {
+        source.copySample(indices[index], inputs, inputOffset, targets, targetOffset);
+    }
+
+    public IDataset getSource() {
+        return source;
+    }
+}
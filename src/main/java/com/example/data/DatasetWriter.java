@@ -0,0 +1,186 @@
+package com.example.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.example.layers.Precision;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Appends samples to a dataset file in the DatasetFormat layout, through one buffer, so a table of
+// any size can be written (e.g. streamed from a CSVBatchSource) without holding it in memory.
+// The file is written next to the target and moved into place by close()
+public class DatasetWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int COPY_BATCH_SIZE = 1024;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int inputSize;
+    private final int targetSize;
+    private final boolean float32;
+    private long sampleCount;
+    private boolean closed;
+
+    public DatasetWriter(Path path, int inputSize, int targetSize) throws IOException {
+        this(path, inputSize, targetSize, Precision.FLOAT64);
+    }
+
+    // FLOAT32 halves the file and the I/O of every epoch, values are rounded to the nearest float
+    public DatasetWriter(Path path, int inputSize, int targetSize, Precision precision) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        if (inputSize <= 0 || targetSize <= 0) {
+            throw new IllegalArgumentException("Input and target sizes must be positive");
+        }
+        if (precision == null) {
+            throw new IllegalArgumentException("Precision cannot be null");
+        }
+        this.target = path.toAbsolutePath();
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.inputSize = inputSize;
+        this.targetSize = targetSize;
+        this.float32 = precision == Precision.FLOAT32;
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(DatasetFormat.HEADER_SIZE);
+    }
+
+    // Writes every sample of one unshuffled pass over the source
+    public static void write(Path path, IBatchSource source, Precision precision) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("Batch source cannot be null");
+        }
+        DatasetWriter writer = new DatasetWriter(path, source.getInputSize(), source.getTargetSize(), precision);
+        try {
+            TensorBuffer inputs = new TensorBuffer(COPY_BATCH_SIZE, source.getInputSize());
+            TensorBuffer targets = new TensorBuffer(COPY_BATCH_SIZE, source.getTargetSize());
+            source.startEpoch(null);
+            int count;
+            while ((count = source.nextBatch(inputs.rows(COPY_BATCH_SIZE), targets.rows(COPY_BATCH_SIZE))) > 0) {
+                writer.write(inputs.rows(count), targets.rows(count));
+            }
+        } catch (IOException | RuntimeException e) {
+            writer.discard();
+            throw e;
+        }
+        writer.close();
+    }
+
+    public static void write(Path path, IDataset dataset, Precision precision) throws IOException {
+        if (dataset == null) {
+            throw new IllegalArgumentException("Dataset cannot be null");
+        }
+        write(path, new DatasetBatchSource(dataset), precision);
+    }
+
+    public void write(double[] inputs, double[] targets) throws IOException {
+        if (inputs == null || inputs.length != inputSize) {
+            throw new IllegalArgumentException("Input size must be " + inputSize);
+        }
+        if (targets == null || targets.length != targetSize) {
+            throw new IllegalArgumentException("Target size must be " + targetSize);
+        }
+        put(inputs, 0, inputSize);
+        put(targets, 0, targetSize);
+        sampleCount++;
+    }
+
+    // One sample per row
+    public void write(Tensor inputs, Tensor targets) throws IOException {
+        if (inputs == null || targets == null || inputs.getRows() != targets.getRows()) {
+            throw new IllegalArgumentException("Inputs and targets must have the same number of rows");
+        }
+        if (inputs.getCols() != inputSize || targets.getCols() != targetSize) {
+            throw new IllegalArgumentException("Batch must be [n x " + inputSize + "] and [n x " + targetSize + "]");
+        }
+        for (int i = 0; i < inputs.getRows(); i++) {
+            put(inputs.getData(), inputs.index(i, 0), inputSize);
+            put(targets.getData(), targets.index(i, 0), targetSize);
+            sampleCount++;
+        }
+    }
+
+    private void put(double[] values, int offset, int n) throws IOException {
+        checkOpen();
+        int elementSize = float32 ? Float.BYTES : Double.BYTES;
+        for (int i = 0; i < n; i++) {
+            if (buffer.remaining() < elementSize) {
+                flush();
+            }
+            if (float32) {
+                buffer.putFloat((float) values[offset + i]);
+            } else {
+                buffer.putDouble(values[offset + i]);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dataset writer is closed");
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    // Drops everything written so far; the target file is left untouched
+    public void discard() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        channel.close();
+        Files.deleteIfExists(temp);
+    }
+
+    // Writes the header, syncs the file and moves it into place
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(DatasetFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, DatasetFormat.MAGIC);
+            header.putInt(4, DatasetFormat.VERSION);
+            header.putInt(8, inputSize);
+            header.putInt(12, targetSize);
+            header.putLong(16, sampleCount);
+            header.putInt(24, float32 ? DatasetFormat.PRECISION_FLOAT32 : DatasetFormat.PRECISION_FLOAT64);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.close();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.data;
+
+import com.example.tensor.Tensor;
+
+// Transforms a gathered mini-batch in place before it is trained on, e.g. normalization, noise or
+// other augmentation. With prefetching it runs on the prefetch thread, overlapped with training;
+// it is called for one batch at a time and in batch order, so it may keep unsynchronized state
+// (such as its own Random) and stays reproducible
+public interface IBatchPreprocessor {
+
+    public void process(Tensor inputs, Tensor targets);
+}
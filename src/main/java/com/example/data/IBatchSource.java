@@ -0,0 +1,24 @@
+package com.example.data;
+
+import java.util.Random;
+
+import com.example.tensor.Tensor;
+
+// Mini-batches of one epoch at a time, the way NetworkTrainer.train(IBatchSource) consumes them.
+// Only the current batch has to be in memory, so a source can serve tables larger than the heap
+public interface IBatchSource {
+
+    public int getInputSize();
+
+    public int getTargetSize();
+
+    // Samples per epoch, or -1 while the source cannot know it before a full pass (streaming)
+    public long getSampleCount();
+
+    // Starts a pass over the data. Sources that shuffle draw the order from random; null keeps the stored order
+    public void startEpoch(Random random);
+
+    // Fills the first rows of inputs and targets (same row count, at most that many samples) with the
+    // next samples of the epoch and returns how many; 0 once the epoch is over
+    public int nextBatch(Tensor inputs, Tensor targets);
+}
@@ -0,0 +1,16 @@
+package com.example.data;
+
+// Random-access table of samples: each sample is one row of inputs and one row of targets.
+// Implementations keep the rows on the heap, in a mapped file or anywhere else; training reads
+// them through a DatasetBatchSource, which shuffles by index permutation
+public interface IDataset {
+
+    public int size();
+
+    public int getInputSize();
+
+    public int getTargetSize();
+
+    // Copies sample index into inputs[inputOffset, +getInputSize()) and targets[targetOffset, +getTargetSize())
+    public void copySample(int index, double[] inputs, int inputOffset, double[] targets, int targetOffset);
+}
@@ -0,0 +1,54 @@
+package com.example.data;
+
+import com.example.tensor.Tensor;
+
+// Samples held in two tensors with one row per sample. The tensors are used as they are, not copied
+public class InMemoryDataset implements IDataset {
+
+    private final Tensor inputs;
+    private final Tensor targets;
+
+    public InMemoryDataset(Tensor inputs, Tensor targets) {
+        if (inputs == null || targets == null) {
+            throw new IllegalArgumentException("Inputs and targets cannot be null");
+        }
+        if (inputs.getRows() != targets.getRows()) {
+            throw new IllegalArgumentException("Number of input samples must match number of target samples");
+        }
+        this.inputs = inputs;
+        this.targets = targets;
+    }
+
+    public InMemoryDataset(double[][] inputs, double[][] targets) {
+        this(inputs == null ? null : Tensor.fromArray(inputs), targets == null ? null : Tensor.fromArray(targets));
+    }
+
+    @Override
+    public int size() {
+        return inputs.getRows();
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputs.getCols();
+    }
+
+    @Override
+    public int getTargetSize() {
+        return targets.getCols();
+    }
+
+    @Override
+    public void copySample(int index, double[] inputRow, int inputOffset, double[] targetRow, int targetOffset) {
+        System.arraycopy(inputs.getData(), inputs.index(index, 0), inputRow, inputOffset, inputs.getCols());
+        System.arraycopy(targets.getData(), targets.index(index, 0), targetRow, targetOffset, targets.getCols());
+    }
+
+    public Tensor getInputs() {
+        return inputs;
+    }
+
+    public Tensor getTargets() {
+        return targets;
+    }
+}
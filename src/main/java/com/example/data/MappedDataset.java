@@ -0,0 +1,143 @@
+package com.example.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.example.layers.Precision;
+
+// A dataset file (see DatasetFormat) opened with FileChannel.map. Samples are read from the mapped
+// pages when they are copied into a batch, so the table only has to fit on disk: the OS pages it in
+// and out as training walks through it. Files over 2 GB are mapped as several segments of whole rows
+public class MappedDataset implements IDataset {
+
+    // Largest mapping per segment, rounded down to whole rows
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path path;
+    private final int inputSize;
+    private final int targetSize;
+    private final int size;
+    private final boolean float32;
+    private final int rowsPerSegment;
+    private final DoubleBuffer[] doubleSegments;  // null for float32 files
+    private final FloatBuffer[] floatSegments;    // null for float64 files
+
+    private MappedDataset(Path path, FileChannel channel, int inputSize, int targetSize, int size, boolean float32)
+            throws IOException {
+        this.path = path;
+        this.inputSize = inputSize;
+        this.targetSize = targetSize;
+        this.size = size;
+        this.float32 = float32;
+
+        long rowBytes = (long) (inputSize + targetSize) * (float32 ? Float.BYTES : Double.BYTES);
+        this.rowsPerSegment = (int) Math.max(1, Math.min(MAX_SEGMENT_SIZE / rowBytes, Math.max(size, 1)));
+        int segments = (size + rowsPerSegment - 1) / rowsPerSegment;
+        this.doubleSegments = float32 ? null : new DoubleBuffer[segments];
+        this.floatSegments = float32 ? new FloatBuffer[segments] : null;
+        for (int s = 0; s < segments; s++) {
+            long first = (long) s * rowsPerSegment;
+            long rows = Math.min(rowsPerSegment, size - first);
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                DatasetFormat.HEADER_SIZE + first * rowBytes, rows * rowBytes);
+            ByteBuffer ordered = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (float32) {
+                floatSegments[s] = ordered.asFloatBuffer();
+            } else {
+                doubleSegments[s] = ordered.asDoubleBuffer();
+            }
+        }
+    }
+
+    public static MappedDataset open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < DatasetFormat.HEADER_SIZE) {
+                throw new IllegalStateException("Not a dataset file: " + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(DatasetFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IllegalStateException("Not a dataset file: " + path);
+                }
+            }
+            if (header.getInt(0) != DatasetFormat.MAGIC) {
+                throw new IllegalStateException("Not a dataset file: " + path);
+            }
+            int version = header.getInt(4);
+            if (version != DatasetFormat.VERSION) {
+                throw new IllegalStateException("Unsupported dataset format version " + version + " in " + path);
+            }
+            int inputSize = header.getInt(8);
+            int targetSize = header.getInt(12);
+            long sampleCount = header.getLong(16);
+            int precision = header.getInt(24);
+            if (inputSize <= 0 || targetSize <= 0 || sampleCount < 0 || sampleCount > Integer.MAX_VALUE
+                    || (precision != DatasetFormat.PRECISION_FLOAT64 && precision != DatasetFormat.PRECISION_FLOAT32)) {
+                throw new IllegalStateException("Corrupt dataset file " + path);
+            }
+            boolean float32 = precision == DatasetFormat.PRECISION_FLOAT32;
+            long rowBytes = (long) (inputSize + targetSize) * (float32 ? Float.BYTES : Double.BYTES);
+            if (DatasetFormat.HEADER_SIZE + sampleCount * rowBytes != fileSize) {
+                throw new IllegalStateException("Corrupt or truncated dataset file " + path);
+            }
+            return new MappedDataset(path, channel, inputSize, targetSize, (int) sampleCount, float32);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    @Override
+    public void copySample(int index, double[] inputs, int inputOffset, double[] targets, int targetOffset) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Sample index " + index + " is out of bounds");
+        }
+        int segment = index / rowsPerSegment;
+        int row = (index - segment * rowsPerSegment) * (inputSize + targetSize);
+        if (float32) {
+            FloatBuffer values = floatSegments[segment];
+            for (int i = 0; i < inputSize; i++) {
+                inputs[inputOffset + i] = values.get(row + i);
+            }
+            for (int i = 0; i < targetSize; i++) {
+                targets[targetOffset + i] = values.get(row + inputSize + i);
+            }
+        } else {
+            DoubleBuffer values = doubleSegments[segment];
+            values.get(row, inputs, inputOffset, inputSize);
+            values.get(row + inputSize, targets, targetOffset, targetSize);
+        }
+    }
+
+    public Precision getPrecision() {
+        return float32 ? Precision.FLOAT32 : Precision.FLOAT64;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
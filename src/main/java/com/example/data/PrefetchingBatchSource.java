@@ -0,0 +1,325 @@
+package com.example.data;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Wraps a batch source so that the next batches are gathered (and preprocessed) on a background
+// thread while the caller trains on the current one. Batches live in depth + 1 preallocated slots
+// of contiguous storage: up to depth filled ahead, one held by the caller, so nothing is allocated
+// per batch. advance() hands out the next slot without copying (getInputs/getTargets are valid until
+// the next call); nextBatch copies it into the caller's tensors like any other source.
+//
+// The wrapped source is only ever used by one thread at a time and sees the same calls in the
+// same order as without prefetching, so a seeded run produces the same batches. Stall metrics
+// tell whether the pipeline keeps up: a stall is a batch the caller had to wait for.
+// Single consumer: advance/nextBatch/startEpoch must be called from one thread
+public class PrefetchingBatchSource implements IBatchSource, AutoCloseable {
+
+    private final IBatchSource source;
+    private final int maxBatchSize;
+    private final int depth;
+    private final BlockingQueue<Slot> free;
+    private final BlockingQueue<Slot> filled;
+    private final ExecutorService executor;
+    private volatile IBatchPreprocessor preprocessor;
+
+    private Slot current;           // slot held by the caller
+    private boolean epochActive;    // the producer's end-of-epoch slot has not been taken yet
+    private volatile boolean stopRequested;
+    private boolean closed;
+
+    private long batchCount;
+    private long stallCount;
+    private long stallNanos;
+    private volatile long producerWaitNanos;  // written by the prefetch thread only
+
+    // Batches of up to maxBatchSize rows, gathered up to depth batches ahead
+    public PrefetchingBatchSource(IBatchSource source, int maxBatchSize, int depth) {
+        if (source == null) {
+            throw new IllegalArgumentException("Batch source cannot be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Prefetch depth must be positive");
+        }
+        this.source = source;
+        this.maxBatchSize = maxBatchSize;
+        this.depth = depth;
+        this.free = new ArrayBlockingQueue<>(depth + 1);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i <= depth; i++) {
+            free.add(new Slot(new TensorBuffer(maxBatchSize, source.getInputSize()),
+                new TensorBuffer(maxBatchSize, source.getTargetSize())));
+        }
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tinynn-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int getInputSize() {
+        return source.getInputSize();
+    }
+
+    @Override
+    public int getTargetSize() {
+        return source.getTargetSize();
+    }
+
+    @Override
+    public long getSampleCount() {
+        return source.getSampleCount();
+    }
+
+    // Stops the epoch in progress, if any, starts the wrapped source's next epoch and begins
+    // gathering its batches in the background
+    @Override
+    public void startEpoch(Random random) {
+        checkOpen();
+        stopEpoch();
+        source.startEpoch(random);
+        stopRequested = false;
+        epochActive = true;
+        executor.execute(this::produce);
+    }
+
+    // Runs on the prefetch thread for one epoch; always ends with an empty slot (count 0, carrying
+    // the failure if the source or the preprocessor threw)
+    private void produce() {
+        Slot slot;
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                slot = free.take();
+                producerWaitNanos += System.nanoTime() - start;
+                if (stopRequested) {
+                    slot.count = 0;
+                    break;
+                }
+                try {
+                    int count = source.nextBatch(slot.inputs.rows(maxBatchSize), slot.targets.rows(maxBatchSize));
+                    IBatchPreprocessor processor = preprocessor;
+                    if (count > 0 && processor != null) {
+                        processor.process(slot.inputs.rows(count), slot.targets.rows(count));
+                    }
+                    slot.count = count;
+                } catch (RuntimeException | Error e) {
+                    slot.count = 0;
+                    slot.error = e;
+                }
+                if (slot.count == 0) {
+                    break;
+                }
+                filled.add(slot);
+            }
+        } catch (InterruptedException e) {
+            // Only close() interrupts, nobody waits for the end of the epoch any more
+            return;
+        }
+        filled.add(slot);
+    }
+
+    // Moves to the next batch of the epoch and returns its row count, 0 once the epoch is over.
+    // The previous batch's slot goes back to the prefetch thread. Rethrows a failure of the
+    // wrapped source or of the preprocessor
+    public int advance() {
+        checkOpen();
+        releaseCurrent();
+        if (!epochActive) {
+            return 0;
+        }
+        Slot slot = filled.poll();
+        if (slot == null) {
+            long start = System.nanoTime();
+            slot = take(filled);
+            stallNanos += System.nanoTime() - start;
+            stallCount++;
+        }
+        if (slot.count == 0) {
+            epochActive = false;
+            Throwable error = slot.error;
+            slot.error = null;
+            free.add(slot);
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            return 0;
+        }
+        current = slot;
+        batchCount++;
+        return slot.count;
+    }
+
+    // Inputs of the batch returned by the last advance(), valid until the next call
+    public Tensor getInputs() {
+        if (current == null) {
+            throw new IllegalStateException("No current batch");
+        }
+        return current.inputs.rows(current.count);
+    }
+
+    public Tensor getTargets() {
+        if (current == null) {
+            throw new IllegalStateException("No current batch");
+        }
+        return current.targets.rows(current.count);
+    }
+
+    // Copying form of advance(); inputs and targets need room for getMaxBatchSize() rows
+    @Override
+    public int nextBatch(Tensor inputs, Tensor targets) {
+        if (inputs == null || targets == null || inputs.getRows() != targets.getRows()) {
+            throw new IllegalArgumentException("Inputs and targets must have the same number of rows");
+        }
+        if (inputs.getRows() < maxBatchSize) {
+            throw new IllegalArgumentException("Batch tensors must have at least " + maxBatchSize + " rows");
+        }
+        int count = advance();
+        if (count > 0) {
+            copyRows(getInputs(), inputs);
+            copyRows(getTargets(), targets);
+        }
+        return count;
+    }
+
+    private static void copyRows(Tensor src, Tensor dst) {
+        int cols = src.getCols();
+        for (int r = 0; r < src.getRows(); r++) {
+            System.arraycopy(src.getData(), src.index(r, 0), dst.getData(), dst.index(r, 0), cols);
+        }
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+    }
+
+    // Lets the prefetch thread finish the batch it is on and discards everything gathered ahead
+    private void stopEpoch() {
+        releaseCurrent();
+        if (!epochActive) {
+            return;
+        }
+        stopRequested = true;
+        while (true) {
+            Slot slot = take(filled);
+            boolean last = slot.count == 0;
+            slot.error = null;
+            free.add(slot);
+            if (last) {
+                break;
+            }
+        }
+        epochActive = false;
+    }
+
+    private static Slot take(BlockingQueue<Slot> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a prefetched batch");
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Prefetching batch source is closed");
+        }
+    }
+
+    // Runs on the prefetch thread for every batch before it is handed out; null for none.
+    // Takes effect from the next batch gathered
+    public void setPreprocessor(IBatchPreprocessor preprocessor) {
+        this.preprocessor = preprocessor;
+    }
+
+    public IBatchPreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int getPrefetchDepth() {
+        return depth;
+    }
+
+    // Batches handed out since the source was created or the statistics were reset
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    // Times the caller found no batch ready and had to wait
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    // Total time the caller spent waiting for batches
+    public long getStallTimeNanos() {
+        return stallNanos;
+    }
+
+    // Total time the prefetch thread spent waiting for a free slot, i.e. with depth batches ready
+    public long getProducerWaitNanos() {
+        return producerWaitNanos;
+    }
+
+    public void resetStatistics() {
+        batchCount = 0;
+        stallCount = 0;
+        stallNanos = 0;
+        producerWaitNanos = 0;
+    }
+
+    // Stops the prefetch thread after the batch it is on; the wrapped source is left open
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            stopEpoch();
+        } finally {
+            closed = true;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Slot {
+        final TensorBuffer inputs;
+        final TensorBuffer targets;
+        int count;
+        Throwable error;
+
+        Slot(TensorBuffer inputs, TensorBuffer targets) {
+            this.inputs = inputs;
+            this.targets = targets;
+        }
+    }
+}
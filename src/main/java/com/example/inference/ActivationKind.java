@@ -0,0 +1,59 @@
+package com.example.inference;
+
+import com.example.activations.IActivation;
+import com.example.activations.Linear;
+import com.example.activations.ReLU;
+import com.example.activations.Sigmoid;
+import com.example.activations.Tanh;
+
+// Built-in activations resolved once at compile time of a plan, applied with a switch instead
+// of interface dispatch; anything else stays CUSTOM and goes through IActivation
+enum ActivationKind {
+    IDENTITY,
+    RELU,
+    SIGMOID,
+    TANH,
+    CUSTOM;
+
+    static ActivationKind of(IActivation activation) {
+        if (activation == null || activation.getClass() == Linear.class) {
+            return IDENTITY;
+        }
+        if (activation.getClass() == ReLU.class) {
+            return RELU;
+        }
+        if (activation.getClass() == Sigmoid.class) {
+            return SIGMOID;
+        }
+        if (activation.getClass() == Tanh.class) {
+            return TANH;
+        }
+        return CUSTOM;
+    }
+
+    // In place over values[off, off + n); custom is only used for CUSTOM
+    void apply(double[] values, int off, int n, IActivation custom) {
+        switch (this) {
+            case IDENTITY:
+                break;
+            case RELU:
+                for (int i = off; i < off + n; i++) {
+                    values[i] = Math.max(0, values[i]);
+                }
+                break;
+            case SIGMOID:
+                for (int i = off; i < off + n; i++) {
+                    values[i] = 1.0 / (1.0 + Math.exp(-values[i]));
+                }
+                break;
+            case TANH:
+                for (int i = off; i < off + n; i++) {
+                    values[i] = Math.tanh(values[i]);
+                }
+                break;
+            default:
+                custom.forwardRow(values, off, null, values, off, n);
+                break;
+        }
+    }
+}
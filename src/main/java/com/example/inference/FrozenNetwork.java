@@ -0,0 +1,261 @@
+package com.example.inference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.activations.IActivation;
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
+import com.example.core.NeuralNetworkEngine;
+import com.example.layers.DenseLayer;
+import com.example.layers.ILayer;
+import com.example.tensor.Gemm;
+import com.example.tensor.Tensor;
+
+// Immutable, compiled copy of a trained network for low-latency scoring. Freezing:
+//  - packs every layer's weights output-major ([out x in], one contiguous row per neuron)
+//    followed by its biases into a single array, so a row is a sequence of dot products
+//  - resolves the built-in activations to a switch instead of interface dispatch
+//  - folds a layer without activation into the next one (W = W2 * W1, b = W2 * b1 + b2)
+//    when the folded layer is no more expensive than the pair
+//  - runs rows one at a time through two scratch vectors of the widest layer, kept per thread
+// Later training of the source engine does not affect a frozen network, and it is thread-safe
+public final class FrozenNetwork {
+
+    // Below this fan-in a plain loop beats the backend's SIMD dot product setup cost
+    private static final int SIMD_DOT_MIN_LENGTH = 64;
+
+    private final double[] parameters;
+    private final int[] inputSizes;
+    private final int[] outputSizes;
+    private final int[] weightOffsets;
+    private final int[] biasOffsets;
+    private final ActivationKind[] kinds;
+    private final IActivation[] customActivations;
+    private final int inputSize;
+    private final int outputSize;
+    private final int sourceLayerCount;
+    private final IComputeBackend backend;
+    private final ThreadLocal<double[][]> scratch;
+
+    private FrozenNetwork(List<Stage> stages, int sourceLayerCount) {
+        int layerCount = stages.size();
+        this.inputSizes = new int[layerCount];
+        this.outputSizes = new int[layerCount];
+        this.weightOffsets = new int[layerCount];
+        this.biasOffsets = new int[layerCount];
+        this.kinds = new ActivationKind[layerCount];
+        this.customActivations = new IActivation[layerCount];
+        this.sourceLayerCount = sourceLayerCount;
+
+        long total = 0;
+        int maxWidth = 0;
+        for (Stage stage : stages) {
+            total += (long) stage.weights.getRows() * stage.weights.getCols() + stage.biases.length;
+            maxWidth = Math.max(maxWidth, Math.max(stage.weights.getRows(), stage.weights.getCols()));
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Network is too large to freeze into a single array");
+        }
+
+        this.parameters = new double[(int) total];
+        int offset = 0;
+        for (int l = 0; l < layerCount; l++) {
+            Stage stage = stages.get(l);
+            int out = stage.weights.getRows();
+            int in = stage.weights.getCols();
+            inputSizes[l] = in;
+            outputSizes[l] = out;
+            weightOffsets[l] = offset;
+            for (int j = 0; j < out; j++) {
+                stage.weights.copyRowTo(j, parameters, offset + j * in);
+            }
+            offset += out * in;
+            biasOffsets[l] = offset;
+            System.arraycopy(stage.biases, 0, parameters, offset, out);
+            offset += out;
+            kinds[l] = stage.kind;
+            customActivations[l] = stage.kind == ActivationKind.CUSTOM ? stage.activation : null;
+        }
+
+        this.inputSize = inputSizes[0];
+        this.outputSize = outputSizes[layerCount - 1];
+        this.backend = ComputeBackends.get();
+        int width = maxWidth;
+        this.scratch = ThreadLocal.withInitial(() -> new double[][] { new double[width], new double[width] });
+    }
+
+    // One layer while freezing: weights output-major [out x in]
+    private static final class Stage {
+        final Tensor weights;
+        final double[] biases;
+        final ActivationKind kind;
+        final IActivation activation;
+
+        Stage(Tensor weights, double[] biases, ActivationKind kind, IActivation activation) {
+            this.weights = weights;
+            this.biases = biases;
+            this.kind = kind;
+            this.activation = activation;
+        }
+    }
+
+    public static FrozenNetwork freeze(NeuralNetworkEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (engine.getLayerCount() == 0) {
+            throw new IllegalStateException("Network has no layers");
+        }
+
+        List<Stage> stages = new ArrayList<>();
+        for (ILayer layer : engine.getLayers()) {
+            if (!(layer instanceof DenseLayer)) {
+                throw new IllegalArgumentException("Cannot freeze layer type " + layer.getClass().getSimpleName());
+            }
+            Stage stage = toStage((DenseLayer) layer);
+            Stage previous = stages.isEmpty() ? null : stages.get(stages.size() - 1);
+            if (previous != null && previous.kind == ActivationKind.IDENTITY && worthFolding(previous, stage)) {
+                stages.set(stages.size() - 1, fold(previous, stage));
+            } else {
+                stages.add(stage);
+            }
+        }
+        return new FrozenNetwork(stages, engine.getLayerCount());
+    }
+
+    private static Stage toStage(DenseLayer layer) {
+        // getWeightTensor is [in x out], or already [out x in] in the transposed layout; always copied
+        Tensor weights = layer.isTransposedWeights() ? layer.getWeightTensor().copy() : layer.getWeightTensor().transpose();
+        IActivation activation = layer.getActivation();
+        return new Stage(weights, layer.getBiases().clone(), ActivationKind.of(activation), activation);
+    }
+
+    // Folding an [m -> k] and a [k -> n] layer into [m -> n] pays off unless k is a bottleneck
+    private static boolean worthFolding(Stage first, Stage second) {
+        long m = first.weights.getCols();
+        long k = first.weights.getRows();
+        long n = second.weights.getRows();
+        return m * n <= m * k + k * n;
+    }
+
+    private static Stage fold(Stage first, Stage second) {
+        int k = first.weights.getRows();
+        int n = second.weights.getRows();
+        Tensor weights = new Tensor(n, first.weights.getCols());
+        Gemm.multiply(1.0, second.weights, false, first.weights, false, 0.0, weights);
+
+        double[] biases = second.biases.clone();
+        for (int j = 0; j < n; j++) {
+            double sum = 0.0;
+            for (int p = 0; p < k; p++) {
+                sum += second.weights.get(j, p) * first.biases[p];
+            }
+            biases[j] += sum;
+        }
+        return new Stage(weights, biases, second.kind, second.activation);
+    }
+
+    // Scores one row: features has inputSize values, output receives outputSize values
+    public void predict(double[] features, double[] output) {
+        if (features == null || features.length != inputSize) {
+            throw new IllegalArgumentException("Input size must be " + inputSize);
+        }
+        if (output == null || output.length != outputSize) {
+            throw new IllegalArgumentException("Output size must be " + outputSize);
+        }
+        predictRow(features, 0, output, 0);
+    }
+
+    public Tensor predict(Tensor inputs) {
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        Tensor output = new Tensor(inputs.getRows(), outputSize);
+        predictInto(inputs, output);
+        return output;
+    }
+
+    public double[][] predict(double[][] inputs) {
+        if (inputs == null || inputs.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        return predict(Tensor.fromArray(inputs)).toArray();
+    }
+
+    public void predictInto(Tensor inputs, Tensor output) {
+        if (inputs == null || inputs.getCols() != inputSize) {
+            throw new IllegalArgumentException("Input size must be " + inputSize);
+        }
+        if (output == null || output.getRows() != inputs.getRows() || output.getCols() != outputSize) {
+            throw new IllegalArgumentException("Output must be [" + inputs.getRows() + " x " + outputSize + "]");
+        }
+        for (int i = 0; i < inputs.getRows(); i++) {
+            predictRow(inputs.getData(), inputs.index(i, 0), output.getData(), output.index(i, 0));
+        }
+    }
+
+    private void predictRow(double[] src, int srcOff, double[] dst, int dstOff) {
+        double[][] buffers = scratch.get();
+        double[] in = src;
+        int inOff = srcOff;
+        int last = kinds.length - 1;
+        for (int l = 0; l <= last; l++) {
+            double[] out = l == last ? dst : buffers[l & 1];
+            int outOff = l == last ? dstOff : 0;
+            int n = outputSizes[l];
+            int k = inputSizes[l];
+            int w = weightOffsets[l];
+            int b = biasOffsets[l];
+            if (k >= SIMD_DOT_MIN_LENGTH) {
+                for (int j = 0; j < n; j++) {
+                    out[outOff + j] = parameters[b + j] + backend.dot(parameters, w + j * k, in, inOff, k);
+                }
+            } else {
+                for (int j = 0; j < n; j++) {
+                    out[outOff + j] = parameters[b + j] + dot(parameters, w + j * k, in, inOff, k);
+                }
+            }
+            kinds[l].apply(out, outOff, n, customActivations[l]);
+            in = out;
+            inOff = outOff;
+        }
+    }
+
+    private static double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        // Four independent accumulators keep the adds off one dependency chain
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[aOff + i] * b[bOff + i];
+            s1 += a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    // Layers after folding
+    public int getLayerCount() {
+        return kinds.length;
+    }
+
+    public int getSourceLayerCount() {
+        return sourceLayerCount;
+    }
+
+    public int getParameterCount() {
+        return parameters.length;
+    }
+}
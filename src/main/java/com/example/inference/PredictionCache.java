@@ -0,0 +1,298 @@
+package com.example.inference;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.core.NeuralNetworkEngine;
+import com.example.layers.ILayer;
+
+// Bounded cache of engine predictions for workloads that score the same rows again and again.
+//  - a row is keyed by a 64-bit hash of its values, optionally rounded to a quantization step
+//    first so that rows closer than the step share an entry; keys keep the (rounded) values
+//    and compare them exactly, so a hash collision is never a false hit
+//  - entries are spread over power-of-two segments, each an LRU map with its own lock, so
+//    concurrent scoring threads only contend when they hit the same segment
+//  - every segment remembers the engine's parameter version it was filled under and drops its
+//    entries the first time it sees a newer one, so training the engine invalidates the cache
+//    without a sweep. Direct weight edits must call engine.markParametersChanged()
+//  - a miss runs the engine outside the segment lock
+// Thread-safe as long as the engine is not trained while it is scoring
+public final class PredictionCache {
+
+    private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long HASH_MULTIPLIER = 0xBF58476D1CE4E5B9L;
+
+    private final NeuralNetworkEngine engine;
+    private final int maxEntries;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private volatile double quantizationStep;
+    private volatile OutputShape outputShape;   // output size as of a parameter version
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PredictionCache(NeuralNetworkEngine engine, int maxEntries) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive");
+        }
+        this.engine = engine;
+        this.maxEntries = maxEntries;
+
+        // About four segments per core, but never segments smaller than 16 entries
+        int wanted = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, maxEntries / 16));
+        int segmentCount = Integer.highestOneBit(wanted);
+        this.segments = new Segment[segmentCount];
+        int perSegment = (maxEntries + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    // Output for one row as a new array
+    public double[] predict(double[] features) {
+        double[] cached = lookup(features);
+        if (cached != null) {
+            return cached.clone();
+        }
+        double[] out = new double[outputSize()];
+        compute(features, out);
+        return out;
+    }
+
+    // Output for one row into out; does not allocate on a hit
+    public void predictInto(double[] features, double[] out) {
+        double[] cached = lookup(features);
+        if (cached != null) {
+            if (out == null || out.length != cached.length) {
+                throw new IllegalArgumentException("Output size must be " + cached.length);
+            }
+            System.arraycopy(cached, 0, out, 0, cached.length);
+            return;
+        }
+        compute(features, out);
+    }
+
+    private double[] lookup(double[] features) {
+        if (features == null) {
+            throw new IllegalArgumentException("Features cannot be null");
+        }
+        long version = engine.getParameterVersion();
+        Key key = keyFor(features, false);
+        double[] cached = segmentFor(key).get(key, version);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    private void compute(double[] features, double[] out) {
+        // Tag the entry with the version read before scoring: if training runs meanwhile, the entry
+        // is already stale and the next lookup drops it
+        long version = engine.getParameterVersion();
+        engine.predictInto(features, out);
+        Key key = keyFor(features, true);
+        segmentFor(key).put(key, out.clone(), version);
+    }
+
+    // Looked up once per parameter version (layer changes bump it) rather than on every miss
+    private int outputSize() {
+        long version = engine.getParameterVersion();
+        OutputShape shape = outputShape;
+        if (shape == null || shape.version != version) {
+            List<ILayer> layers = engine.getLayers();
+            if (layers.isEmpty()) {
+                throw new IllegalStateException("Network has no layers");
+            }
+            shape = new OutputShape(version, layers.get(layers.size() - 1).getOutputSize());
+            outputShape = shape;
+        }
+        return shape.size;
+    }
+
+    // A lookup key may wrap the caller's array; a stored key always owns its values
+    private Key keyFor(double[] features, boolean owned) {
+        double step = quantizationStep;
+        double[] values;
+        if (step > 0.0) {
+            values = new double[features.length];
+            for (int i = 0; i < features.length; i++) {
+                // + 0.0 folds -0.0 into 0.0 so both round to the same key
+                values[i] = Math.rint(features[i] / step) + 0.0;
+            }
+        } else {
+            values = owned ? features.clone() : features;
+        }
+        return new Key(values, hash(values));
+    }
+
+    private static long hash(double[] values) {
+        long h = HASH_SEED ^ values.length;
+        for (double value : values) {
+            h = (h ^ Double.doubleToLongBits(value)) * HASH_MULTIPLIER;
+            h ^= h >>> 31;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments.length == 1 ? segments[0] : segments[(int) (key.hash >>> segmentShift)];
+    }
+
+    // Drops every entry
+    public void invalidate() {
+        for (Segment segment : segments) {
+            segment.clearAll();
+        }
+    }
+
+    // Rows whose features round to the same multiple of step share one cached output; 0 keys
+    // rows by their exact values. Changing the step clears the cache
+    public void setQuantizationStep(double step) {
+        if (!(step >= 0.0) || Double.isInfinite(step)) {
+            throw new IllegalArgumentException("Quantization step must be zero or a positive finite number");
+        }
+        this.quantizationStep = step;
+        invalidate();
+    }
+
+    public double getQuantizationStep() {
+        return quantizationStep;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private static final class OutputShape {
+        final long version;
+        final int size;
+
+        OutputShape(long version, int size) {
+            this.version = version;
+            this.size = size;
+        }
+    }
+
+    private static final class Key {
+        final double[] values;
+        final long hash;
+
+        Key(double[] values, long hash) {
+            this.values = values;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && Arrays.equals(values, key.values);
+        }
+    }
+
+    // Access-ordered map that drops its least recently used entry when full
+    private final class Segment extends LinkedHashMap<Key, double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private long version;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        synchronized double[] get(Key key, long currentVersion) {
+            if (version != currentVersion) {
+                if (version < currentVersion) {
+                    super.clear();
+                    version = currentVersion;
+                }
+                return null;
+            }
+            return super.get(key);
+        }
+
+        synchronized void put(Key key, double[] output, long entryVersion) {
+            if (version < entryVersion) {
+                super.clear();
+                version = entryVersion;
+            } else if (version > entryVersion) {
+                return;
+            }
+            super.put(key, output);
+        }
+
+        synchronized void clearAll() {
+            super.clear();
+        }
+
+        synchronized int count() {
+            return super.size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inference;
+
+import com.example.tensor.Tensor;
+
+// Float vs quantized outputs on the same rows. A row's decision is the argmax class, or
+// output >= 0.5 for a single-output network; accuracies use the same rule on the targets
+public final class QuantizationReport {
+
+    private final int rows;
+    private final double maxAbsError;
+    private final double meanAbsError;
+    private final double decisionAgreement;
+    private final double floatAccuracy;
+    private final double quantizedAccuracy;
+    private final long floatBytes;
+    private final long quantizedBytes;
+
+    QuantizationReport(Tensor expected, Tensor actual, Tensor targets, long floatBytes, long quantizedBytes) {
+        this.rows = expected.getRows();
+        this.floatBytes = floatBytes;
+        this.quantizedBytes = quantizedBytes;
+
+        double maxError = 0.0;
+        double errorSum = 0.0;
+        int agree = 0;
+        int floatCorrect = 0;
+        int quantizedCorrect = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                double error = Math.abs(expected.get(r, c) - actual.get(r, c));
+                maxError = Math.max(maxError, error);
+                errorSum += error;
+            }
+            int expectedDecision = decision(expected, r);
+            int actualDecision = decision(actual, r);
+            if (expectedDecision == actualDecision) {
+                agree++;
+            }
+            if (targets != null) {
+                int truth = decision(targets, r);
+                floatCorrect += expectedDecision == truth ? 1 : 0;
+                quantizedCorrect += actualDecision == truth ? 1 : 0;
+            }
+        }
+
+        this.maxAbsError = maxError;
+        this.meanAbsError = errorSum / ((double) rows * expected.getCols());
+        this.decisionAgreement = (double) agree / rows * 100.0;
+        this.floatAccuracy = targets != null ? (double) floatCorrect / rows * 100.0 : Double.NaN;
+        this.quantizedAccuracy = targets != null ? (double) quantizedCorrect / rows * 100.0 : Double.NaN;
+    }
+
+    private static int decision(Tensor tensor, int row) {
+        if (tensor.getCols() == 1) {
+            return tensor.get(row, 0) >= 0.5 ? 1 : 0;
+        }
+        int best = 0;
+        for (int c = 1; c < tensor.getCols(); c++) {
+            if (tensor.get(row, c) > tensor.get(row, best)) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getMaxAbsError() {
+        return maxAbsError;
+    }
+
+    public double getMeanAbsError() {
+        return meanAbsError;
+    }
+
+    // Percentage of rows where both networks make the same decision
+    public double getDecisionAgreement() {
+        return decisionAgreement;
+    }
+
+    // Percentages, NaN when the report was made without targets
+    public double getFloatAccuracy() {
+        return floatAccuracy;
+    }
+
+    public double getQuantizedAccuracy() {
+        return quantizedAccuracy;
+    }
+
+    // Quantized minus float accuracy, in percentage points
+    public double getAccuracyDelta() {
+        return quantizedAccuracy - floatAccuracy;
+    }
+
+    public long getFloatBytes() {
+        return floatBytes;
+    }
+
+    public long getQuantizedBytes() {
+        return quantizedBytes;
+    }
+
+    public void printSummary() {
+        System.out.println("Quantization Report:");
+        System.out.println("========================================");
+        System.out.println("Rows: " + rows);
+        System.out.printf("Model size: %d -> %d bytes (%.1fx smaller)%n",
+            floatBytes, quantizedBytes, (double) floatBytes / quantizedBytes);
+        System.out.printf("Max abs error: %.6f%n", maxAbsError);
+        System.out.printf("Mean abs error: %.6f%n", meanAbsError);
+        System.out.printf("Decision agreement: %.2f%%%n", decisionAgreement);
+        if (!Double.isNaN(floatAccuracy)) {
+            System.out.printf("Accuracy: %.2f%% (float) -> %.2f%% (int8), delta %+.2f points%n",
+                floatAccuracy, quantizedAccuracy, getAccuracyDelta());
+        }
+        System.out.println("========================================");
+    }
+}
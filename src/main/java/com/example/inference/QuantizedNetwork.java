@@ -0,0 +1,291 @@
+package com.example.inference;
+
+import java.util.List;
+
+import com.example.activations.IActivation;
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
+import com.example.core.NeuralNetworkEngine;
+import com.example.layers.DenseLayer;
+import com.example.layers.ILayer;
+import com.example.layers.Precision;
+import com.example.tensor.Tensor;
+
+// INT8 post-training quantization of a trained DenseLayer stack, for scoring only.
+//  - weights: int8, symmetric, one scale per output neuron (max |w| of its row / 127), output-major
+//  - layer inputs: int8, symmetric, one scale per layer calibrated as max |x| / 127 over a sample
+//    of inputs run through the float network; values beyond the calibrated range saturate
+//  - each output is an exact int32 dot product, dequantized once as acc * wScale * xScale + bias;
+//    biases and activations stay in double
+// Weights take one byte instead of eight. Use report() to measure the accuracy cost on held-out data
+public final class QuantizedNetwork {
+
+    private static final int INT8_MAX = 127;
+
+    private final byte[] weights;
+    private final double[] outputScales;   // wScale[j] * xScale of the layer, per output neuron
+    private final double[] biases;
+    private final double[] inputInvScales;
+    private final int[] inputSizes;
+    private final int[] outputSizes;
+    private final int[] weightOffsets;
+    private final int[] channelOffsets;    // into outputScales and biases
+    private final ActivationKind[] kinds;
+    private final IActivation[] customActivations;
+    private final long sourceBytes;
+    private final IComputeBackend backend;
+    private final ThreadLocal<Scratch> scratch;
+
+    // Per-thread row buffers: two double vectors that alternate between layers and the quantized input
+    private static final class Scratch {
+        final double[][] values;
+        final byte[] quantized;
+
+        Scratch(int width) {
+            this.values = new double[][] { new double[width], new double[width] };
+            this.quantized = new byte[width];
+        }
+    }
+
+    private QuantizedNetwork(List<ILayer> layers, double[] inputMaxAbs) {
+        int layerCount = layers.size();
+        this.inputSizes = new int[layerCount];
+        this.outputSizes = new int[layerCount];
+        this.weightOffsets = new int[layerCount];
+        this.channelOffsets = new int[layerCount];
+        this.inputInvScales = new double[layerCount];
+        this.kinds = new ActivationKind[layerCount];
+        this.customActivations = new IActivation[layerCount];
+
+        long weightCount = 0;
+        int channelCount = 0;
+        int maxWidth = 0;
+        long layerBytes = 0;
+        for (ILayer layer : layers) {
+            long layerWeights = (long) layer.getInputSize() * layer.getOutputSize();
+            weightCount += layerWeights;
+            channelCount += layer.getOutputSize();
+            // Weights in the layer's storage precision, biases are always double
+            int weightBytes = ((DenseLayer) layer).getPrecision() == Precision.FLOAT32 ? Float.BYTES : Double.BYTES;
+            layerBytes += layerWeights * weightBytes + (long) layer.getOutputSize() * Double.BYTES;
+            maxWidth = Math.max(maxWidth, Math.max(layer.getInputSize(), layer.getOutputSize()));
+        }
+        if (weightCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Network is too large to quantize into a single array");
+        }
+
+        this.weights = new byte[(int) weightCount];
+        this.outputScales = new double[channelCount];
+        this.biases = new double[channelCount];
+        this.sourceBytes = layerBytes;
+
+        int weightOffset = 0;
+        int channelOffset = 0;
+        for (int l = 0; l < layerCount; l++) {
+            DenseLayer layer = (DenseLayer) layers.get(l);
+            int in = layer.getInputSize();
+            int out = layer.getOutputSize();
+            inputSizes[l] = in;
+            outputSizes[l] = out;
+            weightOffsets[l] = weightOffset;
+            channelOffsets[l] = channelOffset;
+
+            double inputScale = scaleFor(inputMaxAbs[l]);
+            inputInvScales[l] = 1.0 / inputScale;
+
+            // [out x in] whichever layout the layer trains in
+            Tensor w = layer.isTransposedWeights() ? layer.getWeightTensor() : layer.getWeightTensor().transpose();
+            for (int j = 0; j < out; j++) {
+                double maxAbs = 0.0;
+                for (int i = 0; i < in; i++) {
+                    maxAbs = Math.max(maxAbs, Math.abs(w.get(j, i)));
+                }
+                double weightScale = scaleFor(maxAbs);
+                for (int i = 0; i < in; i++) {
+                    weights[weightOffset + j * in + i] = toInt8(w.get(j, i) / weightScale);
+                }
+                outputScales[channelOffset + j] = weightScale * inputScale;
+            }
+            System.arraycopy(layer.getBiases(), 0, biases, channelOffset, out);
+
+            kinds[l] = ActivationKind.of(layer.getActivation());
+            customActivations[l] = kinds[l] == ActivationKind.CUSTOM ? layer.getActivation() : null;
+            weightOffset += in * out;
+            channelOffset += out;
+        }
+
+        this.backend = ComputeBackends.get();
+        int width = maxWidth;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(width));
+    }
+
+    // calibrationInputs should be a representative sample (a few hundred rows of the training data)
+    public static QuantizedNetwork quantize(NeuralNetworkEngine engine, Tensor calibrationInputs) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (engine.getLayerCount() == 0) {
+            throw new IllegalStateException("Network has no layers");
+        }
+        if (calibrationInputs == null || calibrationInputs.getRows() == 0) {
+            throw new IllegalArgumentException("Calibration inputs cannot be null or empty");
+        }
+        List<ILayer> layers = engine.getLayers();
+        if (calibrationInputs.getCols() != layers.get(0).getInputSize()) {
+            throw new IllegalArgumentException("Calibration input size must be " + layers.get(0).getInputSize());
+        }
+        for (ILayer layer : layers) {
+            if (!(layer instanceof DenseLayer)) {
+                throw new IllegalArgumentException("Cannot quantize layer type " + layer.getClass().getSimpleName());
+            }
+        }
+
+        // Range of every layer's input over the float forward pass
+        double[] inputMaxAbs = new double[layers.size()];
+        Tensor current = calibrationInputs;
+        for (int l = 0; l < layers.size(); l++) {
+            inputMaxAbs[l] = maxAbs(current);
+            Tensor next = new Tensor(current.getRows(), layers.get(l).getOutputSize());
+            layers.get(l).infer(current, next);
+            current = next;
+        }
+        return new QuantizedNetwork(layers, inputMaxAbs);
+    }
+
+    public static QuantizedNetwork quantize(NeuralNetworkEngine engine, double[][] calibrationInputs) {
+        if (calibrationInputs == null || calibrationInputs.length == 0) {
+            throw new IllegalArgumentException("Calibration inputs cannot be null or empty");
+        }
+        return quantize(engine, Tensor.fromArray(calibrationInputs));
+    }
+
+    private static double maxAbs(Tensor tensor) {
+        double max = 0.0;
+        double[] data = tensor.getData();
+        for (int r = 0; r < tensor.getRows(); r++) {
+            int start = tensor.index(r, 0);
+            for (int c = 0; c < tensor.getCols(); c++) {
+                max = Math.max(max, Math.abs(data[start + c]));
+            }
+        }
+        return max;
+    }
+
+    // An all-zero range still needs a usable scale; every value then quantizes to 0
+    private static double scaleFor(double maxAbs) {
+        return maxAbs > 0.0 ? maxAbs / INT8_MAX : 1.0;
+    }
+
+    private static byte toInt8(double scaled) {
+        long q = Math.round(scaled);
+        return (byte) Math.max(-INT8_MAX, Math.min(INT8_MAX, q));
+    }
+
+    // Scores one row: features has getInputSize() values, output receives getOutputSize() values
+    public void predict(double[] features, double[] output) {
+        if (features == null || features.length != getInputSize()) {
+            throw new IllegalArgumentException("Input size must be " + getInputSize());
+        }
+        if (output == null || output.length != getOutputSize()) {
+            throw new IllegalArgumentException("Output size must be " + getOutputSize());
+        }
+        predictRow(features, 0, output, 0);
+    }
+
+    public Tensor predict(Tensor inputs) {
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        Tensor output = new Tensor(inputs.getRows(), getOutputSize());
+        predictInto(inputs, output);
+        return output;
+    }
+
+    public double[][] predict(double[][] inputs) {
+        if (inputs == null || inputs.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        return predict(Tensor.fromArray(inputs)).toArray();
+    }
+
+    public void predictInto(Tensor inputs, Tensor output) {
+        if (inputs == null || inputs.getCols() != getInputSize()) {
+            throw new IllegalArgumentException("Input size must be " + getInputSize());
+        }
+        if (output == null || output.getRows() != inputs.getRows() || output.getCols() != getOutputSize()) {
+            throw new IllegalArgumentException("Output must be [" + inputs.getRows() + " x " + getOutputSize() + "]");
+        }
+        for (int i = 0; i < inputs.getRows(); i++) {
+            predictRow(inputs.getData(), inputs.index(i, 0), output.getData(), output.index(i, 0));
+        }
+    }
+
+    private void predictRow(double[] src, int srcOff, double[] dst, int dstOff) {
+        Scratch buffers = scratch.get();
+        byte[] q = buffers.quantized;
+        double[] in = src;
+        int inOff = srcOff;
+        int last = kinds.length - 1;
+        for (int l = 0; l <= last; l++) {
+            double[] out = l == last ? dst : buffers.values[l & 1];
+            int outOff = l == last ? dstOff : 0;
+            int n = outputSizes[l];
+            int k = inputSizes[l];
+
+            double inv = inputInvScales[l];
+            for (int i = 0; i < k; i++) {
+                q[i] = toInt8(in[inOff + i] * inv);
+            }
+
+            int w = weightOffsets[l];
+            int c = channelOffsets[l];
+            for (int j = 0; j < n; j++) {
+                int acc = backend.dot(weights, w + j * k, q, 0, k);
+                out[outOff + j] = acc * outputScales[c + j] + biases[c + j];
+            }
+            kinds[l].apply(out, outOff, n, customActivations[l]);
+            in = out;
+            inOff = outOff;
+        }
+    }
+
+    // Scores inputs with both networks and compares them; targets may be null
+    public QuantizationReport report(NeuralNetworkEngine reference, Tensor inputs, Tensor targets) {
+        if (reference == null) {
+            throw new IllegalArgumentException("Reference engine cannot be null");
+        }
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        if (targets != null && (targets.getRows() != inputs.getRows() || targets.getCols() != getOutputSize())) {
+            throw new IllegalArgumentException("Targets must be [" + inputs.getRows() + " x " + getOutputSize() + "]");
+        }
+        Tensor expected = reference.predict(inputs);
+        Tensor actual = predict(inputs);
+        return new QuantizationReport(expected, actual, targets, sourceBytes, getModelBytes());
+    }
+
+    public QuantizationReport report(NeuralNetworkEngine reference, double[][] inputs, double[][] targets) {
+        if (inputs == null || inputs.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        return report(reference, Tensor.fromArray(inputs), targets == null ? null : Tensor.fromArray(targets));
+    }
+
+    public int getInputSize() {
+        return inputSizes[0];
+    }
+
+    public int getOutputSize() {
+        return outputSizes[outputSizes.length - 1];
+    }
+
+    public int getLayerCount() {
+        return kinds.length;
+    }
+
+    // int8 weights plus the double scales and biases
+    public long getModelBytes() {
+        return weights.length + (long) (outputScales.length + biases.length + inputInvScales.length) * Double.BYTES;
+    }
+}
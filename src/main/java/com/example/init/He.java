@@ -31,4 +31,22 @@ public class He implements IWeightInitializer{
 
         return weights;
     }
+
+    // Draws the same sequence as init() straight into float storage, without the double[][] copy
+    @Override
+    public float[] initFloat(int noInputs, int noOutputs) {
+        if (noInputs <= 0 || noOutputs <= 0) {
+            throw new IllegalArgumentException("Number of inputs and outputs must be positive");
+        }
+
+        float[] weights = new float[noInputs * noOutputs];
+
+        double stddev = Math.sqrt(2.0 / noInputs);
+
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) (random.nextGaussian() * stddev);
+        }
+
+        return weights;
+    }
 }
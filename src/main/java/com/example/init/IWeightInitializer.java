@@ -4,4 +4,16 @@ public interface IWeightInitializer {
 
     // Input: number of input neurons from the prev layer, number of output neurons in the current layer
     public double[][] init(int noInputs, int noOutputs);
+
+    // Same weights for float32 storage, flattened row-major as [noInputs x noOutputs]
+    public default float[] initFloat(int noInputs, int noOutputs) {
+        double[][] weights = init(noInputs, noOutputs);
+        float[] result = new float[noInputs * noOutputs];
+        for (int i = 0; i < noInputs; i++) {
+            for (int j = 0; j < noOutputs; j++) {
+                result[i * noOutputs + j] = (float) weights[i][j];
+            }
+        }
+        return result;
+    }
 }
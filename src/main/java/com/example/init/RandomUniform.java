@@ -34,4 +34,20 @@ public class RandomUniform implements IWeightInitializer {
 
         return weights;
     }
+
+    @Override
+    public float[] initFloat(int noInputs, int noOutputs) {
+        if (noInputs <= 0 || noOutputs <= 0) {
+            throw new IllegalArgumentException("Number of inputs and outputs must be positive");
+        }
+
+        float[] weights = new float[noInputs * noOutputs];
+        double range = maxValue - minValue;
+
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) (minValue + random.nextDouble() * range);
+        }
+
+        return weights;
+    }
 }
\ No newline at end of file
@@ -20,4 +20,16 @@ public class Xavier implements IWeightInitializer {
         return weights;
     }
 
+    @Override
+    public float[] initFloat(int noInputs, int noOutputs) {
+
+        double stdDev = Math.sqrt(2.0 / (noInputs + noOutputs));
+        float[] weights = new float[noInputs * noOutputs];
+
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) (random.nextGaussian() * stdDev);
+        }
+        return weights;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.example.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import com.example.activations.IActivation;
+import com.example.core.NeuralNetworkEngine;
+import com.example.init.IWeightInitializer;
+import com.example.layers.DenseLayer;
+import com.example.layers.Precision;
+import com.example.tensor.Tensor;
+
+// A saved model opened with FileChannel.map. Opening reads only the header and the layer table;
+// predict reads the weights straight from the mapped pages through double/float buffer views,
+// so nothing is parsed or copied onto the heap and the OS page cache is shared between processes
+// that serve the same file. Scoring is thread-safe; use toEngine() for a trainable copy
+public final class MappedModel {
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final int[] inputSizes;
+    private final int[] outputSizes;
+    private final int[] activationCodes;
+    private final IActivation[] activations;
+    private final DoubleBuffer[] weights;      // null for float32 layers
+    private final FloatBuffer[] floatWeights;  // null for float64 layers
+    private final DoubleBuffer[] biases;
+    private final ThreadLocal<double[][]> scratch;
+
+    private MappedModel(Path path, MappedByteBuffer mapped) {
+        this.path = path;
+        this.mapped = mapped;
+
+        int layerCount = mapped.getInt(8);
+        this.inputSizes = new int[layerCount];
+        this.outputSizes = new int[layerCount];
+        this.activationCodes = new int[layerCount];
+        this.activations = new IActivation[layerCount];
+        this.weights = new DoubleBuffer[layerCount];
+        this.floatWeights = new FloatBuffer[layerCount];
+        this.biases = new DoubleBuffer[layerCount];
+
+        int maxWidth = 0;
+        for (int l = 0; l < layerCount; l++) {
+            int entry = ModelFormat.HEADER_SIZE + l * ModelFormat.LAYER_ENTRY_SIZE;
+            int in = mapped.getInt(entry);
+            int out = mapped.getInt(entry + 4);
+            int precision = mapped.getInt(entry + 12);
+            long weightOffset = mapped.getLong(entry + 16);
+            long biasOffset = mapped.getLong(entry + 24);
+            if (in <= 0 || out <= 0 || (l > 0 && in != outputSizes[l - 1])) {
+                throw new IllegalStateException("Corrupt model file " + path + ": bad shape for layer " + l);
+            }
+            inputSizes[l] = in;
+            outputSizes[l] = out;
+            activationCodes[l] = mapped.getInt(entry + 8);
+            activations[l] = ModelFormat.newActivation(activationCodes[l]);
+
+            if (precision == ModelFormat.PRECISION_FLOAT32) {
+                floatWeights[l] = view(weightOffset, (long) in * out * Float.BYTES).asFloatBuffer();
+            } else if (precision == ModelFormat.PRECISION_FLOAT64) {
+                weights[l] = view(weightOffset, (long) in * out * Double.BYTES).asDoubleBuffer();
+            } else {
+                throw new IllegalStateException("Corrupt model file " + path + ": unknown precision " + precision);
+            }
+            biases[l] = view(biasOffset, (long) out * Double.BYTES).asDoubleBuffer();
+            maxWidth = Math.max(maxWidth, Math.max(in, out));
+        }
+
+        int width = maxWidth;
+        this.scratch = ThreadLocal.withInitial(() -> new double[][] { new double[width], new double[width] });
+    }
+
+    public static MappedModel open(Path path) throws IOException {
+        return open(path, true);
+    }
+
+    // Checking the CRC reads every page of the file once; skip it when the file is trusted and
+    // the first requests should not wait for the whole model to be paged in
+    public static MappedModel open(Path path, boolean verifyChecksum) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < ModelFormat.HEADER_SIZE) {
+                throw new IllegalStateException("Not a model file: " + path);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Model file is too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.getInt(0) != ModelFormat.MAGIC) {
+            throw new IllegalStateException("Not a model file: " + path);
+        }
+        int version = mapped.getInt(4);
+        if (version != ModelFormat.VERSION) {
+            throw new IllegalStateException("Unsupported model format version " + version + " in " + path);
+        }
+        long fileLength = mapped.getLong(16);
+        int layerCount = mapped.getInt(8);
+        if (fileLength != mapped.capacity() || layerCount <= 0
+                || ModelFormat.HEADER_SIZE + (long) layerCount * ModelFormat.LAYER_ENTRY_SIZE > fileLength) {
+            throw new IllegalStateException("Corrupt or truncated model file " + path);
+        }
+        if (verifyChecksum) {
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(ModelFormat.CHECKSUM_START, (int) fileLength - ModelFormat.CHECKSUM_START));
+            if (crc.getValue() != mapped.getLong(ModelFormat.CHECKSUM_OFFSET)) {
+                throw new IllegalStateException("Checksum mismatch in model file " + path);
+            }
+        }
+        return new MappedModel(path, mapped);
+    }
+
+    // Opens the file and copies it into a new trainable engine
+    public static NeuralNetworkEngine load(Path path) throws IOException {
+        return open(path).toEngine();
+    }
+
+    private ByteBuffer view(long offset, long length) {
+        if (offset < 0 || offset % ModelFormat.BLOCK_ALIGNMENT != 0 || offset + length > mapped.capacity()) {
+            throw new IllegalStateException("Corrupt model file " + path + ": bad block at offset " + offset);
+        }
+        return mapped.slice((int) offset, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Scores one row: features has getInputSize() values, output receives getOutputSize() values
+    public void predict(double[] features, double[] output) {
+        if (features == null || features.length != getInputSize()) {
+            throw new IllegalArgumentException("Input size must be " + getInputSize());
+        }
+        if (output == null || output.length != getOutputSize()) {
+            throw new IllegalArgumentException("Output size must be " + getOutputSize());
+        }
+        predictRow(features, 0, output, 0);
+    }
+
+    public Tensor predict(Tensor inputs) {
+        if (inputs == null || inputs.getRows() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        Tensor output = new Tensor(inputs.getRows(), getOutputSize());
+        predictInto(inputs, output);
+        return output;
+    }
+
+    public double[][] predict(double[][] inputs) {
+        if (inputs == null || inputs.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be null or empty");
+        }
+        return predict(Tensor.fromArray(inputs)).toArray();
+    }
+
+    public void predictInto(Tensor inputs, Tensor output) {
+        if (inputs == null || inputs.getCols() != getInputSize()) {
+            throw new IllegalArgumentException("Input size must be " + getInputSize());
+        }
+        if (output == null || output.getRows() != inputs.getRows() || output.getCols() != getOutputSize()) {
+            throw new IllegalArgumentException("Output must be [" + inputs.getRows() + " x " + getOutputSize() + "]");
+        }
+        for (int i = 0; i < inputs.getRows(); i++) {
+            predictRow(inputs.getData(), inputs.index(i, 0), output.getData(), output.index(i, 0));
+        }
+    }
+
+    // out = b + sum_i x[i] * W[i, :], one contiguous weight row per input; zero inputs (ReLU) are skipped
+    private void predictRow(double[] src, int srcOff, double[] dst, int dstOff) {
+        double[][] buffers = scratch.get();
+        double[] in = src;
+        int inOff = srcOff;
+        int last = inputSizes.length - 1;
+        for (int l = 0; l <= last; l++) {
+            double[] out = l == last ? dst : buffers[l & 1];
+            int outOff = l == last ? dstOff : 0;
+            int n = outputSizes[l];
+            int k = inputSizes[l];
+
+            biases[l].get(0, out, outOff, n);
+            DoubleBuffer w = weights[l];
+            FloatBuffer fw = floatWeights[l];
+            for (int i = 0; i < k; i++) {
+                double x = in[inOff + i];
+                if (x == 0.0) {
+                    continue;
+                }
+                int row = i * n;
+                if (w != null) {
+                    for (int j = 0; j < n; j++) {
+                        out[outOff + j] += x * w.get(row + j);
+                    }
+                } else {
+                    for (int j = 0; j < n; j++) {
+                        out[outOff + j] += x * fw.get(row + j);
+                    }
+                }
+            }
+            activations[l].forwardRow(out, outOff, null, out, outOff, n);
+            in = out;
+            inOff = outOff;
+        }
+    }
+
+    // Copies the weights into a new engine of DenseLayers with the stored precisions
+    public NeuralNetworkEngine toEngine() {
+        NeuralNetworkEngine engine = new NeuralNetworkEngine();
+        for (int l = 0; l < inputSizes.length; l++) {
+            Precision precision = floatWeights[l] != null ? Precision.FLOAT32 : Precision.FLOAT64;
+            DenseLayer layer = new DenseLayer(inputSizes[l], outputSizes[l], new StoredWeights(l),
+                ModelFormat.newActivation(activationCodes[l]), precision);
+            biases[l].get(0, layer.getBiases(), 0, outputSizes[l]);
+            engine.addLayer(layer);
+        }
+        return engine;
+    }
+
+    // Hands the stored weights of one layer to the DenseLayer constructor
+    private final class StoredWeights implements IWeightInitializer {
+        private final int layer;
+
+        StoredWeights(int layer) {
+            this.layer = layer;
+        }
+
+        @Override
+        public double[][] init(int noInputs, int noOutputs) {
+            double[][] result = new double[noInputs][noOutputs];
+            for (int i = 0; i < noInputs; i++) {
+                for (int j = 0; j < noOutputs; j++) {
+                    int index = i * noOutputs + j;
+                    result[i][j] = weights[layer] != null ? weights[layer].get(index) : floatWeights[layer].get(index);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public float[] initFloat(int noInputs, int noOutputs) {
+            float[] result = new float[noInputs * noOutputs];
+            floatWeights[layer].get(0, result);
+            return result;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getInputSize() {
+        return inputSizes[0];
+    }
+
+    public int getOutputSize() {
+        return outputSizes[outputSizes.length - 1];
+    }
+
+    public int getLayerCount() {
+        return inputSizes.length;
+    }
+
+    public long getFileSize() {
+        return mapped.capacity();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.io;
+
+import com.example.activations.IActivation;
+import com.example.activations.Linear;
+import com.example.activations.ReLU;
+import com.example.activations.Sigmoid;
+import com.example.activations.Tanh;
+
+// Layout of a saved model, all values little-endian:
+//
+//   header (64 bytes)
+//     0  int   magic "TNNM"
+//     4  int   format version
+//     8  int   layer count
+//    12  int   reserved
+//    16  long  file length
+//    24  long  CRC32 of bytes [32, file length)
+//    32  ...   reserved, zero
+//   layer table (32 bytes per layer)
+//     0  int   input size
+//     4  int   output size
+//     8  int   activation code
+//    12  int   precision (0 = float64, 1 = float32)
+//    16  long  weights offset, [input x output] row-major in the layer's precision
+//    24  long  biases offset, [output] float64
+//   data blocks, each starting on a BLOCK_ALIGNMENT boundary
+//
+// Blocks are aligned so a mapped file can be read as double/float buffers in place
+public final class ModelFormat {
+
+    public static final int MAGIC = 'T' | 'N' << 8 | 'N' << 16 | 'M' << 24;
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int LAYER_ENTRY_SIZE = 32;
+    static final int BLOCK_ALIGNMENT = 64;
+    static final int CHECKSUM_OFFSET = 24;
+    static final int CHECKSUM_START = 32;
+
+    static final int PRECISION_FLOAT64 = 0;
+    static final int PRECISION_FLOAT32 = 1;
+
+    static final int ACTIVATION_LINEAR = 0;
+    static final int ACTIVATION_RELU = 1;
+    static final int ACTIVATION_SIGMOID = 2;
+    static final int ACTIVATION_TANH = 3;
+
+    private ModelFormat() {
+    }
+
+    static long align(long offset) {
+        return (offset + BLOCK_ALIGNMENT - 1) / BLOCK_ALIGNMENT * BLOCK_ALIGNMENT;
+    }
+
+    // Only the built-in activations can be saved, a layer without one is stored as Linear
+    static int activationCode(IActivation activation) {
+        if (activation == null || activation.getClass() == Linear.class) {
+            return ACTIVATION_LINEAR;
+        }
+        if (activation.getClass() == ReLU.class) {
+            return ACTIVATION_RELU;
+        }
+        if (activation.getClass() == Sigmoid.class) {
+            return ACTIVATION_SIGMOID;
+        }
+        if (activation.getClass() == Tanh.class) {
+            return ACTIVATION_TANH;
+        }
+        throw new IllegalArgumentException("Cannot save activation type " + activation.getClass().getSimpleName());
+    }
+
+    static IActivation newActivation(int code) {
+        switch (code) {
+            case ACTIVATION_LINEAR:
+                return new Linear();
+            case ACTIVATION_RELU:
+                return new ReLU();
+            case ACTIVATION_SIGMOID:
+                return new Sigmoid();
+            case ACTIVATION_TANH:
+                return new Tanh();
+            default:
+                throw new IllegalStateException("Unknown activation code " + code);
+        }
+    }
+}
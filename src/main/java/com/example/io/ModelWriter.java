@@ -0,0 +1,200 @@
+package com.example.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.example.core.NeuralNetworkEngine;
+import com.example.layers.DenseLayer;
+import com.example.layers.ILayer;
+import com.example.layers.Precision;
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Tensor;
+
+// Saves a network of DenseLayers in the ModelFormat layout. Weights are written in the
+// [input x output] layout whatever the layer uses internally, in the layer's own precision.
+// The file is written through the channel next to the target and moved into place, so a reader
+// never sees a half-written file. On POSIX systems a MappedModel of the old file keeps a valid
+// mapping while it is replaced. Windows refuses to replace a file that is mapped, and a mapping
+// lasts until its MappedModel is garbage collected: there, save each version under a new name
+// (model-2, model-3, ...) and open that instead of overwriting the file being served
+public final class ModelWriter {
+
+    // Weights and biases go through a heap buffer of this size
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private ModelWriter() {
+    }
+
+    public static void write(NeuralNetworkEngine engine, Path path) throws IOException {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        List<ILayer> layers = engine.getLayers();
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("Network has no layers");
+        }
+
+        int layerCount = layers.size();
+        int[] activations = new int[layerCount];
+        long[] weightOffsets = new long[layerCount];
+        long[] biasOffsets = new long[layerCount];
+        long offset = ModelFormat.HEADER_SIZE + (long) layerCount * ModelFormat.LAYER_ENTRY_SIZE;
+        for (int l = 0; l < layerCount; l++) {
+            ILayer layer = layers.get(l);
+            if (!(layer instanceof DenseLayer)) {
+                throw new IllegalArgumentException("Cannot save layer type " + layer.getClass().getSimpleName());
+            }
+            DenseLayer dense = (DenseLayer) layer;
+            activations[l] = ModelFormat.activationCode(dense.getActivation());
+            int elementSize = dense.getPrecision() == Precision.FLOAT32 ? Float.BYTES : Double.BYTES;
+
+            weightOffsets[l] = ModelFormat.align(offset);
+            offset = weightOffsets[l] + (long) dense.getInputSize() * dense.getOutputSize() * elementSize;
+            biasOffsets[l] = ModelFormat.align(offset);
+            offset = biasOffsets[l] + (long) dense.getOutputSize() * Double.BYTES;
+        }
+        long fileLength = offset;
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Model is too large for a single mapped file (" + fileLength + " bytes)");
+        }
+
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            BlockOutput out = new BlockOutput(channel);
+            out.putInt(ModelFormat.MAGIC);
+            out.putInt(ModelFormat.VERSION);
+            out.putInt(layerCount);
+            out.padTo(16);
+            out.putLong(fileLength);
+            out.padTo(ModelFormat.HEADER_SIZE);   // the checksum is filled in last
+
+            for (int l = 0; l < layerCount; l++) {
+                DenseLayer layer = (DenseLayer) layers.get(l);
+                boolean float32 = layer.getPrecision() == Precision.FLOAT32;
+                out.putInt(layer.getInputSize());
+                out.putInt(layer.getOutputSize());
+                out.putInt(activations[l]);
+                out.putInt(float32 ? ModelFormat.PRECISION_FLOAT32 : ModelFormat.PRECISION_FLOAT64);
+                out.putLong(weightOffsets[l]);
+                out.putLong(biasOffsets[l]);
+            }
+
+            for (int l = 0; l < layerCount; l++) {
+                DenseLayer layer = (DenseLayer) layers.get(l);
+                out.padTo(weightOffsets[l]);
+                if (layer.getPrecision() == Precision.FLOAT32) {
+                    writeWeights(out, layer.getFloatWeights(), layer.isTransposedWeights());
+                } else {
+                    writeWeights(out, layer.getWeightTensor(), layer.isTransposedWeights());
+                }
+                out.padTo(biasOffsets[l]);
+                for (double bias : layer.getBiases()) {
+                    out.putDouble(bias);
+                }
+            }
+            out.flush();
+
+            ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            checksum.putLong(0, out.crc.getValue());
+            while (checksum.hasRemaining()) {
+                channel.write(checksum, ModelFormat.CHECKSUM_OFFSET + checksum.position());
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // stored is [in x out], or [out x in] when transposed
+    private static void writeWeights(BlockOutput out, Tensor stored, boolean transposed) throws IOException {
+        int rows = transposed ? stored.getCols() : stored.getRows();
+        int cols = transposed ? stored.getRows() : stored.getCols();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                out.putDouble(transposed ? stored.get(j, i) : stored.get(i, j));
+            }
+        }
+    }
+
+    private static void writeWeights(BlockOutput out, FloatTensor stored, boolean transposed) throws IOException {
+        int rows = transposed ? stored.getCols() : stored.getRows();
+        int cols = transposed ? stored.getRows() : stored.getCols();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                out.putFloat(transposed ? stored.get(j, i) : stored.get(i, j));
+            }
+        }
+    }
+
+    // Sequential little-endian writes through one chunk buffer, checksumming every byte from
+    // CHECKSUM_START on as it goes out
+    private static final class BlockOutput {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+        long flushed;   // file offset of buffer[0]
+
+        BlockOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        // Zero bytes up to the given file offset
+        void padTo(long offset) throws IOException {
+            while (flushed + buffer.position() < offset) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            int skip = (int) Math.max(0, Math.min(buffer.limit(), ModelFormat.CHECKSUM_START - flushed));
+            crc.update(buffer.slice(skip, buffer.limit() - skip));
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
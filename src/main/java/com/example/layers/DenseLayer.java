@@ -1,122 +1,233 @@
 package com.example.layers;
 
 import com.example.activations.IActivation;
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
 import com.example.init.IWeightInitializer;
+import com.example.tensor.FloatTensor;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
 
 public class DenseLayer implements ILayer{
 
     private int inputSize;
     private int outputSize;
-    private double[][] weights;      // [inputSize x outputSize]
+    private Tensor weights;          // [inputSize x outputSize], or [outputSize x inputSize] when transposed
+    private FloatTensor floatWeights; // same layout, used instead of weights for FLOAT32 storage
+    private Precision precision;
     private double[] biases;         // [outputSize]
     private IActivation activation;
+    private boolean transposedWeights;
 
     // For backpropagation
-    private double[][] input;        // Store input for backward pass
-    private double[][] z;            // Pre-activation values
-    private double[][] output;  
-    
-    private double[][] weightGradients;
+    private Tensor input;            // Store input for backward pass
+    private Tensor output;           // Activation output (z is activated in place), or z for the fused head
+
+    // Per-batch workspaces, sized once for the largest batch and reused
+    private TensorBuffer outputBuffer;
+    private TensorBuffer deltaBuffer;
+    private TensorBuffer inputGradientBuffer;
+
+    private Tensor weightGradients;  // same layout as weights, allocated on the first backward pass
     private double[] biasGradients;
 
 
     public DenseLayer(int inputSize, int outputSize, IWeightInitializer initializer, IActivation activation) {
+        this(inputSize, outputSize, initializer, activation, Precision.FLOAT64);
+    }
+
+    // FLOAT32 halves the memory and bandwidth of the weight matrix; products and
+    // gradients are still accumulated in double, activations stay double
+    public DenseLayer(int inputSize, int outputSize, IWeightInitializer initializer, IActivation activation, Precision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("Precision cannot be null");
+        }
         this.inputSize = inputSize;
         this.outputSize = outputSize;
         this.activation = activation;
-        this.weights = initializer.init(inputSize, outputSize);
-        this.biases = new double[outputSize];        
-        this.weightGradients = new double[inputSize][outputSize];
+        this.precision = precision;
+        if (precision == Precision.FLOAT32) {
+            this.floatWeights = new FloatTensor(initializer.initFloat(inputSize, outputSize), inputSize, outputSize);
+        } else {
+            this.weights = Tensor.fromArray(initializer.init(inputSize, outputSize));
+        }
+        this.biases = new double[outputSize];
+        this.biasGradients = new double[outputSize];
+        this.outputBuffer = new TensorBuffer(outputSize);
+        this.deltaBuffer = new TensorBuffer(outputSize);
+        this.inputGradientBuffer = new TensorBuffer(inputSize);
+    }
+
+    // Replica: shares the parameters of source, everything per-batch is its own
+    private DenseLayer(DenseLayer source) {
+        this.inputSize = source.inputSize;
+        this.outputSize = source.outputSize;
+        this.activation = source.activation;
+        this.precision = source.precision;
+        this.transposedWeights = source.transposedWeights;
+        this.weights = source.weights;
+        this.floatWeights = source.floatWeights;
+        this.biases = source.biases;
         this.biasGradients = new double[outputSize];
+        this.outputBuffer = new TensorBuffer(outputSize);
+        this.deltaBuffer = new TensorBuffer(outputSize);
+        this.inputGradientBuffer = new TensorBuffer(inputSize);
     }
 
     @Override
-    public double[][] forward(double[][] input) {
-        this.input = input; // needed for backprop  
-        int batch_size = input.length;
-
-        // z = (w*x) + b
-        z = new double[batch_size][outputSize];
-
-        for(int i=0;i<batch_size;i++){
-            for(int j=0;j<outputSize;j++){
-                double sum = biases[j];
-                for(int k=0;k<inputSize;k++){
-                    sum += (input[i][k] * weights[k][j]);
-                }
-                z[i][j] = sum;
-            }
-        }
+    public Tensor forward(Tensor input) {
+        Tensor dst = outputBuffer.rows(input.getRows());
+        forwardInto(input, dst);
+        return dst;
+    }
 
-        if(activation != null){
-            output = activation.forward(z);
-            return output;
-        }
-        else{
-            output = z;
-            return z;
-        }
+    @Override
+    public void forwardInto(Tensor input, Tensor dst) {
+        forwardInto(input, dst, true);
+    }
+
+    // Fused output head: stops at the logits z = (w*x) + b, the loss applies the activation
+    public Tensor forwardLogits(Tensor input) {
+        Tensor dst = outputBuffer.rows(input.getRows());
+        forwardInto(input, dst, false);
+        return dst;
     }
 
     @Override
-    public double[][] backward(double[][] outputGradient) {
-        int batchSize = outputGradient.length;
+    public void infer(Tensor input, Tensor dst) {
+        compute(input, dst, true);
+    }
 
-        double[][] dz;
-        if (activation != null) {
-            dz = activation.backword(outputGradient);
+    private void forwardInto(Tensor input, Tensor dst, boolean applyActivation) {
+        compute(input, dst, applyActivation);
+        this.input = input; // needed for backprop
+        this.output = dst;
+    }
+
+    private void compute(Tensor input, Tensor dst, boolean applyActivation) {
+        if (input.getCols() != inputSize) {
+            throw new IllegalArgumentException(
+                "Input size (" + input.getCols() + ") must match layer input size (" + inputSize + ")"
+            );
+        }
+        int batch_size = input.getRows();
+
+        // z = w*x written straight into dst, then bias add + activation in one pass
+        IComputeBackend backend = ComputeBackends.get();
+        if (floatWeights != null) {
+            backend.gemm(1.0, input, false, floatWeights, transposedWeights, 0.0, dst);
         } else {
-            dz = outputGradient;
+            backend.gemm(1.0, input, false, weights, transposedWeights, 0.0, dst);
         }
 
-        for (int i = 0; i < inputSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                weightGradients[i][j] = 0;
+        if(applyActivation && activation != null){
+            activation.forwardInto(dst, biases, dst);
+        }
+        else{
+            double[] out = dst.getData();
+            for(int i=0;i<batch_size;i++){
+                backend.addBias(biases, out, dst.index(i, 0), outputSize);
             }
         }
+    }
 
-        for (int i = 0; i < inputSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                for (int b = 0; b < batchSize; b++) {
-                    weightGradients[i][j] += input[b][i] * dz[b][j];
-                }
-                weightGradients[i][j] /= batchSize;
-            }
+    @Override
+    public Tensor backward(Tensor outputGradient) {
+        Tensor dst = inputGradientBuffer.rows(outputGradient.getRows());
+        backwardInto(outputGradient, dst);
+        return dst;
+    }
+
+    @Override
+    public void backwardInto(Tensor outputGradient, Tensor inputGradient) {
+        backwardInto(outputGradient, inputGradient, true);
+    }
+
+    // Fused output head: logitGradient is already d(loss)/dz, the activation derivative is skipped
+    public Tensor backwardFromLogits(Tensor logitGradient) {
+        Tensor dst = inputGradientBuffer.rows(logitGradient.getRows());
+        backwardInto(logitGradient, dst, false);
+        return dst;
+    }
+
+    private void backwardInto(Tensor outputGradient, Tensor inputGradient, boolean applyActivation) {
+        int batchSize = outputGradient.getRows();
+        IComputeBackend backend = ComputeBackends.get();
+
+        // dz = da * f'(output), then the bias gradient summed from the dz rows
+        boolean applyDerivative = applyActivation && activation != null;
+        Tensor dz = applyDerivative ? deltaBuffer.rows(batchSize) : outputGradient;
+        if (applyDerivative) {
+            activation.backwordInto(output, outputGradient, dz);
         }
 
         for (int j = 0; j < outputSize; j++) {
             biasGradients[j] = 0;
-            for (int b = 0; b < batchSize; b++) {
-                biasGradients[j] += dz[b][j];
-            }
-            biasGradients[j] /= batchSize; 
+        }
+        double[] d = dz.getData();
+        for (int b = 0; b < batchSize; b++) {
+            backend.axpy(1.0, d, dz.index(b, 0), biasGradients, 0, outputSize);
+        }
+        for (int j = 0; j < outputSize; j++) {
+            biasGradients[j] /= batchSize;
         }
 
-        double[][] inputGradient = new double[batchSize][inputSize];
-        for (int i = 0; i < batchSize; i++) {
-            for (int j = 0; j < inputSize; j++) {
-                double sum = 0;
-                for (int k = 0; k < outputSize; k++) {
-                    sum += dz[i][k] * weights[j][k];
-                }
-                inputGradient[i][j] = sum;
-            }
+        // dW = x^T * dz / batch (or dz^T * x for the transposed layout)
+        allocateWeightGradients();
+        if (transposedWeights) {
+            backend.gemm(1.0 / batchSize, dz, true, input, false, 0.0, weightGradients);
+        } else {
+            backend.gemm(1.0 / batchSize, input, true, dz, false, 0.0, weightGradients);
+        }
+
+        // dx = dz * W^T
+        if (floatWeights != null) {
+            backend.gemm(1.0, dz, false, floatWeights, !transposedWeights, 0.0, inputGradient);
+        } else {
+            backend.gemm(1.0, dz, false, weights, !transposedWeights, 0.0, inputGradient);
+        }
+    }
+
+    private void allocateWeightGradients() {
+        if (weightGradients == null) {
+            weightGradients = transposedWeights ? new Tensor(outputSize, inputSize) : new Tensor(inputSize, outputSize);
         }
-        
-        return inputGradient;
+    }
+
+    @Override
+    public void reserveWorkspace(int maxBatchSize) {
+        outputBuffer.reserve(maxBatchSize);
+        deltaBuffer.reserve(maxBatchSize);
+        inputGradientBuffer.reserve(maxBatchSize);
     }
 
     @Override
     public void updateParameters(double learningRate) {
-        for (int i = 0; i < inputSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                weights[i][j] -= learningRate * weightGradients[i][j];
-            }
+        IComputeBackend backend = ComputeBackends.get();
+        if (weightGradients == null) {
+            return; // no backward pass yet
         }
-        
-        for (int j = 0; j < outputSize; j++) {
-            biases[j] -= learningRate * biasGradients[j];
+        if (floatWeights != null) {
+            float[] w = floatWeights.getData();
+            backend.axpy(-learningRate, weightGradients.getData(), 0, w, 0, w.length);
+        } else {
+            double[] w = weights.getData();
+            backend.axpy(-learningRate, weightGradients.getData(), 0, w, 0, w.length);
         }
+        backend.axpy(-learningRate, biasGradients, 0, biases, 0, outputSize);
+    }
+
+    // Replicas are tied to the current parameter arrays: create them after any
+    // setTransposedWeights/setPrecision call, not before
+    @Override
+    public ILayer replica() {
+        return new DenseLayer(this);
+    }
+
+    @Override
+    public double[][] getGradientArrays() {
+        allocateWeightGradients();
+        return new double[][] { weightGradients.getData(), biasGradients };
     }
 
     @Override
@@ -129,21 +240,91 @@ public class DenseLayer implements ILayer{
         return outputSize;
     }
 
+    // Stores weights as [outputSize x inputSize] so every output neuron is one contiguous row.
+    // Forward becomes a row-by-row dot product, which suits small batches and inference
+    public void setTransposedWeights(boolean transposedWeights) {
+        if (this.transposedWeights == transposedWeights) {
+            return;
+        }
+        this.transposedWeights = transposedWeights;
+        if (floatWeights != null) {
+            this.floatWeights = floatWeights.transpose();
+        } else {
+            this.weights = weights.transpose();
+        }
+        if (weightGradients != null) {
+            this.weightGradients = weightGradients.transpose();
+        }
+    }
+
+    public boolean isTransposedWeights() {
+        return transposedWeights;
+    }
+
+    // Converts the stored weights; going to FLOAT32 rounds each weight to the nearest float. On a layer
+    // already in an engine use engine.setPrecision, or call engine.markParametersChanged() afterwards
+    public void setPrecision(Precision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("Precision cannot be null");
+        }
+        if (this.precision == precision) {
+            return;
+        }
+        this.precision = precision;
+        if (precision == Precision.FLOAT32) {
+            this.floatWeights = FloatTensor.fromTensor(weights);
+            this.weights = null;
+        } else {
+            this.weights = floatWeights.toTensor();
+            this.floatWeights = null;
+        }
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // Copy as [inputSize x outputSize] whatever the layout and precision (adapter for the old API)
     public double[][] getWeights() {
-        return weights;
+        Tensor w = getWeightTensor();
+        return transposedWeights ? w.transpose().toArray() : w.toArray();
+    }
+
+    // The weights in their stored layout, [out x in] when transposed. With FLOAT32 storage this is
+    // a widened copy, use getFloatWeights() to modify the weights
+    public Tensor getWeightTensor() {
+        return floatWeights != null ? floatWeights.toTensor() : weights;
+    }
+
+    // Null unless the layer stores FLOAT32 weights
+    public FloatTensor getFloatWeights() {
+        return floatWeights;
     }
-    
+
     public double[] getBiases() {
         return biases;
     }
-    
+
+    // Copy as [inputSize x outputSize] (adapter for the old API); null until the first backward pass
     public double[][] getWeightGradients() {
+        if (weightGradients == null) {
+            return null;
+        }
+        return transposedWeights ? weightGradients.transpose().toArray() : weightGradients.toArray();
+    }
+
+    // Same layout as getWeightTensor(); null until the first backward pass
+    public Tensor getWeightGradientTensor() {
         return weightGradients;
     }
-    
+
     public double[] getBiasGradients() {
         return biasGradients;
     }
 
+    public IActivation getActivation() {
+        return activation;
+    }
+
 
 }
@@ -1,21 +1,59 @@
 package com.example.layers;
 
+import com.example.tensor.Tensor;
+
 public interface ILayer {
     
 
     // Input: Input data [batch_size x input_features]
     // Output: data [batch_size x output_features]
-    public double[][] forward(double[][] input);
+    // The returned tensor may be a layer-owned workspace, valid until the next forward call
+    public Tensor forward(Tensor input);
 
     // Output: outputGradient Gradient from the next layer [batch_size x output_features]
     // Input: Gradient to pass to previous layer [batch_size x input_features]
-    public double[][] backward(double[][] outputGradient);
+    // The returned tensor may be a layer-owned workspace, valid until the next backward call
+    public Tensor backward(Tensor outputGradient);
+
+    // Workspace variants writing into caller-owned dst instead of the layer's own buffers
+    public void forwardInto(Tensor input, Tensor dst);
+
+    public void backwardInto(Tensor outputGradient, Tensor dst);
+
+    // Inference-only forward: reads the parameters but records nothing for backprop,
+    // so concurrent calls with distinct dst tensors are safe
+    public void infer(Tensor input, Tensor dst);
+
+    // Size per-batch buffers once for the largest batch that will be used
+    public default void reserveWorkspace(int maxBatchSize) {
+    }
 
     // Update weights using gradients, lr
     public void updateParameters(double learningRate);
 
+    // Data-parallel training: a replica shares this layer's parameters but owns its workspaces,
+    // backprop state and gradients, so replicas can run forward/backward concurrently
+    public default ILayer replica() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support replicas");
+    }
+
+    // Gradient arrays filled by backward and applied by updateParameters, in the same order
+    // for every replica; empty for layers without parameters
+    public default double[][] getGradientArrays() {
+        return new double[0][];
+    }
+
     public int getInputSize();
 
     public int getOutputSize();
 
+    // Adapters for the jagged double[][] layout (copy in, copy out)
+    public default double[][] forward(double[][] input) {
+        return forward(Tensor.fromArray(input)).toArray();
+    }
+
+    public default double[][] backward(double[][] outputGradient) {
+        return backward(Tensor.fromArray(outputGradient)).toArray();
+    }
+
 }
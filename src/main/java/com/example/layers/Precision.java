@@ -0,0 +1,7 @@
+package com.example.layers;
+
+// Storage precision of a layer's parameters; arithmetic always accumulates in double
+public enum Precision {
+    FLOAT64,
+    FLOAT32
+}
@@ -0,0 +1,354 @@
+package com.example.layers;
+
+import java.util.Arrays;
+
+import com.example.activations.IActivation;
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
+import com.example.init.IWeightInitializer;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Fully connected layer that stores only the non-zero weights of a pruned DenseLayer, in CSR form
+// over the [outputSize x inputSize] matrix: the weights of output j are values[rowStart[j]..rowStart[j+1])
+// at input positions columns[...]. Forward is one sparse dot product per output, over blocks of
+// batch rows, and costs O(batch * nonZeros) instead of O(batch * inputSize * outputSize); each non-zero takes 12 bytes
+// (value + index) instead of 8, so it pays off from about 35% sparsity.
+// Training keeps the sparsity pattern: only the stored weights get gradients and updates
+public class SparseDenseLayer implements ILayer {
+
+    // Batch rows multiplied together by the blocked kernel
+    private static final int ROW_BLOCK = 4;
+
+    private final int inputSize;
+    private final int outputSize;
+    private final int[] rowStart;    // [outputSize + 1]
+    private final int[] columns;     // [nonZeros], ascending within a row
+    private final double[] values;   // [nonZeros]
+    private final double[] biases;   // [outputSize]
+    private final IActivation activation;
+
+    // For backpropagation
+    private Tensor input;
+    private Tensor output;
+
+    private final TensorBuffer outputBuffer;
+    private final TensorBuffer deltaBuffer;
+    private final TensorBuffer inputGradientBuffer;
+
+    private final double[] valueGradients;
+    private final double[] biasGradients;
+
+    // Interleaved input rows for the blocked kernel, per thread so infer stays safe to call concurrently
+    private final ThreadLocal<double[]> packedInput;
+
+    // Copies the non-zero weights, the biases and the activation of source (float32 weights are widened)
+    public SparseDenseLayer(DenseLayer source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source layer cannot be null");
+        }
+        this.inputSize = source.getInputSize();
+        this.outputSize = source.getOutputSize();
+        this.activation = source.getActivation();
+
+        // Read through the [out x in] orientation whatever the source layout
+        Tensor weights = source.getWeightTensor();
+        boolean transposed = source.isTransposedWeights();
+        this.rowStart = new int[outputSize + 1];
+        int nonZeros = 0;
+        for (int j = 0; j < outputSize; j++) {
+            for (int i = 0; i < inputSize; i++) {
+                if ((transposed ? weights.get(j, i) : weights.get(i, j)) != 0.0) {
+                    nonZeros++;
+                }
+            }
+            rowStart[j + 1] = nonZeros;
+        }
+        this.columns = new int[nonZeros];
+        this.values = new double[nonZeros];
+        int k = 0;
+        for (int j = 0; j < outputSize; j++) {
+            for (int i = 0; i < inputSize; i++) {
+                double w = transposed ? weights.get(j, i) : weights.get(i, j);
+                if (w != 0.0) {
+                    columns[k] = i;
+                    values[k] = w;
+                    k++;
+                }
+            }
+        }
+        this.biases = source.getBiases().clone();
+        this.valueGradients = new double[nonZeros];
+        this.biasGradients = new double[outputSize];
+        this.outputBuffer = new TensorBuffer(outputSize);
+        this.deltaBuffer = new TensorBuffer(outputSize);
+        this.inputGradientBuffer = new TensorBuffer(inputSize);
+        int packedSize = inputSize * ROW_BLOCK;
+        this.packedInput = ThreadLocal.withInitial(() -> new double[packedSize]);
+    }
+
+    // Replica: shares the parameters of source, everything per-batch is its own
+    private SparseDenseLayer(SparseDenseLayer source) {
+        this.inputSize = source.inputSize;
+        this.outputSize = source.outputSize;
+        this.rowStart = source.rowStart;
+        this.columns = source.columns;
+        this.values = source.values;
+        this.biases = source.biases;
+        this.activation = source.activation;
+        this.valueGradients = new double[values.length];
+        this.biasGradients = new double[outputSize];
+        this.outputBuffer = new TensorBuffer(outputSize);
+        this.deltaBuffer = new TensorBuffer(outputSize);
+        this.inputGradientBuffer = new TensorBuffer(inputSize);
+        int packedSize = inputSize * ROW_BLOCK;
+        this.packedInput = ThreadLocal.withInitial(() -> new double[packedSize]);
+    }
+
+    @Override
+    public Tensor forward(Tensor input) {
+        Tensor dst = outputBuffer.rows(input.getRows());
+        forwardInto(input, dst);
+        return dst;
+    }
+
+    @Override
+    public void forwardInto(Tensor input, Tensor dst) {
+        infer(input, dst);
+        this.input = input; // needed for backprop
+        this.output = dst;
+    }
+
+    @Override
+    public void infer(Tensor input, Tensor dst) {
+        if (input.getCols() != inputSize) {
+            throw new IllegalArgumentException(
+                "Input size (" + input.getCols() + ") must match layer input size (" + inputSize + ")"
+            );
+        }
+        int batchSize = input.getRows();
+        int b = 0;
+        if (batchSize >= ROW_BLOCK) {
+            double[] packed = packedInput.get();
+            for (; b + ROW_BLOCK <= batchSize; b += ROW_BLOCK) {
+                multiplyBlock(input, b, packed, dst);
+            }
+        }
+        for (; b < batchSize; b++) {
+            multiplyRow(input, b, dst);
+        }
+
+        if (activation != null) {
+            activation.forwardInto(dst, biases, dst);
+        } else {
+            IComputeBackend backend = ComputeBackends.get();
+            double[] out = dst.getData();
+            for (int r = 0; r < batchSize; r++) {
+                backend.addBias(biases, out, dst.index(r, 0), outputSize);
+            }
+        }
+    }
+
+    // ROW_BLOCK rows at once: the rows are interleaved into packed ([inputSize x ROW_BLOCK]) so each
+    // stored weight is loaded once and meets its ROW_BLOCK inputs in one contiguous run
+    private void multiplyBlock(Tensor input, int firstRow, double[] packed, Tensor dst) {
+        double[] x = input.getData();
+        for (int r = 0; r < ROW_BLOCK; r++) {
+            int xRow = input.index(firstRow + r, 0);
+            for (int i = 0; i < inputSize; i++) {
+                packed[i * ROW_BLOCK + r] = x[xRow + i];
+            }
+        }
+        double[] out = dst.getData();
+        int row0 = dst.index(firstRow, 0);
+        int row1 = dst.index(firstRow + 1, 0);
+        int row2 = dst.index(firstRow + 2, 0);
+        int row3 = dst.index(firstRow + 3, 0);
+        for (int j = 0; j < outputSize; j++) {
+            double sum0 = 0.0;
+            double sum1 = 0.0;
+            double sum2 = 0.0;
+            double sum3 = 0.0;
+            for (int k = rowStart[j]; k < rowStart[j + 1]; k++) {
+                double w = values[k];
+                int p = columns[k] * ROW_BLOCK;
+                sum0 += w * packed[p];
+                sum1 += w * packed[p + 1];
+                sum2 += w * packed[p + 2];
+                sum3 += w * packed[p + 3];
+            }
+            out[row0 + j] = sum0;
+            out[row1 + j] = sum1;
+            out[row2 + j] = sum2;
+            out[row3 + j] = sum3;
+        }
+    }
+
+    private void multiplyRow(Tensor input, int r, Tensor dst) {
+        double[] x = input.getData();
+        double[] out = dst.getData();
+        int xRow = input.index(r, 0);
+        int row = dst.index(r, 0);
+        for (int j = 0; j < outputSize; j++) {
+            double sum0 = 0.0;
+            double sum1 = 0.0;
+            int k = rowStart[j];
+            int end = rowStart[j + 1];
+            for (; k + 1 < end; k += 2) {
+                sum0 += values[k] * x[xRow + columns[k]];
+                sum1 += values[k + 1] * x[xRow + columns[k + 1]];
+            }
+            if (k < end) {
+                sum0 += values[k] * x[xRow + columns[k]];
+            }
+            out[row + j] = sum0 + sum1;
+        }
+    }
+
+    @Override
+    public Tensor backward(Tensor outputGradient) {
+        Tensor dst = inputGradientBuffer.rows(outputGradient.getRows());
+        backwardInto(outputGradient, dst);
+        return dst;
+    }
+
+    @Override
+    public void backwardInto(Tensor outputGradient, Tensor inputGradient) {
+        int batchSize = outputGradient.getRows();
+        IComputeBackend backend = ComputeBackends.get();
+        Tensor dz = activation != null ? deltaBuffer.rows(batchSize) : outputGradient;
+        if (activation != null) {
+            activation.backwordInto(output, outputGradient, dz);
+        }
+
+        Arrays.fill(biasGradients, 0.0);
+        Arrays.fill(valueGradients, 0.0);
+        double[] d = dz.getData();
+        double[] x = input.getData();
+        double[] dx = inputGradient.getData();
+        for (int b = 0; b < batchSize; b++) {
+            int dRow = dz.index(b, 0);
+            backend.axpy(1.0, d, dRow, biasGradients, 0, outputSize);
+
+            // dW[j, i] += dz[j] * x[i] and dx[i] += dz[j] * W[j, i], for the stored (j, i) only
+            int xRow = input.index(b, 0);
+            int dxRow = inputGradient.index(b, 0);
+            for (int i = 0; i < inputSize; i++) {
+                dx[dxRow + i] = 0.0;
+            }
+            for (int j = 0; j < outputSize; j++) {
+                double g = d[dRow + j];
+                if (g == 0.0) {
+                    continue;
+                }
+                for (int k = rowStart[j]; k < rowStart[j + 1]; k++) {
+                    int i = columns[k];
+                    valueGradients[k] += g * x[xRow + i];
+                    dx[dxRow + i] += g * values[k];
+                }
+            }
+        }
+        double scale = 1.0 / batchSize;
+        for (int j = 0; j < outputSize; j++) {
+            biasGradients[j] *= scale;
+        }
+        for (int k = 0; k < valueGradients.length; k++) {
+            valueGradients[k] *= scale;
+        }
+    }
+
+    @Override
+    public void reserveWorkspace(int maxBatchSize) {
+        outputBuffer.reserve(maxBatchSize);
+        deltaBuffer.reserve(maxBatchSize);
+        inputGradientBuffer.reserve(maxBatchSize);
+    }
+
+    @Override
+    public void updateParameters(double learningRate) {
+        // The gradients stay zero until the first backward pass
+        IComputeBackend backend = ComputeBackends.get();
+        backend.axpy(-learningRate, valueGradients, 0, values, 0, values.length);
+        backend.axpy(-learningRate, biasGradients, 0, biases, 0, outputSize);
+    }
+
+    @Override
+    public ILayer replica() {
+        return new SparseDenseLayer(this);
+    }
+
+    @Override
+    public double[][] getGradientArrays() {
+        return new double[][] { valueGradients, biasGradients };
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    // Expands back into a DenseLayer with the pruned weights as zeros, e.g. to save or freeze the network
+    public DenseLayer toDenseLayer(Precision precision) {
+        IWeightInitializer stored = (noInputs, noOutputs) -> {
+            double[][] dense = new double[noInputs][noOutputs];
+            for (int j = 0; j < outputSize; j++) {
+                for (int k = rowStart[j]; k < rowStart[j + 1]; k++) {
+                    dense[columns[k]][j] = values[k];
+                }
+            }
+            return dense;
+        };
+        DenseLayer layer = new DenseLayer(inputSize, outputSize, stored, activation, precision);
+        System.arraycopy(biases, 0, layer.getBiases(), 0, outputSize);
+        return layer;
+    }
+
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    // Fraction of the inputSize x outputSize weights that are not stored
+    public double getSparsity() {
+        return 1.0 - (double) values.length / ((long) inputSize * outputSize);
+    }
+
+    // Bytes held by the weights, indices and biases
+    public long getParameterBytes() {
+        return (long) values.length * (Double.BYTES + Integer.BYTES)
+            + (long) rowStart.length * Integer.BYTES + (long) outputSize * Double.BYTES;
+    }
+
+    // Non-zero weights in CSR order, see the class comment; modify in place to change the weights
+    public double[] getValues() {
+        return values;
+    }
+
+    public int[] getColumns() {
+        return columns;
+    }
+
+    public int[] getRowStart() {
+        return rowStart;
+    }
+
+    public double[] getBiases() {
+        return biases;
+    }
+
+    public double[] getValueGradients() {
+        return valueGradients;
+    }
+
+    public double[] getBiasGradients() {
+        return biasGradients;
+    }
+
+    public IActivation getActivation() {
+        return activation;
+    }
+}
@@ -1,72 +1,84 @@
 package com.example.loss;
 
-public class CrossEntropy implements ILossFunction {
+import com.example.activations.IActivation;
+import com.example.activations.Sigmoid;
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
+import com.example.tensor.Tensor;
+
+public class CrossEntropy implements IFusedOutputLoss {
 
     private static final double EPSILON = 1e-15;
     
     @Override
-    public double computeLoss(double[][] predictions, double[][] targets) {
-
-        if (predictions == null || targets == null) {
-            throw new IllegalArgumentException("Predictions and targets cannot be null");
-        }
-        
-        if (predictions.length == 0 || targets.length == 0) {
-            throw new IllegalArgumentException("Predictions and targets cannot be empty");
-        }
-        
-        if (predictions.length != targets.length || predictions[0].length != targets[0].length) {
-            throw new IllegalArgumentException("Predictions and targets must have the same dimensions");
-        }
+    public double computeLoss(Tensor predictions, Tensor targets) {
 
+        LossValidation.check(predictions, targets);
 
-        int batchSize = predictions.length;
-        int numClasses = predictions[0].length;
+        int batchSize = predictions.getRows();
+        int numClasses = predictions.getCols();
+        IComputeBackend backend = ComputeBackends.get();
         
         double totalLoss = 0.0;
 
+        // -t * log(p) - (1 - t) * log(1 - p), p clamped away from 0 and 1
         for (int i = 0; i < batchSize; i++) {
-            for (int j = 0; j < numClasses; j++) {
-                double pred = Math.max(EPSILON, Math.min(1.0 - EPSILON, predictions[i][j]));
-                double target = targets[i][j];
-                
-                
-                totalLoss += -target * Math.log(pred) - (1.0 - target) * Math.log(1.0 - pred);
-            }
+            totalLoss += backend.sumBinaryCrossEntropy(predictions.getData(), predictions.index(i, 0),
+                targets.getData(), targets.index(i, 0), numClasses, EPSILON);
         }
 
         return totalLoss / (batchSize * numClasses);
     }
 
     @Override
-    public double[][] computeGradient(double[][] predictions, double[][] targets) {
+    public void computeGradientInto(Tensor predictions, Tensor targets, Tensor gradient) {
 
-    if (predictions == null || targets == null) {
-        throw new IllegalArgumentException("Predictions and targets cannot be null");
-    }
-    
-    if (predictions.length == 0 || targets.length == 0) {
-        throw new IllegalArgumentException("Predictions and targets cannot be empty");
+        LossValidation.check(predictions, targets, gradient);
+
+        int batchSize = predictions.getRows();
+        int numClasses = predictions.getCols();
+        double[] p = predictions.getData();
+        double[] t = targets.getData();
+        double[] g = gradient.getData();
+
+        // dL/dp = (p - t) / (p * (1 - p)) / batch, p clamped away from 0 and 1 as in the loss.
+        // The output activation's derivative is applied by the layer; for a sigmoid output it
+        // cancels the denominator, leaving (p - t) / batch as on the fused path
+        for (int i = 0; i < batchSize; i++) {
+            int pRow = predictions.index(i, 0);
+            int tRow = targets.index(i, 0);
+            int gRow = gradient.index(i, 0);
+            for (int j = 0; j < numClasses; j++) {
+                double pj = Math.min(Math.max(p[pRow + j], EPSILON), 1.0 - EPSILON);
+                g[gRow + j] = (pj - t[tRow + j]) / (pj * (1.0 - pj)) / batchSize;
+            }
+        }
     }
-    
-    if (predictions.length != targets.length || predictions[0].length != targets[0].length) {
-        throw new IllegalArgumentException("Predictions and targets must have the same dimensions");
+
+    @Override
+    public boolean canFuseWith(IActivation outputActivation) {
+        return outputActivation instanceof Sigmoid;
     }
 
-    int batchSize = predictions.length;
-    int numClasses = predictions[0].length;
-    
-    double[][] gradient = new double[batchSize][numClasses];
+    // Sigmoid + binary cross-entropy from the logits: the gradient is (sigmoid(z) - target) / batch,
+    // and the loss uses the stable softplus form instead of clamping p
+    @Override
+    public double computeLossAndGradientFromLogits(Tensor logits, Tensor targets, Tensor logitGradient) {
 
-    // For binary cross-entropy with sigmoid activation,
-    // the gradient simplifies to: prediction - target
-    for (int i = 0; i < batchSize; i++) {
-        for (int j = 0; j < numClasses; j++) {
-            gradient[i][j] = (predictions[i][j] - targets[i][j]) / batchSize;
+        LossValidation.check(logits, targets, logitGradient);
+
+        int batchSize = logits.getRows();
+        int numClasses = logits.getCols();
+        IComputeBackend backend = ComputeBackends.get();
+
+        double totalLoss = 0.0;
+        for (int i = 0; i < batchSize; i++) {
+            totalLoss += backend.sigmoidCrossEntropy(logits.getData(), logits.index(i, 0),
+                targets.getData(), targets.index(i, 0), 1.0 / batchSize,
+                logitGradient.getData(), logitGradient.index(i, 0), numClasses);
         }
+
+        return totalLoss / (batchSize * numClasses);
     }
 
-    return gradient;
 }
-
-}
\ No newline at end of file
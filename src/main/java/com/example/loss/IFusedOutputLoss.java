@@ -0,0 +1,17 @@
+package com.example.loss;
+
+import com.example.activations.IActivation;
+import com.example.tensor.Tensor;
+
+// A loss that can be evaluated straight from the output layer's logits (pre-activation),
+// folding the output activation and its derivative into one pass
+public interface IFusedOutputLoss extends ILossFunction {
+
+    // True when this loss knows the closed-form gradient through the given output activation
+    public boolean canFuseWith(IActivation outputActivation);
+
+    // Input: logits [batch_size x output_size], targets True labels [batch_size x output_size]
+    // Output: Loss value (scalar); d(loss)/d(logits) is written into logitGradient
+    public double computeLossAndGradientFromLogits(Tensor logits, Tensor targets, Tensor logitGradient);
+
+}
@@ -1,15 +1,39 @@
 package com.example.loss;
 
+import com.example.tensor.Tensor;
+
 public interface ILossFunction {
 
 
     // Input: predictions Model predictions [batch_size x output_size], targets True labels [batch_size x output_size]
     // Output: Loss value (scalar)
-    public double computeLoss(double[][] predictions, double[][] targets);
+    public double computeLoss(Tensor predictions, Tensor targets);
 
     // Input: predictions Model predictions [batch_size x output_size], targets True labels [batch_size x output_size]
     // Output: Compute the gradient of the loss with respect to predictions
-    public double[][] computeGradient(double[][] predictions, double[][] targets);
+    public default Tensor computeGradient(Tensor predictions, Tensor targets) {
+        LossValidation.check(predictions, targets);
+        Tensor gradient = new Tensor(predictions.getRows(), predictions.getCols());
+        computeGradientInto(predictions, targets, gradient);
+        return gradient;
+    }
+
+    // Workspace variant: writes the gradient into caller-owned dst [batch_size x output_size]
+    public void computeGradientInto(Tensor predictions, Tensor targets, Tensor dst);
+
+    // Adapters for the jagged double[][] layout
+    public default double computeLoss(double[][] predictions, double[][] targets) {
+        return computeLoss(
+            predictions == null ? null : Tensor.fromArray(predictions),
+            targets == null ? null : Tensor.fromArray(targets)
+        );
+    }
 
+    public default double[][] computeGradient(double[][] predictions, double[][] targets) {
+        return computeGradient(
+            predictions == null ? null : Tensor.fromArray(predictions),
+            targets == null ? null : Tensor.fromArray(targets)
+        ).toArray();
+    }
 
 }
@@ -0,0 +1,31 @@
+package com.example.loss;
+
+import com.example.tensor.Tensor;
+
+final class LossValidation {
+
+    private LossValidation() {
+    }
+
+    static void check(Tensor predictions, Tensor targets) {
+        if (predictions == null || targets == null) {
+            throw new IllegalArgumentException("Predictions and targets cannot be null");
+        }
+        
+        if (predictions.getRows() == 0 || targets.getRows() == 0) {
+            throw new IllegalArgumentException("Predictions and targets cannot be empty");
+        }
+        
+        if (!predictions.hasSameShape(targets)) {
+            throw new IllegalArgumentException("Predictions and targets must have the same dimensions");
+        }
+    }
+
+    static void check(Tensor predictions, Tensor targets, Tensor gradient) {
+        check(predictions, targets);
+        
+        if (!predictions.hasSameShape(gradient)) {
+            throw new IllegalArgumentException("Gradient must have the same dimensions as the predictions");
+        }
+    }
+}
@@ -1,74 +1,44 @@
 package com.example.loss;
 
+import com.example.compute.ComputeBackends;
+import com.example.compute.IComputeBackend;
+import com.example.tensor.Tensor;
+
 public class MeanAbsoluteError implements ILossFunction {
 
     @Override
-    public double computeLoss(double[][] predictions, double[][] targets) {
-        if (predictions == null || targets == null) {
-            throw new IllegalArgumentException("Predictions and targets cannot be null");
-        }
+    public double computeLoss(Tensor predictions, Tensor targets) {
+        LossValidation.check(predictions, targets);
         
-        if (predictions.length == 0 || targets.length == 0) {
-            throw new IllegalArgumentException("Predictions and targets cannot be empty");
-        }
-        
-        if (predictions.length != targets.length || predictions[0].length != targets[0].length) {
-            throw new IllegalArgumentException("Predictions and targets must have the same dimensions");
-        }
-        
-        int batchSize = predictions.length;
-        int outputSize = predictions[0].length;
+        int batchSize = predictions.getRows();
+        int outputSize = predictions.getCols();
+        IComputeBackend backend = ComputeBackends.get();
         
         double totalLoss = 0.0;
         
         for (int i = 0; i < batchSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                totalLoss += Math.abs(predictions[i][j] - targets[i][j]);
-            }
+            totalLoss += backend.sumAbsDiff(predictions.getData(), predictions.index(i, 0),
+                targets.getData(), targets.index(i, 0), outputSize);
         }
         
         return totalLoss / (batchSize * outputSize);
     }
 
     @Override
-    public double[][] computeGradient(double[][] predictions, double[][] targets) {
-        if (predictions == null || targets == null) {
-            throw new IllegalArgumentException("Predictions and targets cannot be null");
-        }
+    public void computeGradientInto(Tensor predictions, Tensor targets, Tensor gradient) {
+        LossValidation.check(predictions, targets, gradient);
         
-        if (predictions.length == 0 || targets.length == 0) {
-            throw new IllegalArgumentException("Predictions and targets cannot be empty");
-        }
-        
-        if (predictions.length != targets.length || predictions[0].length != targets[0].length) {
-            throw new IllegalArgumentException("Predictions and targets must have the same dimensions");
-        }
-        
-        int batchSize = predictions.length;
-        int outputSize = predictions[0].length;
-        
-        double[][] gradient = new double[batchSize][outputSize];
+        int batchSize = predictions.getRows();
+        int outputSize = predictions.getCols();
+        IComputeBackend backend = ComputeBackends.get();
         
         // Gradient of MAE: sign(prediction - target) / (batch_size * output_size)
+        // (0 where prediction == target, where the gradient is undefined)
         double normalizationFactor = 1.0 / (batchSize * outputSize);
         
         for (int i = 0; i < batchSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                double diff = predictions[i][j] - targets[i][j];
-                
-                // Compute sign of the difference
-                if (diff > 0) {
-                    gradient[i][j] = normalizationFactor;
-                } else if (diff < 0) {
-                    gradient[i][j] = -normalizationFactor;
-                } else {
-                    // When diff == 0, gradient is technically undefined
-                    // Common practice is to set it to 0
-                    gradient[i][j] = 0.0;
-                }
-            }
+            backend.scaledSignDiff(normalizationFactor, predictions.getData(), predictions.index(i, 0),
+                targets.getData(), targets.index(i, 0), gradient.getData(), gradient.index(i, 0), outputSize);
         }
-        
-        return gradient;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,268 @@
+package com.example.serving;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.core.NeuralNetworkEngine;
+import com.example.tensor.Tensor;
+import com.example.tensor.TensorBuffer;
+
+// Coalesces single-row scoring requests into micro-batches. One dispatcher thread waits for the
+// first pending row, then keeps collecting until maxBatchSize rows are queued or maxWait has
+// passed since that first row, scores the batch as one matrix with engine.predictInto and
+// completes every request's future with its own output row.
+// Trades up to maxWait of queueing delay for GEMM-sized batches instead of per-row calls.
+// Admission is bounded by queueCapacity: when the queue is full a request is shed at once
+// (RequestRejectedException, as are requests to a closed batcher) instead of growing the backlog.
+// A request submitted with a timeout completes with TimeoutException at its deadline, and the
+// dispatcher drops requests that are already done (timed out or cancelled) before scoring, so
+// expired work never runs
+public class MicroBatcher implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUED_BATCHES = 16;
+
+    private static final class Request {
+        final double[] features;
+        final CompletableFuture<double[]> result;
+
+        Request(double[] features) {
+            this.features = features;
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    private final NeuralNetworkEngine engine;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int queueCapacity;
+    private final int inputSize;
+    private final int outputSize;
+
+    private final BlockingQueue<Request> queue;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final AtomicLong requestCount;
+    private final AtomicLong batchCount;
+    private final AtomicLong rejectedCount;
+    private final AtomicLong expiredCount;
+
+    // Admits up to DEFAULT_QUEUED_BATCHES full batches
+    public MicroBatcher(NeuralNetworkEngine engine, int maxBatchSize, Duration maxWait) {
+        this(engine, maxBatchSize, maxWait, (int) Math.min((long) Math.max(maxBatchSize, 1) * DEFAULT_QUEUED_BATCHES, Integer.MAX_VALUE));
+    }
+
+    public MicroBatcher(NeuralNetworkEngine engine, int maxBatchSize, Duration maxWait, int queueCapacity) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (engine.getLayerCount() == 0) {
+            throw new IllegalStateException("Network has no layers");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Max wait cannot be null or negative");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+
+        this.engine = engine;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.inputSize = engine.getLayer(0).getInputSize();
+        this.outputSize = engine.getLayer(engine.getLayerCount() - 1).getOutputSize();
+        this.queueCapacity = queueCapacity;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.requestCount = new AtomicLong();
+        this.batchCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+        this.expiredCount = new AtomicLong();
+
+        this.dispatcher = new Thread(this::dispatch, "tinynn-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    // Queues one row for scoring; the future completes with the row's network output
+    public CompletableFuture<double[]> submit(double[] features) {
+        return submit(features, null);
+    }
+
+    // Same, but the future fails with TimeoutException if the row is not scored within timeout
+    // (null for no deadline). The caller may also cancel the future to drop a queued row
+    public CompletableFuture<double[]> submit(double[] features, Duration timeout) {
+        if (features == null || features.length != inputSize) {
+            throw new IllegalArgumentException("Input size must be " + inputSize);
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        Request request = new Request(features.clone());
+        if (closed) {
+            request.result.completeExceptionally(new RequestRejectedException("Batcher is closed"));
+            return request.result;
+        }
+        if (!queue.offer(request)) {
+            rejectedCount.incrementAndGet();
+            request.result.completeExceptionally(new RequestRejectedException("Scoring queue is full"));
+            return request.result;
+        }
+        if (timeout != null) {
+            request.result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        // close() may have drained the queue between the check and the add
+        if (closed && queue.remove(request)) {
+            request.result.completeExceptionally(new RequestRejectedException("Batcher is closed"));
+        }
+        return request.result;
+    }
+
+    private void dispatch() {
+        TensorBuffer inputs = new TensorBuffer(maxBatchSize, inputSize);
+        TensorBuffer outputs = new TensorBuffer(maxBatchSize, outputSize);
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+
+        while (!closed) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (!batch.isEmpty()) {
+                score(batch, inputs, outputs);
+                batch.clear();
+            }
+        }
+        failPending(batch);
+    }
+
+    // Blocks for the first request, then gathers more until the batch is full or the wait is over
+    private void collect(List<Request> batch) throws InterruptedException {
+        Request first = queue.take();
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void score(List<Request> batch, TensorBuffer inputBuffer, TensorBuffer outputBuffer) {
+        // Timed out or cancelled while queued: not worth scoring
+        int before = batch.size();
+        batch.removeIf(request -> request.result.isDone());
+        expiredCount.addAndGet(before - batch.size());
+        int rows = batch.size();
+        if (rows == 0) {
+            return;
+        }
+        Tensor inputs = inputBuffer.rows(rows);
+        Tensor outputs = outputBuffer.rows(rows);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(batch.get(i).features, 0, inputs.getData(), inputs.index(i, 0), inputSize);
+        }
+
+        try {
+            engine.predictInto(inputs, outputs);
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        requestCount.addAndGet(rows);
+        batchCount.incrementAndGet();
+        for (int i = 0; i < rows; i++) {
+            double[] row = new double[outputSize];
+            System.arraycopy(outputs.getData(), outputs.index(i, 0), row, 0, outputSize);
+            batch.get(i).result.complete(row);
+        }
+    }
+
+    private void failPending(List<Request> batch) {
+        queue.drainTo(batch);
+        for (Request request : batch) {
+            request.result.completeExceptionally(new RequestRejectedException("Batcher is closed"));
+        }
+        batch.clear();
+    }
+
+    // Stops the dispatcher; requests that were not scored yet complete exceptionally
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request> remaining = new ArrayList<>();
+        failPending(remaining);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Duration getMaxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    // Requests waiting for a batch right now
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    // Rows scored so far
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    // Batches scored so far; getRequestCount() / getBatchCount() is the mean batch size
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    // Requests shed because the queue was full
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Requests dropped unscored because they timed out or were cancelled while queued
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.serving;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executors for the request path (parsing, admission, writing responses), never for the compute
+// itself. On Java 21+ every request gets its own virtual thread, so a burst of slow clients
+// cannot exhaust platform threads. On older runtimes it falls back to a bounded pool: at most
+// MAX_THREADS tasks run and MAX_QUEUED wait; past that a task runs on the pool's shedding thread,
+// where isShedding() is true so ScoringServer answers 503 without reading the request
+public final class RequestExecutors {
+
+    public static final int MAX_THREADS = 64;
+    public static final int MAX_QUEUED = 1024;
+
+    private static final String VIRTUAL_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final ThreadLocal<Boolean> SHEDDING = ThreadLocal.withInitial(() -> false);
+
+    private RequestExecutors() {
+    }
+
+    public static ExecutorService newRequestExecutor() {
+        ExecutorService virtual = newVirtualExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        return newBoundedExecutor();
+    }
+
+    public static boolean isVirtualThreadsAvailable() {
+        return virtualFactory() != null;
+    }
+
+    // True on the shedding thread of a bounded request executor: the pool was full when this task
+    // was submitted, and it should be answered as cheaply as possible
+    public static boolean isShedding() {
+        return SHEDDING.get();
+    }
+
+    private static ExecutorService newBoundedExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Shed tasks only write a short response (flushed at once, though the JDK server then
+        // drains the unread request body); if even they pile up, the task is rejected and the
+        // HTTP server closes the connection
+        ThreadPoolExecutor shedder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED), task -> {
+                Thread thread = new Thread(() -> {
+                    SHEDDING.set(true);
+                    task.run();
+                }, "tinynn-request-shed");
+                thread.setDaemon(true);
+                return thread;
+            });
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED), task -> {
+                Thread thread = new Thread(task, "tinynn-request-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, (task, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Request executor is shut down");
+                }
+                shedder.execute(task);
+            }) {
+            @Override
+            protected void terminated() {
+                shedder.shutdownNow();
+            }
+        };
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Looked up reflectively so the library still builds and runs on a Java 17 target
+    private static ExecutorService newVirtualExecutor() {
+        Method factory = virtualFactory();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Method virtualFactory() {
+        try {
+            return Executors.class.getMethod(VIRTUAL_FACTORY_METHOD);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
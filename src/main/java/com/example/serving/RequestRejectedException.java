@@ -0,0 +1,14 @@
+package com.example.serving;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// A request the MicroBatcher turned away without scoring it: the admission queue was full or the
+// batcher is closed. Retrying later may succeed, so ScoringServer answers it with 503
+public class RequestRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.serving;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Minimal HTTP front end for a MicroBatcher on the JDK's built-in server.
+// POST /predict with one CSV row of features as the body (e.g. "0.5,1.2,-3") answers with the
+// network output as one CSV row. Handlers only parse and submit; the response is written when
+// the row's batch completes, so slow batches never hold an HTTP thread.
+// The request path runs on RequestExecutors (a virtual thread per request on Java 21+) while the
+// scoring stays on the batcher's dispatcher and the engine's inference pool. Overload is answered
+// with 503 when the request executor or the batcher's admission queue is full, and 504 when a row
+// misses the request timeout.
+// Bodies are read up to MAX_FIELD_BYTES per feature and refused with 413 beyond that, before
+// anything is parsed or admitted
+public class ScoringServer {
+
+    public static final String PREDICT_PATH = "/predict";
+
+    // Room for any double Java prints (at most 24 characters) plus its comma and some whitespace
+    public static final int MAX_FIELD_BYTES = 32;
+
+    private final MicroBatcher batcher;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private volatile Duration requestTimeout;
+
+    // port 0 binds any free port, see getPort
+    public ScoringServer(MicroBatcher batcher, int port) throws IOException {
+        this(batcher, port, RequestExecutors.newRequestExecutor(), true);
+    }
+
+    // Runs the request path on the caller's executor, which stop() leaves running
+    public ScoringServer(MicroBatcher batcher, int port, ExecutorService executor) throws IOException {
+        this(batcher, port, executor, false);
+    }
+
+    private ScoringServer(MicroBatcher batcher, int port, ExecutorService executor, boolean ownsExecutor) throws IOException {
+        if (batcher == null) {
+            throw new IllegalArgumentException("Batcher cannot be null");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+
+        this.batcher = batcher;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(PREDICT_PATH, this::handlePredict);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stops accepting connections; the batcher is left running and is closed by its owner
+    public void stop() {
+        server.stop(0);
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Deadline for each row from admission to its scored output, null (default) for none
+    public void setRequestTimeout(Duration requestTimeout) {
+        if (requestTimeout != null && (requestTimeout.isNegative() || requestTimeout.isZero())) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public MicroBatcher getBatcher() {
+        return batcher;
+    }
+
+    private void handlePredict(HttpExchange exchange) throws IOException {
+        if (RequestExecutors.isShedding()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "Server is overloaded");
+            return;
+        }
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, "Only POST is supported");
+            return;
+        }
+
+        int maxBodyBytes = batcher.getInputSize() * MAX_FIELD_BYTES;
+        double[] features;
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(maxBodyBytes + 1);
+            if (bytes.length > maxBodyBytes) {
+                respond(exchange, 413, "Request body exceeds " + maxBodyBytes + " bytes");
+                return;
+            }
+            features = parseRow(new String(bytes, StandardCharsets.UTF_8));
+            if (features.length != batcher.getInputSize()) {
+                throw new IllegalArgumentException(
+                    "Expected " + batcher.getInputSize() + " features, got " + features.length
+                );
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, e.getMessage());
+            return;
+        }
+
+        batcher.submit(features, requestTimeout).whenCompleteAsync((output, error) -> {
+            try {
+                if (error == null) {
+                    respond(exchange, 200, formatRow(output));
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    int status = statusOf(cause);
+                    if (status == 503) {
+                        exchange.getResponseHeaders().set("Retry-After", "1");
+                    }
+                    respond(exchange, status, cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+                }
+            } catch (IOException e) {
+                // The client went away; nothing left to tell it
+                exchange.close();
+            }
+        }, executor);
+    }
+
+    // Shed or shutting down: retry later; missed deadline: timeout; anything else, including a
+    // failure while scoring, is a server error
+    private static int statusOf(Throwable cause) {
+        if (cause instanceof RequestRejectedException) {
+            return 503;
+        }
+        if (cause instanceof TimeoutException) {
+            return 504;
+        }
+        return 500;
+    }
+
+    static double[] parseRow(String body) {
+        String row = body.trim();
+        if (row.isEmpty()) {
+            throw new IllegalArgumentException("Request body must be one CSV row of features");
+        }
+        String[] fields = row.split(",");
+        double[] values = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                values[i] = Double.parseDouble(fields[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number at column " + i + ": '" + fields[i].trim() + "'");
+            }
+        }
+        return values;
+    }
+
+    static String formatRow(double[] values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append(values[i]);
+        }
+        return row.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.tensor;
+
+public class FloatTensor {
+
+    // Single-precision counterpart of Tensor, used for parameter storage:
+    // element (row, col) lives at data[offset + row * stride + col]
+    private final float[] data;
+    private final int offset;
+    private final int rows;
+    private final int cols;
+    private final int stride;
+
+    public FloatTensor(int rows, int cols) {
+        this(new float[checkedSize(rows, cols)], 0, rows, cols, cols);
+    }
+
+    public FloatTensor(float[] data, int rows, int cols) {
+        this(data, 0, rows, cols, cols);
+    }
+
+    public FloatTensor(float[] data, int offset, int rows, int cols, int stride) {
+        if (data == null) {
+            throw new IllegalArgumentException("Tensor data cannot be null");
+        }
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Tensor shape cannot be negative: [" + rows + " x " + cols + "]");
+        }
+        if (stride < cols) {
+            throw new IllegalArgumentException("Row stride (" + stride + ") cannot be smaller than columns (" + cols + ")");
+        }
+        if (offset < 0 || (rows > 0 && (long) offset + (long) (rows - 1) * stride + cols > data.length)) {
+            throw new IllegalArgumentException("Tensor view [" + rows + " x " + cols + "] exceeds backing array of length " + data.length);
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = stride;
+    }
+
+    private static int checkedSize(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Tensor shape cannot be negative: [" + rows + " x " + cols + "]");
+        }
+        long size = (long) rows * cols;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tensor [" + rows + " x " + cols + "] is too large for a single array");
+        }
+        return (int) size;
+    }
+
+    // Narrowing copy of a double tensor
+    public static FloatTensor fromTensor(Tensor source) {
+        FloatTensor result = new FloatTensor(source.getRows(), source.getCols());
+        double[] src = source.getData();
+        for (int i = 0; i < source.getRows(); i++) {
+            int srcRow = source.index(i, 0);
+            int dstRow = i * result.cols;
+            for (int j = 0; j < result.cols; j++) {
+                result.data[dstRow + j] = (float) src[srcRow + j];
+            }
+        }
+        return result;
+    }
+
+    // Widening copy into a double tensor
+    public Tensor toTensor() {
+        Tensor result = new Tensor(rows, cols);
+        double[] dst = result.getData();
+        for (int i = 0; i < rows; i++) {
+            int srcRow = offset + i * stride;
+            for (int j = 0; j < cols; j++) {
+                dst[i * cols + j] = data[srcRow + j];
+            }
+        }
+        return result;
+    }
+
+    public int index(int row, int col) {
+        return offset + row * stride + col;
+    }
+
+    public float get(int row, int col) {
+        return data[offset + row * stride + col];
+    }
+
+    public void set(int row, int col, float value) {
+        data[offset + row * stride + col] = value;
+    }
+
+    // Contiguous transposed copy [cols x rows]
+    public FloatTensor transpose() {
+        FloatTensor result = new FloatTensor(cols, rows);
+        for (int i = 0; i < rows; i++) {
+            int rowStart = offset + i * stride;
+            for (int j = 0; j < cols; j++) {
+                result.data[j * rows + i] = data[rowStart + j];
+            }
+        }
+        return result;
+    }
+
+    public float[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public String shapeString() {
+        return "[" + rows + " x " + cols + "]";
+    }
+
+    @Override
+    public String toString() {
+        return "FloatTensor" + shapeString();
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.tensor;
+
+public final class Gemm {
+
+    // Cache blocking: a KC x 4 panel of B and a 4 x KC panel of A stay in L1,
+    // an MC x KC block of A stays in L2 while it is swept across NC columns of B
+    static final int MC = 64;
+    static final int KC = 256;
+    static final int NC = 256;
+
+    // Register blocking: each micro-tile keeps a 4 x 4 block of C in registers
+    static final int MR = 4;
+    static final int NR = 4;
+
+    private Gemm() {
+    }
+
+    // C = alpha * op(A) * op(B) + beta * C, op(X) = X or X^T
+    // op(A) is [m x k], op(B) is [k x n], C is [m x n]; C must not share storage with A or B
+    public static void multiply(double alpha, Tensor a, boolean transA, Tensor b, boolean transB, double beta, Tensor c) {
+        int m = transA ? a.getCols() : a.getRows();
+        int k = transA ? a.getRows() : a.getCols();
+        int kb = transB ? b.getCols() : b.getRows();
+        int n = transB ? b.getRows() : b.getCols();
+        if (k != kb || c.getRows() != m || c.getCols() != n) {
+            throw new IllegalArgumentException(
+                "GEMM shape mismatch: op(A) [" + m + " x " + k + "], op(B) [" + kb + " x " + n + "], C " + c.shapeString()
+            );
+        }
+
+        scale(c, beta);
+        if (alpha == 0.0 || m == 0 || n == 0 || k == 0) {
+            return;
+        }
+
+        // Element (i, p) of op(A) lives at aOff + i * aRs + p * aCs, same scheme for op(B)
+        int aRs = transA ? 1 : a.getStride();
+        int aCs = transA ? a.getStride() : 1;
+        int bRs = transB ? 1 : b.getStride();
+        int bCs = transB ? b.getStride() : 1;
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    block(alpha,
+                        a.getData(), a.getOffset(), aRs, aCs,
+                        b.getData(), b.getOffset(), bRs, bCs,
+                        c.getData(), c.getOffset(), c.getStride(),
+                        ic, mc, jc, nc, pc, kc);
+                }
+            }
+        }
+    }
+
+    // Mixed precision: B holds float parameters, every product and sum is carried out in double
+    public static void multiply(double alpha, Tensor a, boolean transA, FloatTensor b, boolean transB, double beta, Tensor c) {
+        int m = transA ? a.getCols() : a.getRows();
+        int k = transA ? a.getRows() : a.getCols();
+        int kb = transB ? b.getCols() : b.getRows();
+        int n = transB ? b.getRows() : b.getCols();
+        if (k != kb || c.getRows() != m || c.getCols() != n) {
+            throw new IllegalArgumentException(
+                "GEMM shape mismatch: op(A) [" + m + " x " + k + "], op(B) [" + kb + " x " + n + "], C " + c.shapeString()
+            );
+        }
+
+        scale(c, beta);
+        if (alpha == 0.0 || m == 0 || n == 0 || k == 0) {
+            return;
+        }
+
+        int aRs = transA ? 1 : a.getStride();
+        int aCs = transA ? a.getStride() : 1;
+        int bRs = transB ? 1 : b.getStride();
+        int bCs = transB ? b.getStride() : 1;
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    block(alpha,
+                        a.getData(), a.getOffset(), aRs, aCs,
+                        b.getData(), b.getOffset(), bRs, bCs,
+                        c.getData(), c.getOffset(), c.getStride(),
+                        ic, mc, jc, nc, pc, kc);
+                }
+            }
+        }
+    }
+
+    public static void scale(Tensor c, double beta) {
+        if (beta == 1.0) {
+            return;
+        }
+        if (beta == 0.0) {
+            c.fill(0.0);
+            return;
+        }
+        double[] cd = c.getData();
+        for (int i = 0; i < c.getRows(); i++) {
+            int rowStart = c.index(i, 0);
+            for (int j = 0; j < c.getCols(); j++) {
+                cd[rowStart + j] *= beta;
+            }
+        }
+    }
+
+    private static void block(double alpha,
+                              double[] ad, int aOff, int aRs, int aCs,
+                              double[] bd, int bOff, int bRs, int bCs,
+                              double[] cd, int cOff, int cRs,
+                              int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int jEnd = j0 + nc;
+        int iFull = i0 + (mc / MR) * MR;
+        int jFull = j0 + (nc / NR) * NR;
+
+        for (int i = i0; i < iFull; i += MR) {
+            for (int j = j0; j < jFull; j += NR) {
+                microKernel(alpha, ad, aOff + i * aRs + p0 * aCs, aRs, aCs,
+                    bd, bOff + p0 * bRs + j * bCs, bRs, bCs,
+                    cd, cOff + i * cRs + j, cRs, kc);
+            }
+            edge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, bCs, cd, cOff, cRs, i, i + MR, jFull, jEnd, p0, kc);
+        }
+        edge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, bCs, cd, cOff, cRs, iFull, iEnd, j0, jEnd, p0, kc);
+    }
+
+    // 4 x 4 tile of C accumulated in registers over kc steps
+    private static void microKernel(double alpha,
+                                    double[] ad, int a, int aRs, int aCs,
+                                    double[] bd, int b, int bRs, int bCs,
+                                    double[] cd, int c, int cRs, int kc) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        for (int p = 0; p < kc; p++) {
+            double a0 = ad[a];
+            double a1 = ad[a + aRs];
+            double a2 = ad[a + 2 * aRs];
+            double a3 = ad[a + 3 * aRs];
+            double b0 = bd[b];
+            double b1 = bd[b + bCs];
+            double b2 = bd[b + 2 * bCs];
+            double b3 = bd[b + 3 * bCs];
+
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+
+            a += aCs;
+            b += bRs;
+        }
+
+        cd[c] += alpha * c00; cd[c + 1] += alpha * c01; cd[c + 2] += alpha * c02; cd[c + 3] += alpha * c03;
+        c += cRs;
+        cd[c] += alpha * c10; cd[c + 1] += alpha * c11; cd[c + 2] += alpha * c12; cd[c + 3] += alpha * c13;
+        c += cRs;
+        cd[c] += alpha * c20; cd[c + 1] += alpha * c21; cd[c + 2] += alpha * c22; cd[c + 3] += alpha * c23;
+        c += cRs;
+        cd[c] += alpha * c30; cd[c + 1] += alpha * c31; cd[c + 2] += alpha * c32; cd[c + 3] += alpha * c33;
+    }
+
+    // Leftover rows/columns that do not fill a whole micro-tile
+    private static void edge(double alpha,
+                             double[] ad, int aOff, int aRs, int aCs,
+                             double[] bd, int bOff, int bRs, int bCs,
+                             double[] cd, int cOff, int cRs,
+                             int iStart, int iEnd, int jStart, int jEnd, int p0, int kc) {
+        for (int i = iStart; i < iEnd; i++) {
+            for (int j = jStart; j < jEnd; j++) {
+                int a = aOff + i * aRs + p0 * aCs;
+                int b = bOff + p0 * bRs + j * bCs;
+                double sum = 0;
+                for (int p = 0; p < kc; p++) {
+                    sum += ad[a] * bd[b];
+                    a += aCs;
+                    b += bRs;
+                }
+                cd[cOff + i * cRs + j] += alpha * sum;
+            }
+        }
+    }
+
+    private static void block(double alpha,
+                              double[] ad, int aOff, int aRs, int aCs,
+                              float[] bd, int bOff, int bRs, int bCs,
+                              double[] cd, int cOff, int cRs,
+                              int i0, int mc, int j0, int nc, int p0, int kc) {
+        int iEnd = i0 + mc;
+        int jEnd = j0 + nc;
+        int iFull = i0 + (mc / MR) * MR;
+        int jFull = j0 + (nc / NR) * NR;
+
+        for (int i = i0; i < iFull; i += MR) {
+            for (int j = j0; j < jFull; j += NR) {
+                microKernel(alpha, ad, aOff + i * aRs + p0 * aCs, aRs, aCs,
+                    bd, bOff + p0 * bRs + j * bCs, bRs, bCs,
+                    cd, cOff + i * cRs + j, cRs, kc);
+            }
+            edge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, bCs, cd, cOff, cRs, i, i + MR, jFull, jEnd, p0, kc);
+        }
+        edge(alpha, ad, aOff, aRs, aCs, bd, bOff, bRs, bCs, cd, cOff, cRs, iFull, iEnd, j0, jEnd, p0, kc);
+    }
+
+    // Float B values are widened once per load, the 4 x 4 accumulators stay double
+    private static void microKernel(double alpha,
+                                    double[] ad, int a, int aRs, int aCs,
+                                    float[] bd, int b, int bRs, int bCs,
+                                    double[] cd, int c, int cRs, int kc) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        for (int p = 0; p < kc; p++) {
+            double a0 = ad[a];
+            double a1 = ad[a + aRs];
+            double a2 = ad[a + 2 * aRs];
+            double a3 = ad[a + 3 * aRs];
+            double b0 = bd[b];
+            double b1 = bd[b + bCs];
+            double b2 = bd[b + 2 * bCs];
+            double b3 = bd[b + 3 * bCs];
+
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+
+            a += aCs;
+            b += bRs;
+        }
+
+        cd[c] += alpha * c00; cd[c + 1] += alpha * c01; cd[c + 2] += alpha * c02; cd[c + 3] += alpha * c03;
+        c += cRs;
+        cd[c] += alpha * c10; cd[c + 1] += alpha * c11; cd[c + 2] += alpha * c12; cd[c + 3] += alpha * c13;
+        c += cRs;
+        cd[c] += alpha * c20; cd[c + 1] += alpha * c21; cd[c + 2] += alpha * c22; cd[c + 3] += alpha * c23;
+        c += cRs;
+        cd[c] += alpha * c30; cd[c + 1] += alpha * c31; cd[c + 2] += alpha * c32; cd[c + 3] += alpha * c33;
+    }
+
+    private static void edge(double alpha,
+                             double[] ad, int aOff, int aRs, int aCs,
+                             float[] bd, int bOff, int bRs, int bCs,
+                             double[] cd, int cOff, int cRs,
+                             int iStart, int iEnd, int jStart, int jEnd, int p0, int kc) {
+        for (int i = iStart; i < iEnd; i++) {
+            for (int j = jStart; j < jEnd; j++) {
+                int a = aOff + i * aRs + p0 * aCs;
+                int b = bOff + p0 * bRs + j * bCs;
+                double sum = 0;
+                for (int p = 0; p < kc; p++) {
+                    sum += ad[a] * bd[b];
+                    a += aCs;
+                    b += bRs;
+                }
+                cd[cOff + i * cRs + j] += alpha * sum;
+            }
+        }
+    }
+}
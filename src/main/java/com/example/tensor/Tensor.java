@@ -0,0 +1,196 @@
+package com.example.tensor;
+
+public class Tensor {
+
+    // Row-major 2D view over a flat backing array
+    // element (row, col) lives at data[offset + row * stride + col]
+    // row ---> batch size, col ---> number of neurons/features
+    private final double[] data;
+    private final int offset;
+    private final int rows;
+    private final int cols;
+    private final int stride;
+
+    public Tensor(int rows, int cols) {
+        this(new double[checkedSize(rows, cols)], 0, rows, cols, cols);
+    }
+
+    public Tensor(double[] data, int rows, int cols) {
+        this(data, 0, rows, cols, cols);
+    }
+
+    public Tensor(double[] data, int offset, int rows, int cols, int stride) {
+        if (data == null) {
+            throw new IllegalArgumentException("Tensor data cannot be null");
+        }
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Tensor shape cannot be negative: [" + rows + " x " + cols + "]");
+        }
+        if (stride < cols) {
+            throw new IllegalArgumentException("Row stride (" + stride + ") cannot be smaller than columns (" + cols + ")");
+        }
+        if (offset < 0 || (rows > 0 && (long) offset + (long) (rows - 1) * stride + cols > data.length)) {
+            throw new IllegalArgumentException("Tensor view [" + rows + " x " + cols + "] exceeds backing array of length " + data.length);
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = stride;
+    }
+
+    private static int checkedSize(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Tensor shape cannot be negative: [" + rows + " x " + cols + "]");
+        }
+        long size = (long) rows * cols;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tensor [" + rows + " x " + cols + "] is too large for a single array");
+        }
+        return (int) size;
+    }
+
+    // Adapter from the jagged layout: copies every row into one contiguous block
+    public static Tensor fromArray(double[][] array) {
+        if (array == null) {
+            throw new IllegalArgumentException("Array cannot be null");
+        }
+        if (array.length == 0) {
+            return new Tensor(0, 0);
+        }
+
+        int rows = array.length;
+        int cols = array[0].length;
+        Tensor tensor = new Tensor(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            if (array[i].length != cols) {
+                throw new IllegalArgumentException(
+                    "Row " + i + " has " + array[i].length + " columns, expected " + cols
+                );
+            }
+            System.arraycopy(array[i], 0, tensor.data, i * cols, cols);
+        }
+        return tensor;
+    }
+
+    // Adapter back to the jagged layout (always a copy)
+    public double[][] toArray() {
+        double[][] result = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, result[i], 0, cols);
+        }
+        return result;
+    }
+
+    public int index(int row, int col) {
+        return offset + row * stride + col;
+    }
+
+    public double get(int row, int col) {
+        return data[offset + row * stride + col];
+    }
+
+    public void set(int row, int col, double value) {
+        data[offset + row * stride + col] = value;
+    }
+
+    // View of rows [start, start + count) sharing the same backing array
+    public Tensor rowSlice(int start, int count) {
+        if (start < 0 || count < 0 || start + count > rows) {
+            throw new IndexOutOfBoundsException(
+                "Row slice [" + start + ", " + (start + count) + ") is out of bounds for " + rows + " rows"
+            );
+        }
+        return new Tensor(data, offset + start * stride, count, cols, stride);
+    }
+
+    public Tensor row(int row) {
+        return rowSlice(row, 1);
+    }
+
+    public void copyRowTo(int row, double[] dst, int dstOffset) {
+        System.arraycopy(data, offset + row * stride, dst, dstOffset, cols);
+    }
+
+    public void copyRowFrom(int row, double[] src, int srcOffset) {
+        System.arraycopy(src, srcOffset, data, offset + row * stride, cols);
+    }
+
+    public void copyFrom(Tensor src) {
+        if (src.rows != rows || src.cols != cols) {
+            throw new IllegalArgumentException(
+                "Cannot copy tensor " + src.shapeString() + " into " + shapeString()
+            );
+        }
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(src.data, src.offset + i * src.stride, data, offset + i * stride, cols);
+        }
+    }
+
+    // Contiguous deep copy
+    public Tensor copy() {
+        Tensor result = new Tensor(rows, cols);
+        result.copyFrom(this);
+        return result;
+    }
+
+    // Contiguous transposed copy [cols x rows]
+    public Tensor transpose() {
+        Tensor result = new Tensor(cols, rows);
+        for (int i = 0; i < rows; i++) {
+            int rowStart = offset + i * stride;
+            for (int j = 0; j < cols; j++) {
+                result.data[j * rows + i] = data[rowStart + j];
+            }
+        }
+        return result;
+    }
+
+    public void fill(double value) {
+        for (int i = 0; i < rows; i++) {
+            int rowStart = offset + i * stride;
+            java.util.Arrays.fill(data, rowStart, rowStart + cols, value);
+        }
+    }
+
+    public boolean isContiguous() {
+        return stride == cols || rows <= 1;
+    }
+
+    public boolean hasSameShape(Tensor other) {
+        return other != null && other.rows == rows && other.cols == cols;
+    }
+
+    public double[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public int[] getShape() {
+        return new int[] { rows, cols };
+    }
+
+    public String shapeString() {
+        return "[" + rows + " x " + cols + "]";
+    }
+
+    @Override
+    public String toString() {
+        return "Tensor" + shapeString();
+    }
+}
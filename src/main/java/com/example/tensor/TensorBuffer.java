@@ -0,0 +1,50 @@
+package com.example.tensor;
+
+public class TensorBuffer {
+
+    // Reusable [capacity x cols] workspace handing out views of its first n rows.
+    // Storage grows only when a larger batch shows up, and the views are cached per
+    // row count, so once every batch size has been seen rows(n) never allocates
+    private final int cols;
+    private Tensor storage;
+    private Tensor[] views;
+
+    public TensorBuffer(int cols) {
+        if (cols < 0) {
+            throw new IllegalArgumentException("Columns cannot be negative");
+        }
+        this.cols = cols;
+        this.storage = new Tensor(0, cols);
+        this.views = new Tensor[1];
+    }
+
+    public TensorBuffer(int maxRows, int cols) {
+        this(cols);
+        reserve(maxRows);
+    }
+
+    public void reserve(int maxRows) {
+        if (maxRows > storage.getRows()) {
+            storage = new Tensor(maxRows, cols);
+            views = new Tensor[maxRows + 1];
+        }
+    }
+
+    public Tensor rows(int n) {
+        reserve(n);
+        Tensor view = views[n];
+        if (view == null) {
+            view = storage.rowSlice(0, n);
+            views[n] = view;
+        }
+        return view;
+    }
+
+    public int getCapacity() {
+        return storage.getRows();
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
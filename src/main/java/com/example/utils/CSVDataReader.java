@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.example.tensor.Tensor;
+
 
 public class CSVDataReader {
 private String filePath;
@@ -13,6 +15,7 @@ private String filePath;
     private String delimiter;
     private List<String[]> data;
     private String[] headers;
+    private int threads;
 
     public CSVDataReader(String filePath) {
         this(filePath, true, ",");
@@ -30,6 +33,7 @@ private String filePath;
         this.hasHeader = hasHeader;
         this.delimiter = delimiter;
         this.data = new ArrayList<>();
+        this.threads = 1;
     }
 
     public void loadData() throws IOException {
@@ -65,6 +69,22 @@ private String filePath;
         }
     }
 
+    // Numeric files only: parses straight into a [rows x columns] tensor with FastCSVParser instead
+    // of keeping every row as strings, on getThreads() threads. Sets the headers; the row accessors stay empty.
+    // Delimiters FastCSVParser cannot scan for (longer ones, or whitespace such as tab) go through loadData
+    public Tensor loadTensor() throws IOException {
+        if (delimiter.length() != 1 || !FastCSVParser.supportsDelimiter(delimiter.charAt(0))) {
+            loadData();
+            return Tensor.fromArray(getDataAsDoubleArray());
+        }
+        data.clear();
+        FastCSVParser parser = new FastCSVParser(filePath, hasHeader, delimiter.charAt(0));
+        parser.setThreads(threads);
+        parser.parse();
+        headers = parser.getHeaders();
+        return parser.toTensor();
+    }
+
     public String[][] getDataAsStringArray() {
         if (data.isEmpty()) {
             return new String[0][0];
@@ -154,6 +174,18 @@ private String filePath;
         return -1;
     }
 
+    // Threads used by loadTensor, each parsing its own line-aligned chunk of the file
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
     public String[] getHeaders() {
         return headers;
     }
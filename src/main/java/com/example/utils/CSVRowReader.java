@@ -0,0 +1,160 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads a numeric CSV file one row at a time with FastCSVParser's byte-level decoding, holding only
+// one buffer of the file in memory, for tables too large to load. Same rules and error messages as
+// FastCSVParser; the header and the column count are read when the reader is opened
+public class CSVRowReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final String filePath;
+    private final FileChannel channel;
+    private final FastCSVParser parser;
+    private final String[] headers;
+    private final int cols;
+
+    private byte[] bytes;
+    private int position;       // next byte to parse
+    private int limit;          // end of the last complete line in the buffer
+    private int filled;         // bytes in the buffer
+    private long readPosition;  // file offset of the next read
+    private boolean endOfFile;
+    private long dataStart;     // file offset of the first data row
+    private long rowsRead;
+
+    public CSVRowReader(String filePath) throws IOException {
+        this(filePath, true, ',');
+    }
+
+    public CSVRowReader(String filePath, boolean hasHeader) throws IOException {
+        this(filePath, hasHeader, ',');
+    }
+
+    public CSVRowReader(String filePath, boolean hasHeader, char delimiter) throws IOException {
+        this.filePath = filePath;
+        this.parser = new FastCSVParser(filePath, hasHeader, delimiter);
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        this.bytes = new byte[BUFFER_SIZE];
+        try {
+            // Up to the first data row, which stays in the buffer for the first readRow
+            while (true) {
+                if (!skipBlanks()) {
+                    throw new IOException("No data found in CSV file");
+                }
+                int end = parser.readFirstLine(bytes, position, limit);
+                if (parser.getColumnCount() > 0) {
+                    break;
+                }
+                position = end + 1;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.headers = parser.getHeaders();
+        this.cols = parser.getColumnCount();
+        this.dataStart = readPosition - filled + position;
+    }
+
+    // Fills row[0, getColumnCount()) with the next row; false at the end of the file
+    public boolean readRow(double[] row) throws IOException {
+        if (row == null || row.length < cols) {
+            throw new IllegalArgumentException("Row must hold " + cols + " values");
+        }
+        if (!skipBlanks()) {
+            return false;
+        }
+        parser.setRowStore(row);
+        position = parser.parseRow(bytes, position, limit);
+        rowsRead++;
+        return true;
+    }
+
+    // Starts again at the first data row
+    public void rewind() throws IOException {
+        readPosition = dataStart;
+        position = 0;
+        limit = 0;
+        filled = 0;
+        endOfFile = false;
+        rowsRead = 0;
+        parser.resetRowCount();
+    }
+
+    // Moves position to the next non-blank byte, reading more of the file when the buffer runs
+    // out of complete lines; false when only blanks are left
+    private boolean skipBlanks() throws IOException {
+        while (true) {
+            while (position < limit && FastCSVParser.isBlank(bytes[position])) {
+                position++;
+            }
+            if (position < limit) {
+                return true;
+            }
+            if (endOfFile) {
+                return false;
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        int rest = filled - limit;
+        if (limit == 0 && filled == bytes.length) {
+            // One line fills the whole buffer
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        } else {
+            System.arraycopy(bytes, limit, bytes, 0, rest);
+            filled = rest;
+        }
+        position = 0;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(filled);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, readPosition);
+            if (n < 0) {
+                endOfFile = true;
+                break;
+            }
+            readPosition += n;
+        }
+        filled = buffer.position();
+
+        // Complete lines only, the partial last line waits for the next fill
+        limit = filled;
+        if (!endOfFile) {
+            while (limit > 0 && bytes[limit - 1] != '\n') {
+                limit--;
+            }
+        }
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public int getColumnCount() {
+        return cols;
+    }
+
+    // Rows returned since the reader was opened or rewound
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
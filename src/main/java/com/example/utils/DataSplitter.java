@@ -1,10 +1,14 @@
 package com.example.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+import com.example.data.DatasetView;
+import com.example.data.IDataset;
+
 public class DataSplitter {
     private Random random;
 
@@ -50,6 +54,34 @@ public class DataSplitter {
         return new double[][][] {X_train, X_test, y_train, y_test};
     }
 
+    // Same split over a dataset of any size: returns {train, test} as index views, nothing is copied
+    public IDataset[] trainTestSplit(IDataset dataset, double testRatio){
+        if(testRatio <= 0 || testRatio >=1){
+            throw new IllegalArgumentException("Train ratio must be between 0 and 1");
+        }
+
+        int totalSamples = dataset.size();
+        int trainSize = (int) (totalSamples * (1-testRatio));
+
+        // Fisher-Yates over a plain int[], drawing the same nextInt(i + 1) from the top as
+        // Collections.shuffle, so a seed gives the same split as the double[][] overload
+        int[] indices = new int[totalSamples];
+        for (int i = 0; i < totalSamples; i++) {
+            indices[i] = i;
+        }
+        for (int i = totalSamples - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+
+        int[] trainIndices = Arrays.copyOfRange(indices, 0, trainSize);
+        int[] testIndices = Arrays.copyOfRange(indices, trainSize, totalSamples);
+
+        return new IDataset[] {new DatasetView(dataset, trainIndices), new DatasetView(dataset, testIndices)};
+    }
+
     
     public double[][][][] createBatches(double[][] X, double[][] y, int batchSize) {
         int totalSamples = X.length;
@@ -0,0 +1,639 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.example.tensor.Tensor;
+
+// Numeric CSV parser that works on the raw bytes: the file is read through a reusable NIO buffer,
+// fields are found by scanning for the delimiter byte and numbers are decoded straight into one
+// row-major double[], so no String is created per line or per field. Follows CSVDataReader's
+// rules: blank lines are skipped, fields are trimmed, the first non-blank line is the header when
+// hasHeader is set, and the column count comes from the first data row.
+// Numbers whose digits, read as one integer (up to 18 of them), are at most 2^53 and whose decimal
+// exponent, counting the digits after the point, is within +-22 (every value of up to 15
+// significant digits and a moderate exponent, so nearly everything written by tools and
+// spreadsheets) are decoded exactly in place; anything else goes through Double.parseDouble, so
+// every value is the same as CSVDataReader's
+public class FastCSVParser {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int SEEK_BUFFER_SIZE = 1 << 12;
+
+    // Parallel parsing: a few chunks per thread even out uneven rows, tiny chunks are not worth a task
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    // The first row's length only estimates the row count: a short first row would oversize the
+    // store many times over, so the first allocation is capped and parseRow grows it from there
+    private static final long MAX_ESTIMATED_VALUES = 1 << 23;
+
+    // Largest mantissa and power of ten that are both exact doubles, see parseNumber
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String filePath;
+    private final boolean hasHeader;
+    private final byte delimiter;
+
+    private String[] headers;
+    private double[] data;
+    private int rows;
+    private int cols;
+    private int storeFirstRow;  // row held at data[0]: 0, except while streaming rows with CSVRowReader
+    private long fileSize;
+    private int threads;
+    private int cursor;         // where parseNumber stopped
+
+    public FastCSVParser(String filePath) {
+        this(filePath, true, ',');
+    }
+
+    public FastCSVParser(String filePath, boolean hasHeader) {
+        this(filePath, hasHeader, ',');
+    }
+
+    public FastCSVParser(String filePath, boolean hasHeader, char delimiter) {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty");
+        }
+        if (!supportsDelimiter(delimiter)) {
+            throw new IllegalArgumentException("Delimiter must be a printable ASCII character");
+        }
+        this.filePath = filePath;
+        this.hasHeader = hasHeader;
+        this.delimiter = (byte) delimiter;
+        this.threads = 1;
+    }
+
+    // Blanks (tab included) are trimmed from fields and lines, so they cannot separate fields here
+    public static boolean supportsDelimiter(char delimiter) {
+        return delimiter > ' ' && delimiter <= 127;
+    }
+
+    // Worker for one chunk of a parallel parse: writes rows firstRow.. of the parent's store
+    private FastCSVParser(FastCSVParser parent, int firstRow) {
+        this.filePath = parent.filePath;
+        this.hasHeader = parent.hasHeader;
+        this.delimiter = parent.delimiter;
+        this.headers = parent.headers;
+        this.cols = parent.cols;
+        this.data = parent.data;
+        this.rows = firstRow;
+        this.fileSize = parent.fileSize;
+        this.threads = 1;
+    }
+
+    public void parse() throws IOException {
+        headers = null;
+        data = new double[0];
+        rows = 0;
+        cols = 0;
+        storeFirstRow = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            if (threads > 1) {
+                parseParallel(channel);
+            } else {
+                readLines(channel, 0, fileSize, (bytes, limit, position) -> {
+                    parseLines(bytes, limit, position);
+                    return true;
+                });
+                // toTensor shares the store, so it must not keep the growth slack
+                if (data.length != rows * cols) {
+                    data = Arrays.copyOf(data, rows * cols);
+                }
+            }
+        }
+
+        if (rows == 0) {
+            throw new IOException("No data found in CSV file");
+        }
+    }
+
+    // Two passes over line-aligned chunks, each chunk on its own worker: count the rows of every
+    // chunk, allocate the store once, then parse every chunk into its own rows of it. Row numbers
+    // in errors are file-wide, and the error of the earliest failing chunk is the one reported
+    private void parseParallel(FileChannel channel) throws IOException {
+        long dataStart = readLayout(channel);
+        if (dataStart < 0) {
+            return;
+        }
+        long length = fileSize - dataStart;
+        int chunks = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE));
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = dataStart;
+        bounds[chunks] = fileSize;
+        for (int c = 1; c < chunks; c++) {
+            bounds[c] = Math.max(bounds[c - 1], nextLineStart(channel, dataStart + length * c / chunks));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks), task -> {
+            Thread thread = new Thread(task, "tinynn-csv-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Integer>> counts = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                long from = bounds[c];
+                long to = bounds[c + 1];
+                counts.add(() -> countRows(channel, from, to));
+            }
+            List<Integer> rowCounts = invokeAll(executor, counts);
+
+            int[] firstRows = new int[chunks + 1];
+            for (int c = 0; c < chunks; c++) {
+                long next = (long) firstRows[c] + rowCounts.get(c);
+                if (next * cols > Integer.MAX_VALUE - 8) {
+                    throw new IOException("CSV file has too many values for one array: " + filePath);
+                }
+                firstRows[c + 1] = (int) next;
+            }
+            data = new double[firstRows[chunks] * cols];
+
+            List<Callable<Integer>> parses = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                long from = bounds[c];
+                long to = bounds[c + 1];
+                FastCSVParser worker = new FastCSVParser(this, firstRows[c]);
+                parses.add(() -> {
+                    readLines(channel, from, to, (bytes, limit, position) -> {
+                        worker.parseLines(bytes, limit, position);
+                        return true;
+                    });
+                    return worker.rows;
+                });
+            }
+            List<Integer> lastRows = invokeAll(executor, parses);
+            for (int c = 0; c < chunks; c++) {
+                if (lastRows.get(c) != firstRows[c + 1]) {
+                    throw new IllegalStateException("CSV file changed while it was being parsed: " + filePath);
+                }
+            }
+            rows = firstRows[chunks];
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Reads the header and the column count; returns the offset of the first data row, or -1
+    private long readLayout(FileChannel channel) throws IOException {
+        long[] dataStart = { -1 };
+        readLines(channel, 0, fileSize, (bytes, limit, position) -> {
+            int pos = 0;
+            while (pos < limit) {
+                if (isBlank(bytes[pos])) {
+                    pos++;
+                } else if (hasHeader && headers == null) {
+                    pos = readFirstLine(bytes, pos, limit) + 1;
+                } else {
+                    readFirstLine(bytes, pos, limit);
+                    dataStart[0] = position + pos;
+                    return false;
+                }
+            }
+            return true;
+        });
+        return dataStart[0];
+    }
+
+    // Offset just after the first line break at or after offset - 1, so a chunk starts on a line
+    private long nextLineStart(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SEEK_BUFFER_SIZE);
+        long position = offset - 1;
+        while (position < fileSize) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < n; i++) {
+                if (bytes[i] == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return fileSize;
+    }
+
+    // Lines with at least one non-blank byte, counted the way parseLines consumes them
+    private int countRows(FileChannel channel, long from, long to) throws IOException {
+        int[] count = { 0 };
+        readLines(channel, from, to, (bytes, limit, position) -> {
+            boolean inRow = false;
+            int rowsInBuffer = 0;
+            for (int i = 0; i < limit; i++) {
+                byte b = bytes[i];
+                if (b == '\n') {
+                    if (inRow) {
+                        rowsInBuffer++;
+                        inRow = false;
+                    }
+                } else if (!isBlank(b)) {
+                    inRow = true;
+                }
+            }
+            count[0] += rowsInBuffer + (inRow ? 1 : 0);
+            return true;
+        });
+        return count[0];
+    }
+
+    // Runs the tasks and returns their results in order; if any failed, the failure of the first
+    // one in the list is thrown as is
+    private static List<Integer> invokeAll(ExecutorService executor, List<Callable<Integer>> tasks) throws IOException {
+        List<Integer> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV parsing was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("CSV parsing failed", cause);
+        }
+        return results;
+    }
+
+    // Hands [from, to) to the handler in buffers that end on a line break (the last one may end at
+    // to instead), until the handler returns false. Positional reads, so concurrent calls on one
+    // channel are fine
+    private static void readLines(FileChannel channel, long from, long to, BufferHandler handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = from;
+        long readPosition = from;
+        while (true) {
+            while (buffer.hasRemaining() && readPosition < to) {
+                buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (to - readPosition)));
+                int n = channel.read(buffer, readPosition);
+                if (n < 0) {
+                    to = readPosition;
+                    break;
+                }
+                readPosition += n;
+            }
+            buffer.limit(buffer.capacity());
+            boolean end = readPosition >= to;
+            byte[] bytes = buffer.array();
+            int filled = buffer.position();
+
+            // Complete lines only; the partial last line moves to the front of the buffer
+            int limit = filled;
+            if (!end) {
+                while (limit > 0 && bytes[limit - 1] != '\n') {
+                    limit--;
+                }
+            }
+            if (!handler.accept(bytes, limit, position) || end) {
+                return;
+            }
+            int rest = filled - limit;
+            if (limit == 0) {
+                // One line fills the whole buffer
+                buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length * 2));
+                buffer.position(rest);
+            } else {
+                System.arraycopy(bytes, limit, bytes, 0, rest);
+                buffer.clear();
+                buffer.position(rest);
+            }
+            position += limit;
+        }
+    }
+
+    private interface BufferHandler {
+        // bytes[0, limit) starts at file offset position
+        boolean accept(byte[] bytes, int limit, long position) throws IOException;
+    }
+
+    // Parses the rows in [0, limit); the first row fixes the column count and sizes the store
+    private void parseLines(byte[] bytes, int limit, long position) throws IOException {
+        int pos = 0;
+        while (pos < limit) {
+            // Blank lines and leading blanks are skipped together
+            if (isBlank(bytes[pos])) {
+                pos++;
+                continue;
+            }
+            if ((hasHeader && headers == null) || cols == 0) {
+                int end = readFirstLine(bytes, pos, limit);
+                if (cols == 0) {
+                    pos = end + 1;
+                    continue;
+                }
+                // Size the store from the first row so a large file is rarely copied while it grows
+                long estimatedRows = (fileSize - position - pos) / (end - pos + 1) + 1;
+                data = new double[(int) Math.min((long) cols * estimatedRows + cols, Math.max(MAX_ESTIMATED_VALUES, cols))];
+            }
+            pos = parseRow(bytes, pos, limit);
+        }
+    }
+
+    // Takes the header, or the column count from the first data row; returns the line's end
+    int readFirstLine(byte[] bytes, int start, int limit) {
+        int end = start;
+        while (end < limit && bytes[end] != '\n') {
+            end++;
+        }
+        int lineEnd = end;
+        while (lineEnd > start && (isBlank(bytes[lineEnd - 1]) || bytes[lineEnd - 1] == delimiter)) {
+            lineEnd--;
+        }
+        if (hasHeader && headers == null) {
+            headers = splitHeader(bytes, start, lineEnd);
+            return end;
+        }
+        cols = 1;
+        for (int i = start; i < lineEnd; i++) {
+            if (bytes[i] == delimiter) {
+                cols++;
+            }
+        }
+        return end;
+    }
+
+    // One data row starting at a non-blank byte; returns the position after its line
+    int parseRow(byte[] bytes, int start, int limit) throws IOException {
+        if ((long) (rows - storeFirstRow + 1) * cols > data.length) {
+            long capacity = Math.max((long) (rows - storeFirstRow + 1) * cols, data.length + (data.length >> 1));
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IOException("CSV file has too many values for one array: " + filePath);
+            }
+            data = Arrays.copyOf(data, (int) capacity);
+        }
+
+        int offset = (rows - storeFirstRow) * cols;
+        int i = start;
+        for (int column = 0; ; column++) {
+            if (column == cols) {
+                throw new IOException("Row " + rows + " has more than " + cols + " columns");
+            }
+            i = skipFieldBlanks(bytes, i, limit);
+            double value = parseNumber(bytes, i, limit);
+            int stop = skipFieldBlanks(bytes, cursor, limit);
+            if (value != value || (stop < limit && bytes[stop] != delimiter && bytes[stop] != '\n')) {
+                // Not decoded in place (or really NaN): the field runs to the next delimiter
+                stop = i;
+                while (stop < limit && bytes[stop] != delimiter && bytes[stop] != '\n') {
+                    stop++;
+                }
+                value = parseSlow(bytes, i, stop, column);
+            }
+            data[offset + column] = value;
+
+            if (stop < limit && bytes[stop] == delimiter && column + 1 == cols) {
+                // Trailing empty fields are dropped, as String.split does
+                while (stop < limit && bytes[stop] == delimiter) {
+                    stop++;
+                }
+                stop = skipFieldBlanks(bytes, stop, limit);
+                if (stop < limit && bytes[stop] != '\n') {
+                    throw new IOException("Row " + rows + " has more than " + cols + " columns");
+                }
+            }
+            if (stop >= limit || bytes[stop] == '\n') {
+                if (column + 1 != cols) {
+                    throw new IOException("Row " + rows + " has " + (column + 1) + " columns, expected " + cols);
+                }
+                rows++;
+                return stop + 1;
+            }
+            i = stop + 1;
+        }
+    }
+
+    private double parseSlow(byte[] bytes, int start, int end, int column) {
+        while (end > start && isBlank(bytes[end - 1])) {
+            end--;
+        }
+        String text = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(
+                "Cannot convert value '" + text + "' at row " + rows + ", column " + column + " to double"
+            );
+        }
+    }
+
+    // Blanks inside a line ('\r' included), stopping at the line break
+    private static int skipFieldBlanks(byte[] bytes, int i, int limit) {
+        while (i < limit && bytes[i] != '\n' && isBlank(bytes[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    // Decodes [+-]digits[.digits][(e|E)[+-]digits] starting at start and leaves cursor on the first
+    // byte after it. The result is exact when a mantissa of at most 2^53 is multiplied or divided by
+    // a power of ten up to 10^22: one correctly rounded IEEE operation on two exact values.
+    // Returns NaN when there is no number or it does not fit that form
+    private double parseNumber(byte[] bytes, int start, int limit) {
+        int i = start;
+        boolean negative = false;
+        if (i < limit && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        int significant = 0;
+        boolean truncated = false;
+        int c;
+        while (i < limit && (c = bytes[i] - '0') >= 0 && c <= 9) {
+            if (significant < 18) {
+                mantissa = mantissa * 10 + c;
+                if (mantissa != 0) {
+                    significant++;
+                }
+            } else {
+                truncated = true;
+            }
+            digits++;
+            i++;
+        }
+        if (i < limit && bytes[i] == '.') {
+            i++;
+            while (i < limit && (c = bytes[i] - '0') >= 0 && c <= 9) {
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + c;
+                    if (mantissa != 0) {
+                        significant++;
+                    }
+                    exponent--;
+                } else {
+                    truncated = true;
+                }
+                digits++;
+                i++;
+            }
+        }
+        if (i < limit && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < limit && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int value = 0;
+            while (i < limit && (c = bytes[i] - '0') >= 0 && c <= 9) {
+                value = Math.min(value * 10 + c, 100000);
+                i++;
+            }
+            if (i == exponentStart) {
+                digits = 0;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        cursor = i;
+        if (digits == 0 || truncated) {
+            return Double.NaN;
+        }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (mantissa > MAX_EXACT_MANTISSA || exponent < -MAX_EXACT_POWER || exponent > MAX_EXACT_POWER) {
+            return Double.NaN;
+        } else if (exponent < 0) {
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            result = mantissa * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -result : result;
+    }
+
+    private String[] splitHeader(byte[] bytes, int start, int end) {
+        String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        String[] names = line.split(Pattern.quote(String.valueOf((char) delimiter)));
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim();
+        }
+        return names;
+    }
+
+    static boolean isBlank(byte b) {
+        // Same set as String.trim(); multi-byte UTF-8 characters are negative and not blank
+        return b >= 0 && b <= ' ';
+    }
+
+    // All values as one [rows x columns] tensor, sharing the parser's storage
+    public Tensor toTensor() {
+        checkParsed();
+        return new Tensor(data, 0, rows, cols, cols);
+    }
+
+    // Row-major copy of all values
+    public double[] getData() {
+        checkParsed();
+        return Arrays.copyOf(data, rows * cols);
+    }
+
+    // Row-major copy rounded to float, half the memory of getData()
+    public float[] getDataAsFloatArray() {
+        checkParsed();
+        float[] result = new float[rows * cols];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (float) data[i];
+        }
+        return result;
+    }
+
+    public double[][] getDataAsDoubleArray() {
+        checkParsed();
+        double[][] result = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            result[i] = Arrays.copyOfRange(data, i * cols, (i + 1) * cols);
+        }
+        return result;
+    }
+
+    public double[] getColumn(int column) {
+        checkParsed();
+        if (column < 0 || column >= cols) {
+            throw new IndexOutOfBoundsException("Column index " + column + " is out of bounds");
+        }
+        double[] result = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            result[i] = data[i * cols + column];
+        }
+        return result;
+    }
+
+    // Streaming (CSVRowReader): the next parseRow writes its values to store[0, cols)
+    void setRowStore(double[] store) {
+        this.data = store;
+        this.storeFirstRow = rows;
+    }
+
+    void resetRowCount() {
+        rows = 0;
+        storeFirstRow = 0;
+    }
+
+    private void checkParsed() {
+        if (data == null) {
+            throw new IllegalStateException("CSV file has not been parsed, call parse() first");
+        }
+    }
+
+    // threads > 1 parses line-aligned chunks of the file concurrently, see parseParallel
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return cols;
+    }
+}
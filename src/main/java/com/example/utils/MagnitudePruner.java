@@ -0,0 +1,139 @@
+package com.example.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.core.NeuralNetworkEngine;
+import com.example.layers.DenseLayer;
+import com.example.layers.ILayer;
+import com.example.layers.SparseDenseLayer;
+import com.example.tensor.FloatTensor;
+
+// Magnitude pruning: zeroes the smallest |w| of a trained layer until the requested fraction of
+// its weights is zero. Biases are kept. Pruning usually costs some accuracy, a few epochs of
+// fine-tuning win most of it back: convert the pruned layers with sparsify() first, since a
+// SparseDenseLayer trains only the weights that survived while a DenseLayer would regrow the rest
+public class MagnitudePruner {
+
+    private MagnitudePruner() {
+    }
+
+    // Zeroes exactly round(sparsity * weights) weights of the layer, counting the ones that are
+    // already zero; returns how many weights are zero afterwards. Call engine.markParametersChanged()
+    // when the layer belongs to an engine, or use prune(engine, sparsity)
+    public static int prune(DenseLayer layer, double sparsity) {
+        if (layer == null) {
+            throw new IllegalArgumentException("Layer cannot be null");
+        }
+        if (!(sparsity >= 0.0 && sparsity <= 1.0)) {
+            throw new IllegalArgumentException("Sparsity must be between 0 and 1");
+        }
+        FloatTensor floatWeights = layer.getFloatWeights();
+        double[] doubleData = floatWeights == null ? layer.getWeightTensor().getData() : null;
+        float[] floatData = floatWeights != null ? floatWeights.getData() : null;
+        int count = floatData != null ? floatData.length : doubleData.length;
+        int target = (int) Math.round(sparsity * count);
+        if (target == 0) {
+            return countZeros(layer);
+        }
+
+        // The target-th smallest magnitude is the threshold; ties at the threshold are pruned in
+        // storage order until the target is reached
+        double[] magnitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            magnitudes[i] = Math.abs(floatData != null ? floatData[i] : doubleData[i]);
+        }
+        Arrays.sort(magnitudes);
+        double threshold = magnitudes[target - 1];
+        int below = 0;
+        while (below < target && magnitudes[below] < threshold) {
+            below++;
+        }
+        int tiesToPrune = target - below;
+
+        for (int i = 0; i < count; i++) {
+            double magnitude = Math.abs(floatData != null ? floatData[i] : doubleData[i]);
+            boolean prune = magnitude < threshold;
+            if (!prune && magnitude == threshold && tiesToPrune > 0) {
+                prune = true;
+                tiesToPrune--;
+            }
+            if (prune) {
+                if (floatData != null) {
+                    floatData[i] = 0.0f;
+                } else {
+                    doubleData[i] = 0.0;
+                }
+            }
+        }
+        return countZeros(layer);
+    }
+
+    // Prunes every DenseLayer of the engine to the same sparsity
+    public static void prune(NeuralNetworkEngine engine, double sparsity) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        for (ILayer layer : engine.getLayers()) {
+            if (layer instanceof DenseLayer) {
+                prune((DenseLayer) layer, sparsity);
+            }
+        }
+        engine.markParametersChanged();
+    }
+
+    // Fraction of the layer's weights that are exactly zero
+    public static double sparsity(DenseLayer layer) {
+        if (layer == null) {
+            throw new IllegalArgumentException("Layer cannot be null");
+        }
+        return (double) countZeros(layer) / ((long) layer.getInputSize() * layer.getOutputSize());
+    }
+
+    // Replaces every DenseLayer whose sparsity is at least minSparsity by a SparseDenseLayer with
+    // the same weights; returns how many layers were replaced. Replicas created before the
+    // call keep using the old layers
+    public static int sparsify(NeuralNetworkEngine engine, double minSparsity) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Neural network engine cannot be null");
+        }
+        if (!(minSparsity >= 0.0 && minSparsity <= 1.0)) {
+            throw new IllegalArgumentException("Sparsity must be between 0 and 1");
+        }
+        List<ILayer> layers = engine.getLayers();
+        int replaced = 0;
+        for (int l = 0; l < layers.size(); l++) {
+            ILayer layer = layers.get(l);
+            if (layer instanceof DenseLayer && sparsity((DenseLayer) layer) >= minSparsity) {
+                layers.set(l, new SparseDenseLayer((DenseLayer) layer));
+                replaced++;
+            }
+        }
+        if (replaced > 0) {
+            engine.clearLayers();
+            for (ILayer layer : layers) {
+                engine.addLayer(layer);
+            }
+        }
+        return replaced;
+    }
+
+    private static int countZeros(DenseLayer layer) {
+        int zeros = 0;
+        FloatTensor floatWeights = layer.getFloatWeights();
+        if (floatWeights != null) {
+            for (float w : floatWeights.getData()) {
+                if (w == 0.0f) {
+                    zeros++;
+                }
+            }
+        } else {
+            for (double w : layer.getWeightTensor().getData()) {
+                if (w == 0.0) {
+                    zeros++;
+                }
+            }
+        }
+        return zeros;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.tensor.Tensor;
+
+class FastCSVParserTest {
+
+    @TempDir
+    Path dir;
+
+    // The byte-level decoding must give exactly the values Double.parseDouble gives through
+    // CSVDataReader, on the fast path and on the fallback, sequentially and in parallel
+    @Test
+    void parsesTheSameValuesAsCSVDataReader() throws IOException {
+        Random random = new Random(7);
+        StringBuilder csv = new StringBuilder("a, b ,c,d\r\n\r\n");
+        for (int r = 0; r < 5000; r++) {
+            csv.append(random.nextInt(1000) - 500).append(',')
+               .append(' ').append(random.nextGaussian()).append(" ,")
+               .append(String.format(Locale.ROOT, "%.6e", random.nextDouble() * 1e6)).append(',')
+               .append(format(random))
+               .append(r % 7 == 0 ? ",\r\n" : "\n");
+            if (r % 100 == 0) {
+                csv.append("  \n");
+            }
+        }
+        String file = write("values.csv", csv.toString());
+
+        CSVDataReader reader = new CSVDataReader(file, true, ",");
+        reader.loadData();
+        double[][] expected = reader.getDataAsDoubleArray();
+
+        for (int threads : new int[] {1, 4}) {
+            FastCSVParser parser = new FastCSVParser(file, true, ',');
+            parser.setThreads(threads);
+            parser.parse();
+            assertArrayEquals(reader.getHeaders(), parser.getHeaders());
+            assertEquals(expected.length, parser.getRowCount());
+            double[][] actual = parser.getDataAsDoubleArray();
+            for (int r = 0; r < expected.length; r++) {
+                assertArrayEquals(expected[r], actual[r], 0.0, "row " + r);
+            }
+        }
+    }
+
+    // Up to 18 digits, 17-digit shortest representations, signs and exponents outside the fast path
+    private static String format(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return Double.toString(random.nextDouble());
+            case 1:
+                return "+" + random.nextInt(100000) + "." + random.nextInt(1000);
+            case 2:
+                return Long.toString(random.nextLong() % 1_000_000_000_000_000_000L);
+            case 3:
+                return random.nextInt(10) + "e-" + (20 + random.nextInt(10));
+            default:
+                return "-0.000" + random.nextInt(1000000);
+        }
+    }
+
+    @Test
+    void loadTensorReadsTabSeparatedFiles() throws IOException {
+        String file = write("values.tsv", "x\ty\n1\t2.5\n-3\t4e2\n");
+
+        CSVDataReader rows = new CSVDataReader(file, true, "\t");
+        rows.loadData();
+        Tensor tensor = new CSVDataReader(file, true, "\t").loadTensor();
+
+        assertEquals(2, tensor.getRows());
+        assertArrayEquals(rows.getDataAsDoubleArray()[0], tensor.toArray()[0], 0.0);
+        assertArrayEquals(rows.getDataAsDoubleArray()[1], tensor.toArray()[1], 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new FastCSVParser(file, true, '\t'));
+    }
+
+    // A short first row must not size the store for the whole file: the tensor handed out keeps
+    // exactly rows x columns values
+    @Test
+    void shortFirstRowDoesNotOversizeTheStore() throws IOException {
+        StringBuilder csv = new StringBuilder("0,0\n");
+        for (int r = 0; r < 100000; r++) {
+            csv.append("123456.789012,-98765.4321098\n");
+        }
+        String file = write("short.csv", csv.toString());
+
+        FastCSVParser parser = new FastCSVParser(file, false, ',');
+        parser.parse();
+        Tensor tensor = parser.toTensor();
+
+        assertEquals(100001, tensor.getRows());
+        assertEquals(100001 * 2, tensor.getData().length);
+        assertEquals(-98765.4321098, tensor.get(100000, 1), 0.0);
+    }
+
+    private String write(String name, String content) throws IOException {
+        Path path = dir.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path.toString();
+    }
+}